@@ -0,0 +1,94 @@
+package com.choreocam.app.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.choreocam.app.database.dao.ClipDao;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.Project;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class ClipDaoTest {
+
+    private AppDatabase database;
+    private ClipDao clipDao;
+    private long projectId;
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), AppDatabase.class)
+            .allowMainThreadQueries()
+            .build();
+        clipDao = database.clipDao();
+
+        Project project = new Project();
+        project.setEditDecisionListJson("[{\"clip\":1,\"in\":0,\"out\":1000,\"start\":0}]");
+        project.setEdlPath("/data/edl/project_1.edl");
+        project.setDirtyFields(0);
+        project.setNeedsSync(false);
+        projectId = database.projectDao().insert(project);
+        for (String uri : new String[] {"content://a", "content://b", "content://c"}) {
+            Clip clip = new Clip();
+            clip.setProjectId(projectId);
+            clip.setUri(uri);
+            clipDao.addClip(clip);
+        }
+        // Appending leaves the timeline alone
+        Project stored = database.projectDao().getProjectByIdSync(projectId);
+        assertNotNull(stored.getEditDecisionListJson());
+        assertNotNull(stored.getEdlPath());
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void removeClipClosesGapAndDropsTimeline() {
+        clipDao.removeClip(clipDao.getClipAt(projectId, 0));
+
+        List<Clip> clips = clipDao.getClipsForProject(projectId);
+        assertEquals(2, clips.size());
+        assertEquals("content://b", clips.get(0).getUri());
+        assertEquals(0, clips.get(0).getPosition());
+        assertEquals(1, clips.get(1).getPosition());
+        assertTimelineCleared();
+    }
+
+    @Test
+    public void insertClipAtOpensGapAndDropsTimeline() {
+        Clip clip = new Clip();
+        clip.setProjectId(projectId);
+        clip.setUri("content://new");
+        clipDao.insertClipAt(clip, 1);
+
+        List<Clip> clips = clipDao.getClipsForProject(projectId);
+        assertEquals(4, clips.size());
+        assertEquals("content://a", clips.get(0).getUri());
+        assertEquals("content://new", clips.get(1).getUri());
+        assertEquals("content://b", clips.get(2).getUri());
+        assertEquals(3, clips.get(3).getPosition());
+        assertTimelineCleared();
+    }
+
+    private void assertTimelineCleared() {
+        Project project = database.projectDao().getProjectByIdSync(projectId);
+        assertNull(project.getEditDecisionListJson());
+        assertNull(project.getEdlPath());
+        assertTrue(project.isNeedsSync());
+        assertEquals(Project.FIELD_CLIPS | Project.FIELD_EDIT_DECISIONS,
+            project.getDirtyFields() & (Project.FIELD_CLIPS | Project.FIELD_EDIT_DECISIONS));
+    }
+}
@@ -0,0 +1,130 @@
+package com.choreocam.app.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.database.Cursor;
+import androidx.room.Room;
+import androidx.room.migration.Migration;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.Project;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+// Runs the migrations against the schemas Room exported to app/schemas (see export-room-schemas.sh)
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    private static final Migration[] ALL_MIGRATIONS = {
+        AppDatabase.MIGRATION_1_2, AppDatabase.MIGRATION_2_3, AppDatabase.MIGRATION_3_4, AppDatabase.MIGRATION_4_5,
+        AppDatabase.MIGRATION_5_6, AppDatabase.MIGRATION_6_7, AppDatabase.MIGRATION_7_8, AppDatabase.MIGRATION_8_9,
+        AppDatabase.MIGRATION_9_10
+    };
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+        InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    @Test
+    public void migrateFromFirstVersionToLatest() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1)) {
+            db.execSQL("INSERT INTO projects (id, projectId, userId, title, clipsMetaJson, chosenPresetId, musicId, "
+                + "status, duration, createdAt, updatedAt, needsSync) VALUES (1, 'p1', 1, 'Dance', "
+                + "'[{\"uri\":\"content://a\",\"durationMs\":4000,\"trimStartMs\":0,\"trimEndMs\":0}]', "
+                + "0, 0, 'draft', 0, 1, 1, 1)");
+        }
+
+        helper.runMigrationsAndValidate(TEST_DB, 10, true, ALL_MIGRATIONS).close();
+
+        // Room checks the migrated schema against the entities when it opens the file
+        AppDatabase database = Room.databaseBuilder(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), AppDatabase.class, TEST_DB)
+            .addMigrations(ALL_MIGRATIONS)
+            .allowMainThreadQueries()
+            .build();
+        try {
+            Project project = database.projectDao().getProjectByIdSync(1);
+            assertEquals("Dance", project.getTitle());
+            assertEquals(Project.FIELD_ALL, project.getDirtyFields());
+            List<Clip> clips = database.clipDao().getClipsForProject(1);
+            assertEquals(1, clips.size());
+            assertEquals("content://a", clips.get(0).getUri());
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    public void migrate2To3MarksPendingRowsFullyDirty() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 2)) {
+            db.execSQL("INSERT INTO projects (id, userId, chosenPresetId, musicId, duration, createdAt, updatedAt, "
+                + "needsSync) VALUES (1, 1, 0, 0, 0, 1, 1, 1)");
+            db.execSQL("INSERT INTO projects (id, userId, chosenPresetId, musicId, duration, createdAt, updatedAt, "
+                + "needsSync) VALUES (2, 1, 0, 0, 0, 1, 1, 0)");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 3, true, AppDatabase.MIGRATION_2_3);
+             Cursor cursor = db.query("SELECT dirtyFields FROM projects ORDER BY id")) {
+            assertTrue(cursor.moveToNext());
+            assertEquals(Project.FIELD_ALL, cursor.getInt(0));
+            assertTrue(cursor.moveToNext());
+            assertEquals(0, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void migrate4To5MovesClipsIntoTheirTable() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 4)) {
+            db.execSQL("INSERT INTO projects (id, userId, clipsMetaJson, chosenPresetId, musicId, duration, createdAt, "
+                + "updatedAt, needsSync, dirtyFields) VALUES (1, 1, "
+                + "'[{\"uri\":\"content://a\",\"durationMs\":4000,\"trimStartMs\":500,\"trimEndMs\":3000},"
+                + "{\"uri\":\"content://b\",\"durationMs\":2000,\"trimStartMs\":0,\"trimEndMs\":0}]', "
+                + "0, 0, 0, 1, 1, 0, 0)");
+            db.execSQL("INSERT INTO projects (id, userId, chosenPresetId, musicId, duration, createdAt, updatedAt, "
+                + "needsSync, dirtyFields) VALUES (2, 1, 0, 0, 0, 1, 1, 0, 0)");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 5, true, AppDatabase.MIGRATION_4_5)) {
+            try (Cursor cursor = db.query(
+                    "SELECT projectId, position, uri, durationMs, trimStartMs, trimEndMs FROM clips ORDER BY position")) {
+                assertTrue(cursor.moveToNext());
+                assertEquals(1, cursor.getLong(0));
+                assertEquals(0, cursor.getInt(1));
+                assertEquals("content://a", cursor.getString(2));
+                assertEquals(4000, cursor.getLong(3));
+                assertEquals(500, cursor.getLong(4));
+                assertEquals(3000, cursor.getLong(5));
+                assertTrue(cursor.moveToNext());
+                assertEquals(1, cursor.getInt(1));
+                assertEquals("content://b", cursor.getString(2));
+                assertFalse(cursor.moveToNext());
+            }
+            try (Cursor cursor = db.query("SELECT clipsMetaJson FROM projects WHERE id = 1")) {
+                assertTrue(cursor.moveToNext());
+                assertNull(cursor.getString(0));
+            }
+        }
+    }
+
+    @Test
+    public void migrate9To10CreatesRenderQueue() throws IOException {
+        helper.createDatabase(TEST_DB, 9).close();
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 10, true, AppDatabase.MIGRATION_9_10);
+             Cursor cursor = db.query("SELECT COUNT(*) FROM render_jobs")) {
+            assertTrue(cursor.moveToNext());
+            assertEquals(0, cursor.getInt(0));
+        }
+    }
+}
@@ -2,39 +2,71 @@ package com.choreocam.app;
 
 import android.app.Application;
 import android.content.Context;
+import androidx.work.Configuration;
 import androidx.work.ExistingPeriodicWorkPolicy;
 import androidx.work.PeriodicWorkRequest;
 import androidx.work.WorkManager;
+import com.choreocam.app.api.ApiClient;
+import com.choreocam.app.concurrent.AppExecutors;
 import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.startup.StartupOrchestrator;
 import com.choreocam.app.utils.ConfigManager;
+import com.choreocam.app.utils.SessionManager;
 import com.choreocam.app.workers.SyncWorker;
 import com.google.android.gms.ads.MobileAds;
 import com.google.android.gms.ads.RequestConfiguration;
 import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
-public class ChoreoCamApplication extends Application {
+public class ChoreoCamApplication extends Application implements Configuration.Provider {
+
+    public static final String INIT_CONFIG = "config";
+    public static final String INIT_DATABASE = "database";
+    public static final String INIT_SESSION = "session";
+    public static final String INIT_ADS = "ads";
+    public static final String INIT_SYNC = "sync";
 
     private static Context context;
     private static AppDatabase database;
     private static ConfigManager configManager;
+    private static AppExecutors executors;
+    private static SessionManager sessionManager;
+    private static StartupOrchestrator startup;
 
     @Override
     public void onCreate() {
         super.onCreate();
         context = getApplicationContext();
+        executors = new AppExecutors();
 
-        // Initialize configuration manager
+        // Only cheap construction happens here; the work itself runs in the startup graph below
         configManager = new ConfigManager(this);
-
-        // Initialize Room database
+        configManager.addListener((previous, current) -> {
+            if (!current.sameBackend(previous)) {
+                ApiClient.resetClient();
+            }
+        });
         database = AppDatabase.getInstance(this);
+        sessionManager = new SessionManager(database);
+
+        startup = new StartupOrchestrator(executors.diskIO(), executors.mainThread())
+            .add(INIT_CONFIG, configManager::load)
+            // Opening the database runs any pending migrations, so it is done before a screen needs it
+            .add(INIT_DATABASE, () -> database.getOpenHelper().getWritableDatabase())
+            .add(INIT_SESSION, sessionManager::getCurrentUser, INIT_DATABASE)
+            .addSignal(StartupOrchestrator.FIRST_DRAW)
+            // Neither is needed for the first screen, so they wait until it is on the display
+            .add(INIT_ADS, this::initializeAdMob, INIT_CONFIG, StartupOrchestrator.FIRST_DRAW)
+            .add(INIT_SYNC, this::scheduleSyncWork, INIT_CONFIG, StartupOrchestrator.FIRST_DRAW);
+        startup.signalOnFirstDraw(this, StartupOrchestrator.FIRST_DRAW);
+        startup.start();
+    }
 
-        // Initialize AdMob
-        initializeAdMob();
-
-        // Schedule periodic sync work
-        scheduleSyncWork();
+    // WorkManager's content-provider initializer is removed in the manifest, so it is created on
+    // first use by the deferred sync initializer instead of before Application.onCreate
+    @Override
+    public Configuration getWorkManagerConfiguration() {
+        return new Configuration.Builder().build();
     }
 
     private void initializeAdMob() {
@@ -82,4 +114,16 @@ public class ChoreoCamApplication extends Application {
     public static ConfigManager getConfigManager() {
         return configManager;
     }
+
+    public static SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    public static AppExecutors getExecutors() {
+        return executors;
+    }
+
+    public static StartupOrchestrator getStartup() {
+        return startup;
+    }
 }
@@ -6,6 +6,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import com.choreocam.app.ChoreoCamApplication;
 import com.choreocam.app.R;
+import com.choreocam.app.concurrent.PriorityExecutor;
 import com.choreocam.app.database.AppDatabase;
 import com.choreocam.app.models.User;
 import com.google.android.material.button.MaterialButton;
@@ -82,7 +83,7 @@ public class AuthActivity extends AppCompatActivity {
         }
 
         // Create local user for offline mode
-        new Thread(() -> {
+        ChoreoCamApplication.getExecutors().diskIO().submit(PriorityExecutor.PRIORITY_HIGH, () -> {
             User user = new User();
             user.setUserId(UUID.randomUUID().toString());
             user.setEmail(email);
@@ -91,12 +92,13 @@ public class AuthActivity extends AppCompatActivity {
             user.setNeedsSync(true);
 
             database.userDao().insert(user);
+            ChoreoCamApplication.getSessionManager().invalidate();
 
             runOnUiThread(() -> {
                 Toast.makeText(this, "Account created! Will sync when online.", Toast.LENGTH_LONG).show();
                 finish();
             });
-        }).start();
+        });
     }
 
     private void skipAuth() {
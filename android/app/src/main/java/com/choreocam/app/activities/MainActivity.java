@@ -11,8 +11,10 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import com.choreocam.app.ChoreoCamApplication;
 import com.choreocam.app.R;
+import com.choreocam.app.concurrent.PriorityExecutor;
 import com.choreocam.app.models.User;
 import com.choreocam.app.utils.AdManager;
+import com.choreocam.app.utils.SessionManager;
 import com.choreocam.app.workers.NetworkUtils;
 import com.google.android.material.button.MaterialButton;
 
@@ -29,6 +31,7 @@ public class MainActivity extends AppCompatActivity {
 
     private AdManager adManager;
     private User currentUser;
+    private boolean reportedFullyDrawn;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -37,10 +40,13 @@ public class MainActivity extends AppCompatActivity {
 
         initializeViews();
         setupToolbar();
-        setupAdManager();
         setupClickListeners();
         checkUserStatus();
         checkNetworkStatus();
+
+        // Ads are initialized after the first frame, so the banner is requested only once they are
+        ChoreoCamApplication.getStartup().whenComplete(ChoreoCamApplication.INIT_ADS,
+            ChoreoCamApplication.getExecutors().mainThread(), this::setupAdManager);
     }
 
     private void initializeViews() {
@@ -60,6 +66,9 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void setupAdManager() {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
         adManager = new AdManager(this);
 
         // Load banner ad if user is not Pro
@@ -109,22 +118,37 @@ public class MainActivity extends AppCompatActivity {
         startActivity(intent);
 
         // Show interstitial ad if appropriate
-        if (currentUser == null || !currentUser.isPro()) {
+        if (adManager != null && (currentUser == null || !currentUser.isPro())) {
             adManager.showInterstitialAd();
         }
     }
 
     private void checkUserStatus() {
-        new Thread(() -> {
-            currentUser = ChoreoCamApplication.getDatabase().userDao().getCurrentUser();
-            runOnUiThread(() -> {
-                if (currentUser != null && currentUser.isPro()) {
-                    // Hide pro card and ads for Pro users
-                    proCard.setVisibility(View.GONE);
-                    adContainer.setVisibility(View.GONE);
-                }
-            });
-        }).start();
+        SessionManager session = ChoreoCamApplication.getSessionManager();
+        User cached = session.peekCurrentUser();
+        if (cached != null) {
+            // Session already loaded, so no background hop is needed
+            currentUser = cached;
+            applyUserStatus();
+            return;
+        }
+        ChoreoCamApplication.getExecutors().diskIO().submit(this, PriorityExecutor.PRIORITY_HIGH, () -> {
+            currentUser = session.getCurrentUser();
+            runOnUiThread(this::applyUserStatus);
+        });
+    }
+
+    private void applyUserStatus() {
+        if (currentUser != null && currentUser.isPro()) {
+            // Hide pro card and ads for Pro users
+            proCard.setVisibility(View.GONE);
+            adContainer.setVisibility(View.GONE);
+        }
+        if (!reportedFullyDrawn) {
+            // Ends the time-to-full-display measurement once the Pro state is known
+            reportedFullyDrawn = true;
+            reportFullyDrawn();
+        }
     }
 
     private void checkNetworkStatus() {
@@ -158,20 +182,26 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        adManager.resumeAd();
+        if (adManager != null) {
+            adManager.resumeAd();
+        }
         checkNetworkStatus();
         checkUserStatus();
     }
 
     @Override
     protected void onPause() {
-        adManager.pauseAd();
+        if (adManager != null) {
+            adManager.pauseAd();
+        }
         super.onPause();
     }
 
     @Override
     protected void onDestroy() {
-        adManager.destroyAd();
+        if (adManager != null) {
+            adManager.destroyAd();
+        }
         super.onDestroy();
     }
 
@@ -1,13 +1,40 @@
 package com.choreocam.app.activities;
 
 import android.os.Bundle;
-import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import com.choreocam.app.R;
+import com.choreocam.app.adapters.MusicTrackAdapter;
+import com.choreocam.app.concurrent.PriorityExecutor;
+import com.choreocam.app.media.MusicDownloadManager;
+import com.choreocam.app.models.MusicTrack;
+import com.choreocam.app.repository.CatalogRepository;
 
 public class MusicLibraryActivity extends AppCompatActivity {
 
+    private MusicTrackAdapter adapter;
+
+    // Rows are refreshed from Room on completion, which now carries the local file path
+    private final MusicDownloadManager.Listener downloadListener = new MusicDownloadManager.Listener() {
+        @Override
+        public void onProgress(long trackId, long downloadedBytes, long totalBytes) {
+            int percent = totalBytes > 0 ? (int) (downloadedBytes * 100 / totalBytes) : 0;
+            adapter.setDownloadProgress(trackId, percent);
+        }
+
+        @Override
+        public void onComplete(long trackId, String path) {
+            adapter.clearDownloadProgress(trackId);
+        }
+
+        @Override
+        public void onFailed(long trackId, Exception error) {
+            adapter.setDownloadProgress(trackId, MusicTrackAdapter.DOWNLOAD_FAILED);
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -20,7 +47,34 @@ public class MusicLibraryActivity extends AppCompatActivity {
             getSupportActionBar().setTitle(R.string.music_library);
         }
 
-        Toast.makeText(this, "Music library will display here", Toast.LENGTH_SHORT).show();
+        RecyclerView recyclerView = findViewById(R.id.recyclerView);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new MusicTrackAdapter(this::onTrackClick);
+        recyclerView.setAdapter(adapter);
+        MusicDownloadManager.getInstance().addListener(downloadListener);
+
+        // Cached rows render immediately; a stale catalog is refreshed in the background
+        CatalogRepository.getInstance().getMusicTracks().observe(this, adapter::submitList);
+    }
+
+    private void onTrackClick(MusicTrack track) {
+        if (track.getLocalFilePath() != null) {
+            return;
+        }
+        MusicDownloadManager downloads = MusicDownloadManager.getInstance();
+        if (downloads.isDownloading(track.getId())) {
+            downloads.cancel(track.getId());
+            adapter.clearDownloadProgress(track.getId());
+            return;
+        }
+        adapter.setDownloadProgress(track.getId(), 0);
+        downloads.download(track, PriorityExecutor.PRIORITY_HIGH);
+    }
+
+    @Override
+    protected void onDestroy() {
+        MusicDownloadManager.getInstance().removeListener(downloadListener);
+        super.onDestroy();
     }
 
     @Override
@@ -1,10 +1,13 @@
 package com.choreocam.app.activities;
 
 import android.os.Bundle;
-import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import com.choreocam.app.R;
+import com.choreocam.app.adapters.PresetAdapter;
+import com.choreocam.app.repository.CatalogRepository;
 
 public class PresetsActivity extends AppCompatActivity {
 
@@ -20,7 +23,13 @@ public class PresetsActivity extends AppCompatActivity {
             getSupportActionBar().setTitle(R.string.browse_presets);
         }
 
-        Toast.makeText(this, "Presets list will display here", Toast.LENGTH_SHORT).show();
+        RecyclerView recyclerView = findViewById(R.id.recyclerView);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        PresetAdapter adapter = new PresetAdapter();
+        recyclerView.setAdapter(adapter);
+
+        // Cached rows render immediately; a stale catalog is refreshed in the background
+        CatalogRepository.getInstance().getPresets().observe(this, adapter::submitList);
     }
 
     @Override
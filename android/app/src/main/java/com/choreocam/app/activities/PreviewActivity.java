@@ -1,17 +1,242 @@
 package com.choreocam.app.activities;
 
+import android.net.Uri;
+import android.opengl.GLSurfaceView;
 import android.os.Bundle;
-import android.widget.Toast;
+import android.view.Choreographer;
+import android.view.View;
+import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.PlaybackException;
+import androidx.media3.common.Player;
+import androidx.media3.common.VideoSize;
+import androidx.media3.exoplayer.ExoPlayer;
+import com.choreocam.app.ChoreoCamApplication;
 import com.choreocam.app.R;
+import com.choreocam.app.concurrent.PriorityExecutor;
+import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.edit.EdlFile;
+import com.choreocam.app.edit.EditDecisionList;
+import com.choreocam.app.edit.SegmentList;
+import com.choreocam.app.media.MusicDownloadManager;
+import com.choreocam.app.media.ProxyGenerator;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.MusicTrack;
+import com.choreocam.app.models.Preset;
+import com.choreocam.app.models.Project;
+import com.choreocam.app.render.PresetEffects;
+import com.choreocam.app.render.PreviewRenderer;
+import com.choreocam.app.repository.TimelineRepository;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
-public class PreviewActivity extends AppCompatActivity {
+// Plays the project's edit decision list as a clipped ExoPlayer playlist with the preset shaders applied live
+public class PreviewActivity extends AppCompatActivity implements Choreographer.FrameCallback {
+
+    public static final String EXTRA_PROJECT_ID = "project_id";
+
+    // Music is re-seeked when it wanders further than this from the video timeline
+    private static final long MUSIC_DRIFT_MS = 80;
+
+    private GLSurfaceView previewSurface;
+    private TextView statusText;
+    private PreviewRenderer renderer;
+    private ExoPlayer videoPlayer;
+    private ExoPlayer musicPlayer;
+    private SegmentList timeline;
+    private boolean ticking;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_preview);
 
-        Toast.makeText(this, "Video preview will display here", Toast.LENGTH_SHORT).show();
+        previewSurface = findViewById(R.id.previewSurface);
+        statusText = findViewById(R.id.statusText);
+
+        videoPlayer = new ExoPlayer.Builder(this).build();
+        // The export only carries the music track, so the preview does too
+        videoPlayer.setVolume(0f);
+        videoPlayer.addListener(new Player.Listener() {
+            @Override
+            public void onVideoSizeChanged(VideoSize videoSize) {
+                renderer.setSourceSize(videoSize.width, videoSize.height, videoSize.unappliedRotationDegrees);
+            }
+
+            @Override
+            public void onIsPlayingChanged(boolean isPlaying) {
+                syncMusic(isPlaying);
+            }
+
+            @Override
+            public void onPlayerError(PlaybackException error) {
+                error.printStackTrace();
+                statusText.setText(error.getMessage());
+                statusText.setVisibility(View.VISIBLE);
+            }
+        });
+
+        renderer = new PreviewRenderer(previewSurface, surface -> videoPlayer.setVideoSurface(surface));
+        previewSurface.setEGLContextClientVersion(2);
+        previewSurface.setRenderer(renderer);
+        previewSurface.setRenderMode(GLSurfaceView.RENDERMODE_WHEN_DIRTY);
+        previewSurface.setOnClickListener(v -> togglePlayback());
+
+        long projectId = getIntent().getLongExtra(EXTRA_PROJECT_ID, -1);
+        loadProject(projectId);
+    }
+
+    private void loadProject(long projectId) {
+        ChoreoCamApplication.getExecutors().diskIO().submit(this, PriorityExecutor.PRIORITY_HIGH, () -> {
+            AppDatabase database = ChoreoCamApplication.getDatabase();
+            Project project = database.projectDao().getProjectByIdSync(projectId);
+            if (project == null) {
+                runOnUiThread(this::finish);
+                return;
+            }
+            List<Clip> clips = database.clipDao().getClipsForProject(project.getId());
+            new ProxyGenerator(this, database.clipDao()).dropMissingProxies(clips);
+            MusicTrack track = project.getMusicId() > 0
+                ? database.musicTrackDao().getTrackByIdSync(project.getMusicId()) : null;
+
+            SegmentList segments;
+            PresetEffects effects;
+            EdlFile edlFile = TimelineRepository.getInstance().load(project);
+            if (edlFile != null) {
+                segments = edlFile;
+                effects = edlFile.getEffects();
+            } else {
+                Preset preset = project.getChosenPresetId() > 0
+                    ? database.presetDao().getPresetByIdSync(project.getChosenPresetId()) : null;
+                segments = EditDecisionList.fromJson(project.getEditDecisionListJson());
+                effects = PresetEffects.fromPreset(preset);
+            }
+            if (segments.isEmpty()) {
+                segments = EditDecisionList.fromClips(clips);
+            }
+
+            SegmentList finalSegments = segments;
+            String musicPath = track != null ? MusicDownloadManager.getInstance().getLocalFile(track) : null;
+            runOnUiThread(() -> startPreview(clips, finalSegments, effects, musicPath));
+        });
+    }
+
+    private void startPreview(List<Clip> clips, SegmentList segments, PresetEffects effects, String musicPath) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+        List<MediaItem> items = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            int clipIndex = segments.getClipIndex(i);
+            if (clipIndex >= clips.size()) {
+                items.clear();
+                break;
+            }
+            // Each segment is a clipped item, so cuts play gaplessly without an export pass. Proxies
+            // share the original's timestamps, so the same clipping points apply to either.
+            items.add(new MediaItem.Builder()
+                .setUri(clips.get(clipIndex).getEditSource())
+                .setClippingConfiguration(new MediaItem.ClippingConfiguration.Builder()
+                    .setStartPositionMs(segments.getSourceInMs(i))
+                    .setEndPositionMs(segments.getSourceOutMs(i))
+                    .build())
+                .build());
+        }
+        if (items.isEmpty()) {
+            statusText.setText(R.string.preview_empty);
+            return;
+        }
+
+        timeline = segments;
+        renderer.setEffects(effects);
+        statusText.setVisibility(View.GONE);
+
+        if (musicPath != null && new File(musicPath).exists()) {
+            musicPlayer = new ExoPlayer.Builder(this).build();
+            musicPlayer.setMediaItem(MediaItem.fromUri(Uri.fromFile(new File(musicPath))));
+            musicPlayer.prepare();
+        }
+        videoPlayer.setMediaItems(items);
+        videoPlayer.prepare();
+        videoPlayer.play();
+    }
+
+    private void togglePlayback() {
+        if (timeline == null) {
+            return;
+        }
+        if (videoPlayer.getPlaybackState() == Player.STATE_ENDED) {
+            videoPlayer.seekTo(0, 0);
+            videoPlayer.play();
+        } else if (videoPlayer.getPlayWhenReady()) {
+            videoPlayer.pause();
+        } else {
+            videoPlayer.play();
+        }
+    }
+
+    private long getTimelinePositionMs() {
+        int segment = Math.min(videoPlayer.getCurrentMediaItemIndex(), timeline.size() - 1);
+        return timeline.getTimelineStartMs(segment) + videoPlayer.getCurrentPosition();
+    }
+
+    private void syncMusic(boolean isPlaying) {
+        if (musicPlayer == null || timeline == null) {
+            return;
+        }
+        if (isPlaying) {
+            musicPlayer.seekTo(getTimelinePositionMs());
+            musicPlayer.play();
+        } else {
+            musicPlayer.pause();
+        }
+    }
+
+    // Once per vsync: hand the playhead to the GL thread for transition fades and keep the music aligned
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!ticking) {
+            return;
+        }
+        if (timeline != null) {
+            int segment = Math.min(videoPlayer.getCurrentMediaItemIndex(), timeline.size() - 1);
+            renderer.setPlaybackPosition(segment, timeline.size(), videoPlayer.getCurrentPosition(),
+                timeline.getLengthMs(segment));
+            if (musicPlayer != null && musicPlayer.isPlaying()
+                    && Math.abs(musicPlayer.getCurrentPosition() - getTimelinePositionMs()) > MUSIC_DRIFT_MS) {
+                musicPlayer.seekTo(getTimelinePositionMs());
+            }
+        }
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        previewSurface.onResume();
+        ticking = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    protected void onPause() {
+        ticking = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        videoPlayer.pause();
+        previewSurface.onPause();
+        super.onPause();
+    }
+
+    @Override
+    protected void onDestroy() {
+        videoPlayer.clearVideoSurface();
+        videoPlayer.release();
+        if (musicPlayer != null) {
+            musicPlayer.release();
+        }
+        renderer.release();
+        super.onDestroy();
     }
 }
@@ -7,6 +7,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import com.choreocam.app.ChoreoCamApplication;
 import com.choreocam.app.R;
+import com.choreocam.app.concurrent.PriorityExecutor;
 import com.choreocam.app.database.AppDatabase;
 import com.choreocam.app.models.User;
 import com.google.android.material.button.MaterialButton;
@@ -191,17 +192,18 @@ public class ProUpgradeActivity extends AppCompatActivity implements PurchasesUp
         for (Purchase purchase : purchases) {
             if (purchase.getPurchaseState() == Purchase.PurchaseState.PURCHASED) {
                 // Upgrade user to Pro
-                new Thread(() -> {
+                ChoreoCamApplication.getExecutors().diskIO().submit(PriorityExecutor.PRIORITY_HIGH, () -> {
                     User currentUser = database.userDao().getCurrentUser();
                     if (currentUser != null) {
                         currentUser.setPro(true);
                         database.userDao().update(currentUser);
+                        ChoreoCamApplication.getSessionManager().invalidate();
                     }
                     runOnUiThread(() -> {
                         Toast.makeText(this, "Welcome to Pro!", Toast.LENGTH_LONG).show();
                         finish();
                     });
-                }).start();
+                });
             }
         }
     }
@@ -1,21 +1,48 @@
 package com.choreocam.app.activities;
 
+import android.content.Intent;
 import android.os.Bundle;
+import android.view.View;
 import android.widget.FrameLayout;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import com.choreocam.app.ChoreoCamApplication;
 import com.choreocam.app.R;
+import com.choreocam.app.adapters.FilmstripAdapter;
+import com.choreocam.app.concurrent.PriorityExecutor;
 import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.edit.AutoEditPlanner;
+import com.choreocam.app.edit.BeatTimeline;
+import com.choreocam.app.edit.EditDecisionList;
+import com.choreocam.app.edit.EdlFile;
+import com.choreocam.app.media.ThumbnailService;
+import com.choreocam.app.media.MusicDownloadManager;
+import com.choreocam.app.media.ProxyGenerator;
+import com.choreocam.app.media.TrackAnalyzer;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.MusicTrack;
 import com.choreocam.app.models.Project;
+import com.choreocam.app.models.RenderJob;
 import com.choreocam.app.models.User;
+import com.choreocam.app.repository.TimelineRepository;
+import com.choreocam.app.services.RenderService;
 import com.choreocam.app.utils.AdManager;
+import com.choreocam.app.workers.ProxyWorker;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
 
 public class ProjectEditorActivity extends AppCompatActivity {
 
+    public static final String EXTRA_PROJECT_ID = "project_id";
+
     private TextInputEditText titleInput;
     private MaterialButton addClipsBtn;
     private MaterialButton selectMusicBtn;
@@ -23,6 +50,9 @@ public class ProjectEditorActivity extends AppCompatActivity {
     private MaterialButton autoEditBtn;
     private MaterialButton exportBtn;
     private FrameLayout adContainer;
+    private RecyclerView filmstripList;
+    private FilmstripAdapter filmstripAdapter;
+    private final List<ThumbnailService.Request> filmstripPrefetches = new ArrayList<>();
 
     private AdManager adManager;
     private AppDatabase database;
@@ -39,7 +69,13 @@ public class ProjectEditorActivity extends AppCompatActivity {
         setupToolbar();
         setupAdManager();
         setupClickListeners();
-        createNewProject();
+
+        long projectId = getIntent().getLongExtra(EXTRA_PROJECT_ID, -1);
+        if (projectId > 0) {
+            loadProject(projectId);
+        } else {
+            createNewProject();
+        }
     }
 
     private void initializeViews() {
@@ -50,6 +86,16 @@ public class ProjectEditorActivity extends AppCompatActivity {
         autoEditBtn = findViewById(R.id.autoEditBtn);
         exportBtn = findViewById(R.id.exportBtn);
         adContainer = findViewById(R.id.adContainer);
+        filmstripList = findViewById(R.id.filmstripList);
+
+        filmstripAdapter = new FilmstripAdapter(
+            ThumbnailService.getInstance(),
+            getResources().getDimensionPixelSize(R.dimen.filmstrip_frame_width),
+            getResources().getDimensionPixelSize(R.dimen.filmstrip_frame_height)
+        );
+        filmstripList.setLayoutManager(new LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false));
+        filmstripList.setHasFixedSize(true);
+        filmstripList.setAdapter(filmstripAdapter);
     }
 
     private void setupToolbar() {
@@ -63,14 +109,14 @@ public class ProjectEditorActivity extends AppCompatActivity {
 
     private void setupAdManager() {
         adManager = new AdManager(this);
-        new Thread(() -> {
-            User currentUser = database.userDao().getCurrentUser();
+        ChoreoCamApplication.getExecutors().diskIO().submit(this, () -> {
+            User currentUser = ChoreoCamApplication.getSessionManager().getCurrentUser();
             runOnUiThread(() -> {
                 if (currentUser == null || !currentUser.isPro()) {
                     adManager.loadBannerAd(adContainer);
                 }
             });
-        }).start();
+        });
     }
 
     private void setupClickListeners() {
@@ -96,16 +142,46 @@ public class ProjectEditorActivity extends AppCompatActivity {
     }
 
     private void createNewProject() {
-        new Thread(() -> {
-            currentProject = new Project();
-            User currentUser = database.userDao().getCurrentUser();
-            if (currentUser != null) {
-                currentProject.setUserId(currentUser.getId());
+        ChoreoCamApplication.getExecutors().diskIO().submit(this, PriorityExecutor.PRIORITY_HIGH, this::insertNewProject);
+    }
+
+    private void insertNewProject() {
+        currentProject = new Project();
+        User currentUser = ChoreoCamApplication.getSessionManager().getCurrentUser();
+        if (currentUser != null) {
+            currentProject.setUserId(currentUser.getId());
+        }
+        currentProject.setProjectId(UUID.randomUUID().toString());
+        currentProject.setTitle("Untitled Project");
+        long projectId = database.projectDao().insert(currentProject);
+        currentProject.setId(projectId);
+    }
+
+    private void loadProject(long projectId) {
+        ChoreoCamApplication.getExecutors().diskIO().submit(this, PriorityExecutor.PRIORITY_HIGH, () -> {
+            Project project = database.projectDao().getProjectByIdSync(projectId);
+            if (project == null) {
+                insertNewProject();
+                return;
+            }
+            currentProject = project;
+            // Mapped in place, so large timelines open without parsing the JSON column
+            EdlFile timeline = TimelineRepository.getInstance().load(project);
+            List<Clip> clips = database.clipDao().getClipsForProject(projectId);
+            new ProxyGenerator(this, database.clipDao()).dropMissingProxies(clips);
+            if (!clips.isEmpty()) {
+                // 4K and HEVC sources stutter when scrubbed directly; proxies are built in the background
+                ProxyWorker.enqueue(this, projectId);
             }
-            currentProject.setTitle("Untitled Project");
-            long projectId = database.projectDao().insert(currentProject);
-            currentProject.setId(projectId);
-        }).start();
+            runOnUiThread(() -> {
+                showFilmstrip(clips);
+                titleInput.setText(project.getTitle());
+                if (getSupportActionBar() != null) {
+                    getSupportActionBar().setTitle(project.getTitle());
+                    showTimelineSummary(timeline);
+                }
+            });
+        });
     }
 
     private void performAutoEdit() {
@@ -117,24 +193,76 @@ public class ProjectEditorActivity extends AppCompatActivity {
 
         Toast.makeText(this, "Auto-editing video... This may take a moment", Toast.LENGTH_LONG).show();
 
-        new Thread(() -> {
+        ChoreoCamApplication.getExecutors().media().submit(this, PriorityExecutor.PRIORITY_HIGH, () -> {
             if (currentProject != null) {
                 currentProject.setTitle(title);
-                currentProject.setStatus("rendering");
-                database.projectDao().update(currentProject);
 
-                // Simulate processing
+                List<Clip> clips = database.clipDao().getClipsForProject(currentProject.getId());
+                MusicTrack track = currentProject.getMusicId() > 0
+                    ? database.musicTrackDao().getTrackByIdSync(currentProject.getMusicId()) : null;
+                if (track != null) {
+                    // Keeps the track in the download cache while the project uses it
+                    MusicDownloadManager.getInstance().getLocalFile(track);
+                }
+                BeatTimeline beats = BeatTimeline.forTrack(track);
+                if (beats.isEmpty() && track != null && TrackAnalyzer.analyzeAndStore(track, database.musicTrackDao())) {
+                    beats = BeatTimeline.forTrack(track);
+                }
+
+                if (clips.isEmpty() || beats.isEmpty()) {
+                    runOnUiThread(() -> {
+                        Toast.makeText(this, "Add clips and music with a beat grid first", Toast.LENGTH_SHORT).show();
+                    });
+                    return;
+                }
+
+                EditDecisionList edl = new AutoEditPlanner().plan(clips, beats);
+                EdlFile timeline = null;
                 try {
-                    Thread.sleep(2000);
-                } catch (InterruptedException e) {
+                    timeline = TimelineRepository.getInstance().save(currentProject, edl);
+                } catch (IOException e) {
                     e.printStackTrace();
                 }
+                if (currentProject.getThumbnailPath() == null) {
+                    ThumbnailService.getInstance().updateProjectCover(currentProject, clips.get(0));
+                }
+                currentProject.setEditDecisionListJson(edl.toJson());
+                currentProject.setDuration(edl.getDurationMs());
+                currentProject.markDirty(Project.FIELD_TITLE | Project.FIELD_EDIT_DECISIONS | Project.FIELD_DURATION);
+                database.projectDao().updateEdit(currentProject.getId(), title, currentProject.getEditDecisionListJson(),
+                    currentProject.getDuration(), currentProject.getUpdatedAt());
 
+                EdlFile savedTimeline = timeline;
                 runOnUiThread(() -> {
+                    showTimelineSummary(savedTimeline);
                     Toast.makeText(this, "Preview ready!", Toast.LENGTH_SHORT).show();
+                    Intent intent = new Intent(this, PreviewActivity.class);
+                    intent.putExtra(PreviewActivity.EXTRA_PROJECT_ID, currentProject.getId());
+                    startActivity(intent);
                 });
             }
-        }).start();
+        });
+    }
+
+    private void showFilmstrip(List<Clip> clips) {
+        for (ThumbnailService.Request request : filmstripPrefetches) {
+            request.cancel();
+        }
+        filmstripPrefetches.clear();
+        filmstripAdapter.setClips(clips);
+        filmstripList.setVisibility(clips.isEmpty() ? View.GONE : View.VISIBLE);
+        for (Clip clip : clips) {
+            filmstripPrefetches.add(filmstripAdapter.prefetch(clip));
+        }
+    }
+
+    private void showTimelineSummary(EdlFile timeline) {
+        if (getSupportActionBar() == null || timeline == null || timeline.isEmpty()) {
+            return;
+        }
+        long seconds = timeline.getDurationMs() / 1000;
+        getSupportActionBar().setSubtitle(String.format(Locale.US, "%d cuts - %d:%02d",
+            timeline.size(), seconds / 60, seconds % 60));
     }
 
     private void exportProject() {
@@ -145,17 +273,10 @@ public class ProjectEditorActivity extends AppCompatActivity {
 
         Toast.makeText(this, "Exporting video...", Toast.LENGTH_SHORT).show();
 
-        new Thread(() -> {
-            currentProject.setStatus("completed");
-            currentProject.setOutputFilePath("/storage/emulated/0/ChoreoCam/export_" +
-                System.currentTimeMillis() + ".mp4");
-            database.projectDao().update(currentProject);
-
-            runOnUiThread(() -> {
-                Toast.makeText(this, "Export complete!", Toast.LENGTH_LONG).show();
-                finish();
-            });
-        }).start();
+        // Rendering runs in the foreground service so it survives leaving the editor
+        // The user is waiting on this one, so it goes ahead of anything already queued
+        RenderService.start(this, currentProject.getId(), RenderJob.RANK_HIGH);
+        finish();
     }
 
     @Override
@@ -182,6 +303,9 @@ public class ProjectEditorActivity extends AppCompatActivity {
 
     @Override
     protected void onDestroy() {
+        for (ThumbnailService.Request request : filmstripPrefetches) {
+            request.cancel();
+        }
         if (adManager != null) {
             adManager.destroyAd();
         }
@@ -1,13 +1,27 @@
 package com.choreocam.app.activities;
 
+import android.content.Intent;
 import android.os.Bundle;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingLiveData;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.choreocam.app.ChoreoCamApplication;
 import com.choreocam.app.R;
+import com.choreocam.app.adapters.ProjectSummaryAdapter;
+import com.choreocam.app.database.dao.ProjectDao;
+import com.choreocam.app.models.ProjectSummary;
+import com.choreocam.app.models.RenderJob;
+import com.choreocam.app.services.RenderService;
 
 public class ProjectListActivity extends AppCompatActivity {
 
+    private static final int PAGE_SIZE = 30;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -20,7 +34,29 @@ public class ProjectListActivity extends AppCompatActivity {
             getSupportActionBar().setTitle(R.string.my_projects);
         }
 
-        Toast.makeText(this, "Project list will display here", Toast.LENGTH_SHORT).show();
+        ProjectSummaryAdapter adapter = new ProjectSummaryAdapter(project -> {
+            Intent intent = new Intent(this, ProjectEditorActivity.class);
+            intent.putExtra(ProjectEditorActivity.EXTRA_PROJECT_ID, project.getId());
+            startActivity(intent);
+        }, project -> {
+            // Exported from the list without opening it; queued behind exports started from the editor
+            RenderService.start(this, project.getId(), RenderJob.RANK_NORMAL);
+            Toast.makeText(this, R.string.export_queued, Toast.LENGTH_SHORT).show();
+        });
+
+        RecyclerView recyclerView = findViewById(R.id.recyclerView);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        recyclerView.setHasFixedSize(true);
+        recyclerView.setAdapter(adapter);
+
+        // Rows are loaded a page at a time as the list scrolls; Room invalidates the source on writes
+        ProjectDao projectDao = ChoreoCamApplication.getDatabase().projectDao();
+        Pager<Integer, ProjectSummary> pager = new Pager<>(
+            new PagingConfig(PAGE_SIZE, PAGE_SIZE / 2, true, PAGE_SIZE * 2),
+            projectDao::getProjectSummaries
+        );
+        PagingLiveData.cachedIn(PagingLiveData.getLiveData(pager), getLifecycle())
+            .observe(this, pagingData -> adapter.submitData(getLifecycle(), pagingData));
     }
 
     @Override
@@ -0,0 +1,107 @@
+package com.choreocam.app.adapters;
+
+import android.graphics.Bitmap;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import com.choreocam.app.R;
+import com.choreocam.app.media.ThumbnailService;
+import com.choreocam.app.models.Clip;
+import java.util.ArrayList;
+import java.util.List;
+
+// One frame per second of trimmed footage across all clips; frames come from ThumbnailService caches,
+// decoded from each clip's proxy when it has one
+public class FilmstripAdapter extends RecyclerView.Adapter<FilmstripAdapter.ViewHolder> {
+
+    public static final long FRAME_INTERVAL_MS = 1000;
+
+    private final ThumbnailService thumbnails;
+    private final int frameWidth;
+    private final int frameHeight;
+    private final List<String> frameUris = new ArrayList<>();
+    private final List<Long> frameTimesMs = new ArrayList<>();
+
+    public FilmstripAdapter(ThumbnailService thumbnails, int frameWidth, int frameHeight) {
+        this.thumbnails = thumbnails;
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+    }
+
+    public void setClips(List<Clip> clips) {
+        frameUris.clear();
+        frameTimesMs.clear();
+        for (Clip clip : clips) {
+            int count = frameCount(clip);
+            long startMs = clip.getTrimStartMs();
+            long endMs = startMs + clip.getUsableDurationMs();
+            for (int i = 0; i < count; i++) {
+                frameUris.add(clip.getEditSource());
+                frameTimesMs.add(ThumbnailService.filmstripFrameTime(startMs, endMs, count, i));
+            }
+        }
+        notifyDataSetChanged();
+    }
+
+    // Fills the caches for a clip's whole strip in one pass, so scrolling only ever hits memory
+    public ThumbnailService.Request prefetch(Clip clip) {
+        long startMs = clip.getTrimStartMs();
+        return thumbnails.loadFilmstrip(clip.getEditSource(), startMs, startMs + clip.getUsableDurationMs(),
+            frameCount(clip), frameWidth, frameHeight, (index, bitmap) -> { });
+    }
+
+    public static int frameCount(Clip clip) {
+        return (int) Math.max(1, clip.getUsableDurationMs() / FRAME_INTERVAL_MS);
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_filmstrip_frame, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.cancelPending();
+        String uri = frameUris.get(position);
+        long timeMs = frameTimesMs.get(position);
+        Bitmap cached = thumbnails.getCached(uri, timeMs, frameWidth, frameHeight);
+        if (cached != null) {
+            holder.frameImage.setImageBitmap(cached);
+            return;
+        }
+        holder.frameImage.setImageDrawable(null);
+        holder.pending = thumbnails.load(uri, timeMs, frameWidth, frameHeight, holder.frameImage::setImageBitmap);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull ViewHolder holder) {
+        holder.cancelPending();
+    }
+
+    @Override
+    public int getItemCount() {
+        return frameUris.size();
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final ImageView frameImage;
+        ThumbnailService.Request pending;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            frameImage = itemView.findViewById(R.id.frameImage);
+        }
+
+        void cancelPending() {
+            if (pending != null) {
+                pending.cancel();
+                pending = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.choreocam.app.adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import com.choreocam.app.R;
+import com.choreocam.app.models.MusicTrack;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public class MusicTrackAdapter extends ListAdapter<MusicTrack, MusicTrackAdapter.ViewHolder> {
+
+    public interface OnTrackClickListener {
+        void onTrackClick(MusicTrack track);
+    }
+
+    // Progress value for a download that failed
+    public static final int DOWNLOAD_FAILED = -1;
+
+    private static final DiffUtil.ItemCallback<MusicTrack> DIFF_CALLBACK = new DiffUtil.ItemCallback<MusicTrack>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull MusicTrack oldItem, @NonNull MusicTrack newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull MusicTrack oldItem, @NonNull MusicTrack newItem) {
+            return oldItem.isPro() == newItem.isPro()
+                && oldItem.getBpm() == newItem.getBpm()
+                && Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                && Objects.equals(oldItem.getArtist(), newItem.getArtist())
+                && Objects.equals(oldItem.getLocalFilePath(), newItem.getLocalFilePath());
+        }
+    };
+
+    private final OnTrackClickListener listener;
+    // Percent per track id while downloading, or DOWNLOAD_FAILED
+    private final Map<Long, Integer> downloadProgress = new HashMap<>();
+
+    public MusicTrackAdapter(OnTrackClickListener listener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+    }
+
+    public void setDownloadProgress(long trackId, int percent) {
+        Integer previous = downloadProgress.put(trackId, percent);
+        if (previous == null || previous != percent) {
+            notifyTrackChanged(trackId);
+        }
+    }
+
+    public void clearDownloadProgress(long trackId) {
+        if (downloadProgress.remove(trackId) != null) {
+            notifyTrackChanged(trackId);
+        }
+    }
+
+    private void notifyTrackChanged(long trackId) {
+        for (int i = 0; i < getItemCount(); i++) {
+            if (getItem(i).getId() == trackId) {
+                notifyItemChanged(i);
+                return;
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_catalog, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        MusicTrack track = getItem(position);
+        holder.titleText.setText(track.getTitle());
+        String subtitle = track.getArtist() != null ? track.getArtist() : "";
+        if (track.getBpm() > 0) {
+            subtitle += " - " + track.getBpm() + " BPM";
+        }
+        Integer progress = downloadProgress.get(track.getId());
+        Context context = holder.itemView.getContext();
+        if (progress != null && progress == DOWNLOAD_FAILED) {
+            subtitle += " - " + context.getString(R.string.track_download_failed);
+        } else if (progress != null) {
+            subtitle += " - " + context.getString(R.string.track_downloading, progress);
+        } else if (track.getLocalFilePath() != null) {
+            subtitle += " - " + context.getString(R.string.track_downloaded);
+        }
+        holder.subtitleText.setText(subtitle);
+        holder.proBadge.setVisibility(track.isPro() ? View.VISIBLE : View.GONE);
+        holder.itemView.setOnClickListener(v -> listener.onTrackClick(track));
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView titleText;
+        final TextView subtitleText;
+        final TextView proBadge;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            titleText = itemView.findViewById(R.id.titleText);
+            subtitleText = itemView.findViewById(R.id.subtitleText);
+            proBadge = itemView.findViewById(R.id.proBadge);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.choreocam.app.adapters;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import com.choreocam.app.R;
+import com.choreocam.app.models.Preset;
+import java.util.Objects;
+
+public class PresetAdapter extends ListAdapter<Preset, PresetAdapter.ViewHolder> {
+
+    private static final DiffUtil.ItemCallback<Preset> DIFF_CALLBACK = new DiffUtil.ItemCallback<Preset>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Preset oldItem, @NonNull Preset newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Preset oldItem, @NonNull Preset newItem) {
+            return oldItem.isPro() == newItem.isPro()
+                && Objects.equals(oldItem.getName(), newItem.getName())
+                && Objects.equals(oldItem.getDescription(), newItem.getDescription());
+        }
+    };
+
+    public PresetAdapter() {
+        super(DIFF_CALLBACK);
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_catalog, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        Preset preset = getItem(position);
+        holder.titleText.setText(preset.getName());
+        holder.subtitleText.setText(preset.getDescription());
+        holder.proBadge.setVisibility(preset.isPro() ? View.VISIBLE : View.GONE);
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView titleText;
+        final TextView subtitleText;
+        final TextView proBadge;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            titleText = itemView.findViewById(R.id.titleText);
+            subtitleText = itemView.findViewById(R.id.subtitleText);
+            proBadge = itemView.findViewById(R.id.proBadge);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.choreocam.app.adapters;
+
+import android.text.format.DateUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.Glide;
+import com.choreocam.app.R;
+import com.choreocam.app.models.ProjectSummary;
+import java.io.File;
+import java.util.Objects;
+
+public class ProjectSummaryAdapter extends PagingDataAdapter<ProjectSummary, ProjectSummaryAdapter.ViewHolder> {
+
+    public interface OnProjectClickListener {
+        void onProjectClick(ProjectSummary project);
+    }
+
+    public interface OnProjectLongClickListener {
+        void onProjectLongClick(ProjectSummary project);
+    }
+
+    private static final DiffUtil.ItemCallback<ProjectSummary> DIFF_CALLBACK = new DiffUtil.ItemCallback<ProjectSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ProjectSummary oldItem, @NonNull ProjectSummary newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ProjectSummary oldItem, @NonNull ProjectSummary newItem) {
+            return oldItem.getUpdatedAt() == newItem.getUpdatedAt()
+                && Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                && Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                && Objects.equals(oldItem.getThumbnailPath(), newItem.getThumbnailPath());
+        }
+    };
+
+    private final OnProjectClickListener listener;
+    private final OnProjectLongClickListener longClickListener;
+
+    public ProjectSummaryAdapter(OnProjectClickListener listener, OnProjectLongClickListener longClickListener) {
+        super(DIFF_CALLBACK);
+        this.listener = listener;
+        this.longClickListener = longClickListener;
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_project, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        ProjectSummary project = getItem(position);
+        if (project == null) {
+            // Placeholder while the page holding this row loads
+            holder.titleText.setText("");
+            holder.statusText.setText("");
+            Glide.with(holder.thumbnailImage).clear(holder.thumbnailImage);
+            holder.itemView.setOnClickListener(null);
+            holder.itemView.setOnLongClickListener(null);
+            return;
+        }
+
+        holder.titleText.setText(project.getTitle());
+        holder.statusText.setText(project.getStatus() + " - "
+            + DateUtils.getRelativeTimeSpanString(project.getUpdatedAt()));
+        if (project.getThumbnailPath() != null) {
+            Glide.with(holder.thumbnailImage)
+                .load(new File(project.getThumbnailPath()))
+                .centerCrop()
+                .into(holder.thumbnailImage);
+        } else {
+            Glide.with(holder.thumbnailImage).clear(holder.thumbnailImage);
+        }
+        holder.itemView.setOnClickListener(v -> listener.onProjectClick(project));
+        holder.itemView.setOnLongClickListener(v -> {
+            longClickListener.onProjectLongClick(project);
+            return true;
+        });
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final ImageView thumbnailImage;
+        final TextView titleText;
+        final TextView statusText;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            thumbnailImage = itemView.findViewById(R.id.thumbnailImage);
+            titleText = itemView.findViewById(R.id.titleText);
+            statusText = itemView.findViewById(R.id.statusText);
+        }
+    }
+}
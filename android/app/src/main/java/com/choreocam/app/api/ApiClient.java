@@ -1,28 +1,34 @@
 package com.choreocam.app.api;
 
 import com.choreocam.app.ChoreoCamApplication;
-import com.choreocam.app.utils.ConfigManager;
+import com.choreocam.app.utils.AppConfig;
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
+import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 public class ApiClient {
 
+    private static final String HTTP_CACHE_DIR = "http_cache";
+
     private static Retrofit retrofit;
+    private static Cache httpCache;
     private static ApiService apiService;
 
-    public static ApiService getApiService() {
+    public static synchronized ApiService getApiService() {
         if (apiService == null) {
             apiService = getRetrofitInstance().create(ApiService.class);
         }
         return apiService;
     }
 
-    private static Retrofit getRetrofitInstance() {
+    private static synchronized Retrofit getRetrofitInstance() {
         if (retrofit == null) {
-            ConfigManager config = ChoreoCamApplication.getConfigManager();
+            // One snapshot, so a reload mid-build cannot mix old and new settings
+            AppConfig config = ChoreoCamApplication.getConfigManager().getConfig();
 
             // Create logging interceptor
             HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
@@ -31,25 +37,35 @@ public class ApiClient {
             // Create auth interceptor
             AuthInterceptor authInterceptor = new AuthInterceptor();
 
+            // Disk cache so catalog responses are reused while fresh and revalidated with ETags after.
+            // Kept across resetClient(): two Cache instances must never share a directory.
+            if (httpCache == null) {
+                httpCache = new Cache(
+                    new File(ChoreoCamApplication.getAppContext().getCacheDir(), HTTP_CACHE_DIR),
+                    config.httpCacheSizeMb * 1024L * 1024L
+                );
+            }
+
             // Create OkHttp client
-            OkHttpClient okHttpClient = new OkHttpClient.Builder()
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .cache(httpCache)
                 .addInterceptor(authInterceptor)
-                .addInterceptor(loggingInterceptor)
-                .connectTimeout(config.getTimeoutSeconds(), TimeUnit.SECONDS)
-                .readTimeout(config.getTimeoutSeconds(), TimeUnit.SECONDS)
-                .writeTimeout(config.getTimeoutSeconds(), TimeUnit.SECONDS)
-                .build();
+                .addInterceptor(loggingInterceptor);
 
-            // Build base URL
-            String baseUrl = config.getBackendBaseUrl();
-            if (!baseUrl.endsWith("/")) {
-                baseUrl += "/";
+            // Added after logging so the log still shows readable JSON
+            if (config.gzipRequests) {
+                builder.addInterceptor(new GzipRequestInterceptor());
             }
-            baseUrl += config.getApiVersion() + "/";
+
+            OkHttpClient okHttpClient = builder
+                .connectTimeout(config.timeoutSeconds, TimeUnit.SECONDS)
+                .readTimeout(config.timeoutSeconds, TimeUnit.SECONDS)
+                .writeTimeout(config.timeoutSeconds, TimeUnit.SECONDS)
+                .build();
 
             // Create Retrofit instance
             retrofit = new Retrofit.Builder()
-                .baseUrl(baseUrl)
+                .baseUrl(getBaseUrl(config))
                 .client(okHttpClient)
                 .addConverterFactory(GsonConverterFactory.create())
                 .build();
@@ -57,7 +73,17 @@ public class ApiClient {
         return retrofit;
     }
 
-    public static void resetClient() {
+    // Versioned API root, e.g. https://api.choreocam.com/v1/
+    public static String getBaseUrl(AppConfig config) {
+        String baseUrl = config.backendBaseUrl;
+        if (!baseUrl.endsWith("/")) {
+            baseUrl += "/";
+        }
+        return baseUrl + config.apiVersion + "/";
+    }
+
+    // Called from the config reload thread as well as the UI
+    public static synchronized void resetClient() {
         retrofit = null;
         apiService = null;
     }
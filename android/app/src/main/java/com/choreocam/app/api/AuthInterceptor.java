@@ -1,7 +1,6 @@
 package com.choreocam.app.api;
 
 import com.choreocam.app.ChoreoCamApplication;
-import com.choreocam.app.models.User;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -13,13 +12,13 @@ public class AuthInterceptor implements Interceptor {
     public Response intercept(Chain chain) throws IOException {
         Request originalRequest = chain.request();
 
-        // Get current user's auth token
-        User currentUser = ChoreoCamApplication.getDatabase().userDao().getCurrentUser();
+        // Served from the in-memory session; the database is only read after the users table changes
+        String authToken = ChoreoCamApplication.getSessionManager().getAuthToken();
 
-        if (currentUser != null && currentUser.getAuthToken() != null) {
+        if (authToken != null) {
             // Add authorization header
             Request authenticatedRequest = originalRequest.newBuilder()
-                .header("Authorization", "Bearer " + currentUser.getAuthToken())
+                .header("Authorization", "Bearer " + authToken)
                 .build();
             return chain.proceed(authenticatedRequest);
         }
@@ -0,0 +1,57 @@
+package com.choreocam.app.api;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+import java.io.IOException;
+
+// Gzips request bodies on the fly; responses are already decompressed transparently by OkHttp
+public class GzipRequestInterceptor implements Interceptor {
+
+    // Below this the gzip header and trailer cost more than they save
+    private static final long MIN_COMPRESS_BYTES = 1024;
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request originalRequest = chain.request();
+        RequestBody body = originalRequest.body();
+        if (body == null
+            || originalRequest.header("Content-Encoding") != null
+            || (body.contentLength() >= 0 && body.contentLength() < MIN_COMPRESS_BYTES)) {
+            return chain.proceed(originalRequest);
+        }
+
+        Request compressedRequest = originalRequest.newBuilder()
+            .header("Content-Encoding", "gzip")
+            .method(originalRequest.method(), gzip(body))
+            .build();
+        return chain.proceed(compressedRequest);
+    }
+
+    private RequestBody gzip(RequestBody body) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return body.contentType();
+            }
+
+            @Override
+            public long contentLength() {
+                // Unknown up front, so the body is sent chunked instead of being buffered to measure it
+                return -1;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
+                body.writeTo(gzipSink);
+                gzipSink.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package com.choreocam.app.api;
+
+import android.util.Base64;
+import com.choreocam.app.ChoreoCamApplication;
+import com.choreocam.app.utils.AppConfig;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+
+// Client side of the backend's tus-style upload endpoint. File bytes are memory-mapped one chunk at a
+// time and streamed from the mapping, so a 200 MB export never costs more than a socket buffer of heap.
+public class TusUploadClient {
+
+    public static final long UNKNOWN_UPLOAD = -1;
+
+    private static final String TUS_VERSION = "1.0.0";
+    private static final MediaType OFFSET_OCTET_STREAM = MediaType.get("application/offset+octet-stream");
+    // Bytes handed to the socket per write, so the okio buffer never holds the whole mapped chunk
+    private static final int WRITE_SLICE = 64 * 1024;
+
+    private static OkHttpClient httpClient;
+
+    private final HttpUrl baseUrl;
+
+    public TusUploadClient() {
+        AppConfig config = ChoreoCamApplication.getConfigManager().getConfig();
+        this.baseUrl = HttpUrl.get(ApiClient.getBaseUrl(config));
+        synchronized (TusUploadClient.class) {
+            if (httpClient == null) {
+                // Neither BODY logging nor gzip: both would buffer or re-encode every chunk
+                httpClient = new OkHttpClient.Builder()
+                    .addInterceptor(new AuthInterceptor())
+                    .connectTimeout(config.timeoutSeconds, TimeUnit.SECONDS)
+                    .readTimeout(config.timeoutSeconds, TimeUnit.SECONDS)
+                    .writeTimeout(config.timeoutSeconds, TimeUnit.SECONDS)
+                    .build();
+            }
+        }
+    }
+
+    // Creates an upload of the given length and returns its absolute URL
+    public String create(long length, Map<String, String> metadata) throws IOException {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            encoded.append(entry.getKey()).append(' ').append(Base64.encodeToString(
+                entry.getValue().getBytes(StandardCharsets.UTF_8), Base64.NO_WRAP));
+        }
+        Request request = new Request.Builder()
+            .url(baseUrl.resolve("uploads"))
+            .header("Tus-Resumable", TUS_VERSION)
+            .header("Upload-Length", Long.toString(length))
+            .header("Upload-Metadata", encoded.toString())
+            .post(RequestBody.create(new byte[0], null))
+            .build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            String location = response.header("Location");
+            if (response.code() != 201 || location == null) {
+                throw new IOException("Upload creation failed: HTTP " + response.code());
+            }
+            HttpUrl url = request.url().resolve(location);
+            if (url == null) {
+                throw new IOException("Bad upload location: " + location);
+            }
+            return url.toString();
+        }
+    }
+
+    // Bytes the server already holds, or UNKNOWN_UPLOAD when the upload is gone or was created
+    // for a file of a different length
+    public long getOffset(String uploadUrl, long length) throws IOException {
+        Request request = new Request.Builder()
+            .url(uploadUrl)
+            .header("Tus-Resumable", TUS_VERSION)
+            .head()
+            .build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (response.code() == 404 || response.code() == 410) {
+                return UNKNOWN_UPLOAD;
+            }
+            if (!response.isSuccessful()) {
+                throw new IOException("Upload offset failed: HTTP " + response.code());
+            }
+            if (parseLong(response.header("Upload-Length")) != length) {
+                return UNKNOWN_UPLOAD;
+            }
+            return parseLong(response.header("Upload-Offset"));
+        }
+    }
+
+    // Sends file bytes [offset, offset + count) and returns the server's new offset. After a dropped
+    // connection the caller asks getOffset(), since the server keeps whatever arrived.
+    public long append(String uploadUrl, FileChannel file, long offset, long count) throws IOException {
+        MappedByteBuffer chunk = file.map(FileChannel.MapMode.READ_ONLY, offset, count);
+        Request request = new Request.Builder()
+            .url(uploadUrl)
+            .header("Tus-Resumable", TUS_VERSION)
+            .header("Upload-Offset", Long.toString(offset))
+            .patch(new MappedBody(chunk))
+            .build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (response.code() == 409) {
+                // Out of step with the server; its offset is authoritative
+                return parseLong(response.header("Upload-Offset"));
+            }
+            if (response.code() != 204) {
+                throw new IOException("Upload append failed: HTTP " + response.code());
+            }
+            return parseLong(response.header("Upload-Offset"));
+        }
+    }
+
+    private static long parseLong(String value) throws IOException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad upload header: " + value, e);
+        }
+    }
+
+    private static class MappedBody extends RequestBody {
+        private final MappedByteBuffer chunk;
+
+        MappedBody(MappedByteBuffer chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return OFFSET_OCTET_STREAM;
+        }
+
+        @Override
+        public long contentLength() {
+            return chunk.capacity();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            // A fresh view each time, since OkHttp may write the body again after a retry
+            ByteBuffer source = chunk.duplicate();
+            source.clear();
+            while (source.hasRemaining()) {
+                source.limit(Math.min(source.position() + WRITE_SLICE, source.capacity()));
+                sink.write(source);
+                sink.emit();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.choreocam.app.api.models;
+
+import com.google.gson.JsonObject;
+
+// One project's changed columns, keyed by their JSON names; used for both push and pull
+public class ProjectChange {
+    private String projectId;
+    private long updatedAt;
+    private JsonObject fields;
+
+    public ProjectChange() {}
+
+    public ProjectChange(String projectId, long updatedAt, JsonObject fields) {
+        this.projectId = projectId;
+        this.updatedAt = updatedAt;
+        this.fields = fields;
+    }
+
+    public String getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(String projectId) {
+        this.projectId = projectId;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public JsonObject getFields() {
+        return fields;
+    }
+
+    public void setFields(JsonObject fields) {
+        this.fields = fields;
+    }
+}
@@ -1,13 +1,16 @@
 package com.choreocam.app.api.models;
 
-import com.choreocam.app.models.Project;
 import com.choreocam.app.models.User;
 import java.util.List;
 
 public class SyncRequest {
     private User user;
-    private List<Project> projects;
-    private long lastSyncTimestamp;
+    private List<ProjectChange> changes;
+    private String deviceId;
+    private long lastSyncTimestamp; // server cursor from the previous SyncResponse, 0 for a full pull
+    private int pullLimit; // projects to pull with this request; 0 only pushes
+    private String pullAfter; // nextPullCursor of the previous page of the same pull
+    private long walkStartedAt; // serverTimestamp of the first page of this sync run, 0 on the first page
 
     public SyncRequest() {}
 
@@ -19,12 +22,20 @@ public class SyncRequest {
         this.user = user;
     }
 
-    public List<Project> getProjects() {
-        return projects;
+    public List<ProjectChange> getChanges() {
+        return changes;
     }
 
-    public void setProjects(List<Project> projects) {
-        this.projects = projects;
+    public void setChanges(List<ProjectChange> changes) {
+        this.changes = changes;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
     }
 
     public long getLastSyncTimestamp() {
@@ -34,4 +45,28 @@ public class SyncRequest {
     public void setLastSyncTimestamp(long lastSyncTimestamp) {
         this.lastSyncTimestamp = lastSyncTimestamp;
     }
+
+    public int getPullLimit() {
+        return pullLimit;
+    }
+
+    public void setPullLimit(int pullLimit) {
+        this.pullLimit = pullLimit;
+    }
+
+    public String getPullAfter() {
+        return pullAfter;
+    }
+
+    public void setPullAfter(String pullAfter) {
+        this.pullAfter = pullAfter;
+    }
+
+    public long getWalkStartedAt() {
+        return walkStartedAt;
+    }
+
+    public void setWalkStartedAt(long walkStartedAt) {
+        this.walkStartedAt = walkStartedAt;
+    }
 }
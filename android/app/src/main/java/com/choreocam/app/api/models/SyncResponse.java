@@ -1,11 +1,16 @@
 package com.choreocam.app.api.models;
 
+import java.util.List;
+
 public class SyncResponse {
     private boolean success;
     private String message;
     private int usersSynced;
     private int projectsSynced;
     private long serverTimestamp;
+    private List<ProjectChange> changes; // remote edits made since the request's cursor
+    private boolean hasMore; // the pull continues on another page
+    private String nextPullCursor;
 
     public boolean isSuccess() {
         return success;
@@ -46,4 +51,28 @@ public class SyncResponse {
     public void setServerTimestamp(long serverTimestamp) {
         this.serverTimestamp = serverTimestamp;
     }
+
+    public List<ProjectChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<ProjectChange> changes) {
+        this.changes = changes;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public String getNextPullCursor() {
+        return nextPullCursor;
+    }
+
+    public void setNextPullCursor(String nextPullCursor) {
+        this.nextPullCursor = nextPullCursor;
+    }
 }
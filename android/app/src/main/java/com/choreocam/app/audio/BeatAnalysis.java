@@ -0,0 +1,24 @@
+package com.choreocam.app.audio;
+
+public class BeatAnalysis {
+
+    private final int bpm;
+    private final long[] beatsMs;
+
+    public BeatAnalysis(int bpm, long[] beatsMs) {
+        this.bpm = bpm;
+        this.beatsMs = beatsMs;
+    }
+
+    public int getBpm() {
+        return bpm;
+    }
+
+    public long[] getBeatsMs() {
+        return beatsMs;
+    }
+
+    public boolean isEmpty() {
+        return beatsMs.length == 0;
+    }
+}
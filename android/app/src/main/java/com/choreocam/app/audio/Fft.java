@@ -0,0 +1,66 @@
+package com.choreocam.app.audio;
+
+// In-place radix-2 complex FFT with precomputed twiddle and bit-reversal tables
+public class Fft {
+
+    private final int size;
+    private final float[] cosTable;
+    private final float[] sinTable;
+    private final int[] bitReverse;
+
+    public Fft(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT size must be a power of two: " + size);
+        }
+        this.size = size;
+        cosTable = new float[size / 2];
+        sinTable = new float[size / 2];
+        for (int i = 0; i < size / 2; i++) {
+            double angle = -2.0 * Math.PI * i / size;
+            cosTable[i] = (float) Math.cos(angle);
+            sinTable[i] = (float) Math.sin(angle);
+        }
+        bitReverse = new int[size];
+        int bits = Integer.numberOfTrailingZeros(size);
+        for (int i = 0; i < size; i++) {
+            bitReverse[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void transform(float[] real, float[] imag) {
+        for (int i = 0; i < size; i++) {
+            int j = bitReverse[i];
+            if (j > i) {
+                float tr = real[i];
+                real[i] = real[j];
+                real[j] = tr;
+                float ti = imag[i];
+                imag[i] = imag[j];
+                imag[j] = ti;
+            }
+        }
+
+        for (int length = 2; length <= size; length <<= 1) {
+            int half = length >> 1;
+            int step = size / length;
+            for (int start = 0; start < size; start += length) {
+                for (int k = 0; k < half; k++) {
+                    float wr = cosTable[k * step];
+                    float wi = sinTable[k * step];
+                    int even = start + k;
+                    int odd = even + half;
+                    float oddReal = real[odd] * wr - imag[odd] * wi;
+                    float oddImag = real[odd] * wi + imag[odd] * wr;
+                    real[odd] = real[even] - oddReal;
+                    imag[odd] = imag[even] - oddImag;
+                    real[even] += oddReal;
+                    imag[even] += oddImag;
+                }
+            }
+        }
+    }
+}
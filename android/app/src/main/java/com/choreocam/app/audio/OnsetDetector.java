@@ -0,0 +1,232 @@
+package com.choreocam.app.audio;
+
+import java.nio.ShortBuffer;
+import java.util.Arrays;
+
+// Streaming spectral-flux onset detector with autocorrelation tempo and beat-phase tracking.
+// Pure JVM: the Android decoder only feeds it PCM, so it can be benchmarked off-device.
+public class OnsetDetector {
+
+    public static final int FRAME_SIZE = 1024;
+    public static final int HOP_SIZE = 512;
+
+    private static final float TARGET_ANALYSIS_RATE = 22050f;
+    private static final float MIN_BPM = 60f;
+    private static final float MAX_BPM = 200f;
+    private static final float PREFERRED_BPM = 120f;
+    private static final float COMPRESSION = 100f;
+    private static final int MEAN_WINDOW_FRAMES = 8;
+    private static final float BEAT_SNAP_FRACTION = 0.1f;
+
+    private final int decimation;
+    private final float analysisRate;
+    private final Fft fft;
+    private final float[] window;
+    private final float[] frame;
+    private final float[] real;
+    private final float[] imag;
+    private final float[] previousMagnitude;
+
+    private float[] flux = new float[4096];
+    private int fluxCount;
+    private int frameFill;
+    private float decimationSum;
+    private int decimationCount;
+
+    public OnsetDetector(int sampleRate) {
+        decimation = Math.max(1, Math.round(sampleRate / TARGET_ANALYSIS_RATE));
+        analysisRate = (float) sampleRate / decimation;
+        fft = new Fft(FRAME_SIZE);
+        window = new float[FRAME_SIZE];
+        for (int i = 0; i < FRAME_SIZE; i++) {
+            window[i] = (float) (0.5 - 0.5 * Math.cos(2.0 * Math.PI * i / (FRAME_SIZE - 1)));
+        }
+        frame = new float[FRAME_SIZE];
+        real = new float[FRAME_SIZE];
+        imag = new float[FRAME_SIZE];
+        previousMagnitude = new float[FRAME_SIZE / 2 + 1];
+    }
+
+    public void reset() {
+        fluxCount = 0;
+        frameFill = 0;
+        decimationSum = 0;
+        decimationCount = 0;
+        Arrays.fill(previousMagnitude, 0f);
+    }
+
+    // Consumes interleaved 16-bit PCM as produced by MediaCodec decoders, downmixing to mono
+    public void processPcm16(ShortBuffer pcm, int channels) {
+        float scale = 1f / (32768f * channels);
+        while (pcm.remaining() >= channels) {
+            int sum = 0;
+            for (int c = 0; c < channels; c++) {
+                sum += pcm.get();
+            }
+            pushSample(sum * scale);
+        }
+    }
+
+    public void process(float[] mono, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            pushSample(mono[i]);
+        }
+    }
+
+    private void pushSample(float sample) {
+        decimationSum += sample;
+        if (++decimationCount < decimation) {
+            return;
+        }
+        frame[frameFill++] = decimationSum / decimation;
+        decimationSum = 0;
+        decimationCount = 0;
+
+        if (frameFill == FRAME_SIZE) {
+            analyzeFrame();
+            System.arraycopy(frame, HOP_SIZE, frame, 0, FRAME_SIZE - HOP_SIZE);
+            frameFill = FRAME_SIZE - HOP_SIZE;
+        }
+    }
+
+    private void analyzeFrame() {
+        for (int i = 0; i < FRAME_SIZE; i++) {
+            real[i] = frame[i] * window[i];
+            imag[i] = 0f;
+        }
+        fft.transform(real, imag);
+
+        // Half-wave rectified rise of the log-compressed magnitude spectrum
+        float sum = 0f;
+        for (int k = 1; k <= FRAME_SIZE / 2; k++) {
+            float magnitude = (float) Math.log1p(COMPRESSION * Math.sqrt(real[k] * real[k] + imag[k] * imag[k]));
+            float rise = magnitude - previousMagnitude[k];
+            if (rise > 0) {
+                sum += rise;
+            }
+            previousMagnitude[k] = magnitude;
+        }
+
+        if (fluxCount == flux.length) {
+            flux = Arrays.copyOf(flux, fluxCount * 2);
+        }
+        flux[fluxCount++] = sum;
+    }
+
+    public float getFrameRate() {
+        return analysisRate / HOP_SIZE;
+    }
+
+    public BeatAnalysis finish() {
+        float frameRate = getFrameRate();
+        int minLag = (int) Math.floor(60f * frameRate / MAX_BPM);
+        int maxLag = (int) Math.ceil(60f * frameRate / MIN_BPM);
+        if (fluxCount < maxLag * 4) {
+            return new BeatAnalysis(0, new long[0]);
+        }
+
+        float[] strength = onsetStrength();
+        float period = estimatePeriod(strength, minLag, maxLag);
+        if (period <= 0) {
+            return new BeatAnalysis(0, new long[0]);
+        }
+        long[] beats = trackBeats(strength, period);
+        int bpm = Math.round(60f * frameRate / period);
+        if (beats.length > 1) {
+            // The tracked beats average out the frame quantisation of the autocorrelation lag
+            bpm = Math.round(60000f * (beats.length - 1) / (beats[beats.length - 1] - beats[0]));
+        }
+        return new BeatAnalysis(bpm, beats);
+    }
+
+    // Flux minus its local mean, so sustained loud passages don't read as onsets
+    private float[] onsetStrength() {
+        float[] strength = new float[fluxCount];
+        float windowSum = 0f;
+        int windowStart = 0;
+        int windowEnd = 0;
+        for (int i = 0; i < fluxCount; i++) {
+            while (windowEnd < fluxCount && windowEnd <= i + MEAN_WINDOW_FRAMES) {
+                windowSum += flux[windowEnd++];
+            }
+            while (windowStart < i - MEAN_WINDOW_FRAMES) {
+                windowSum -= flux[windowStart++];
+            }
+            float mean = windowSum / (windowEnd - windowStart);
+            strength[i] = Math.max(0f, flux[i] - mean);
+        }
+        return strength;
+    }
+
+    // Autocorrelation over the plausible tempo range, weighted towards ~120 BPM to avoid octave errors
+    private float estimatePeriod(float[] strength, int minLag, int maxLag) {
+        float frameRate = getFrameRate();
+        float[] scores = new float[maxLag + 2];
+        int bestLag = -1;
+        float bestScore = 0f;
+        for (int lag = minLag; lag <= maxLag; lag++) {
+            float sum = 0f;
+            for (int i = 0; i + lag < fluxCount; i++) {
+                sum += strength[i] * strength[i + lag];
+            }
+            float bpm = 60f * frameRate / lag;
+            double octaves = Math.log(bpm / PREFERRED_BPM) / Math.log(2);
+            scores[lag] = (float) (sum / (fluxCount - lag) * Math.exp(-0.5 * octaves * octaves));
+            if (scores[lag] > bestScore) {
+                bestScore = scores[lag];
+                bestLag = lag;
+            }
+        }
+        if (bestLag < 0) {
+            return -1f;
+        }
+        // Parabolic interpolation for sub-frame period accuracy
+        if (bestLag > minLag && bestLag < maxLag) {
+            float left = scores[bestLag - 1];
+            float right = scores[bestLag + 1];
+            float denominator = left - 2 * bestScore + right;
+            if (denominator != 0f) {
+                return bestLag + 0.5f * (left - right) / denominator;
+            }
+        }
+        return bestLag;
+    }
+
+    // Picks the beat phase that collects the most onset energy, then lets each beat snap to nearby peaks
+    private long[] trackBeats(float[] strength, float period) {
+        int phases = (int) Math.ceil(period);
+        float bestScore = -1f;
+        int bestPhase = 0;
+        for (int phase = 0; phase < phases; phase++) {
+            float score = 0f;
+            for (float position = phase; position < fluxCount; position += period) {
+                score += strength[Math.min(Math.round(position), fluxCount - 1)];
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestPhase = phase;
+            }
+        }
+
+        int snap = Math.max(1, Math.round(period * BEAT_SNAP_FRACTION));
+        long[] beats = new long[(int) (fluxCount / period) + 2];
+        int count = 0;
+        float position = bestPhase;
+        while (position < fluxCount && count < beats.length) {
+            int center = Math.round(position);
+            int best = Math.min(center, fluxCount - 1);
+            for (int i = Math.max(0, center - snap); i <= Math.min(fluxCount - 1, center + snap); i++) {
+                if (strength[i] > strength[best]) {
+                    best = i;
+                }
+            }
+            long timeMs = Math.round(best * HOP_SIZE * 1000.0 / analysisRate);
+            if (count == 0 || timeMs > beats[count - 1]) {
+                beats[count++] = timeMs;
+            }
+            // Continue from the snapped beat so slow tempo drift is followed
+            position = best + period;
+        }
+        return Arrays.copyOf(beats, count);
+    }
+}
@@ -0,0 +1,54 @@
+package com.choreocam.app.concurrent;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// App-wide pools, one per kind of work, so database reads never queue behind a decode or a download
+public class AppExecutors {
+
+    private static final int DISK_THREADS = 2;
+    private static final int NETWORK_THREADS = 3;
+
+    private final PriorityExecutor diskIO;
+    private final PriorityExecutor network;
+    private final PriorityExecutor media;
+    private final Executor mainThread;
+
+    public AppExecutors() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        diskIO = new PriorityExecutor("disk", DISK_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+        network = new PriorityExecutor("network", NETWORK_THREADS, Process.THREAD_PRIORITY_BACKGROUND);
+        // Leaves cores for the UI and render threads; decoding and analysis are CPU bound
+        media = new PriorityExecutor("media", Math.max(1, Math.min(4, cores - 2)),
+            Process.THREAD_PRIORITY_BACKGROUND + Process.THREAD_PRIORITY_MORE_FAVORABLE);
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainThread = mainHandler::post;
+    }
+
+    // Room queries and small file reads and writes
+    public PriorityExecutor diskIO() {
+        return diskIO;
+    }
+
+    // API calls and downloads
+    public PriorityExecutor network() {
+        return network;
+    }
+
+    // Audio analysis, frame extraction and other CPU-heavy media work
+    public PriorityExecutor media() {
+        return media;
+    }
+
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    public List<PriorityExecutor.Stats> getStats() {
+        return Arrays.asList(diskIO.getStats(), network.getStats(), media.getStats());
+    }
+}
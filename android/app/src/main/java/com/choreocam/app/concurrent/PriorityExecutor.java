@@ -0,0 +1,216 @@
+package com.choreocam.app.concurrent;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fixed-size pool that runs higher-priority work first and can tie tasks to a lifecycle
+public class PriorityExecutor extends ThreadPoolExecutor {
+
+    // Lower runs first; equal priorities run in submission order
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_LOW = 2;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String name;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong startedTasks = new AtomicLong();
+    private final AtomicInteger cancelledTasks = new AtomicInteger();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public PriorityExecutor(String name, int threads, int threadPriority) {
+        super(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<>(),
+            new NamedThreadFactory(name, threadPriority));
+        this.name = name;
+        // Idle pools give their threads back, but bursts reuse warm ones instead of spawning new threads
+        allowCoreThreadTimeOut(true);
+    }
+
+    public Future<?> submit(int priority, Runnable task) {
+        PrioritizedTask<Void> future = new PrioritizedTask<>(Executors.callable(task, (Void) null), priority);
+        execute(future);
+        return future;
+    }
+
+    public <T> Future<T> submit(int priority, Callable<T> task) {
+        PrioritizedTask<T> future = new PrioritizedTask<>(task, priority);
+        execute(future);
+        return future;
+    }
+
+    public Future<?> submit(LifecycleOwner owner, Runnable task) {
+        return submit(owner, PRIORITY_NORMAL, task);
+    }
+
+    // Dropped from the queue when the owner is destroyed, so a closed screen stops holding work and
+    // the activity it captured. A task already running is left to finish rather than interrupted
+    // mid-transaction. Must be called on the main thread.
+    public Future<?> submit(LifecycleOwner owner, int priority, Runnable task) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            PrioritizedTask<Void> cancelled = new PrioritizedTask<>(Executors.callable(task, (Void) null), priority);
+            cancelled.cancel(false);
+            return cancelled;
+        }
+        PrioritizedTask<Void> future = new PrioritizedTask<>(Executors.callable(task, (Void) null), priority);
+        LifecycleEventObserver observer = (source, event) -> {
+            // Only work still in the queue is dropped; a started task keeps its result
+            if (event == Lifecycle.Event.ON_DESTROY && remove(future) && future.cancel(false)) {
+                cancelledTasks.incrementAndGet();
+            }
+        };
+        future.lifecycle = lifecycle;
+        future.observer = observer;
+        lifecycle.addObserver(observer);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(command instanceof PrioritizedTask
+            ? command : new PrioritizedTask<>(Executors.callable(command, (Void) null), PRIORITY_NORMAL));
+        int depth = getQueue().size();
+        int peak;
+        while (depth > (peak = peakQueueDepth.get()) && !peakQueueDepth.compareAndSet(peak, depth)) {
+            // Retry until the recorded peak is at least this depth
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new PrioritizedTask<>(Executors.callable(runnable, value), PRIORITY_NORMAL);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new PrioritizedTask<>(callable, PRIORITY_NORMAL);
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        if (runnable instanceof PrioritizedTask) {
+            totalWaitNanos.addAndGet(System.nanoTime() - ((PrioritizedTask<?>) runnable).enqueuedAtNanos);
+            startedTasks.incrementAndGet();
+        }
+    }
+
+    public Stats getStats() {
+        long started = startedTasks.get();
+        return new Stats(
+            name,
+            getQueue().size(),
+            peakQueueDepth.get(),
+            getActiveCount(),
+            getCompletedTaskCount(),
+            cancelledTasks.get(),
+            started > 0 ? totalWaitNanos.get() / started / 1_000_000.0 : 0
+        );
+    }
+
+    public static class Stats {
+        public final String name;
+        public final int queueDepth;
+        public final int peakQueueDepth;
+        public final int activeThreads;
+        public final long completedTasks;
+        public final int cancelledTasks;
+        public final double averageWaitMs;
+
+        Stats(String name, int queueDepth, int peakQueueDepth, int activeThreads, long completedTasks,
+              int cancelledTasks, double averageWaitMs) {
+            this.name = name;
+            this.queueDepth = queueDepth;
+            this.peakQueueDepth = peakQueueDepth;
+            this.activeThreads = activeThreads;
+            this.completedTasks = completedTasks;
+            this.cancelledTasks = cancelledTasks;
+            this.averageWaitMs = averageWaitMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: queued=%d peak=%d active=%d done=%d cancelled=%d wait=%.1fms",
+                name, queueDepth, peakQueueDepth, activeThreads, completedTasks, cancelledTasks, averageWaitMs);
+        }
+    }
+
+    private class PrioritizedTask<T> extends FutureTask<T> implements Comparable<PrioritizedTask<?>> {
+        final int priority;
+        final long order = sequence.getAndIncrement();
+        final long enqueuedAtNanos = System.nanoTime();
+        Lifecycle lifecycle;
+        LifecycleEventObserver observer;
+
+        PrioritizedTask(Callable<T> callable, int priority) {
+            super(callable);
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask<?> other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(order, other.order);
+        }
+
+        @Override
+        protected void done() {
+            if (observer != null) {
+                // Lifecycle observers may only be touched on the main thread
+                Lifecycle owner = lifecycle;
+                LifecycleEventObserver registered = observer;
+                lifecycle = null;
+                observer = null;
+                mainHandler.post(() -> owner.removeObserver(registered));
+            }
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            super.setException(t);
+            // Fire-and-forget callers never call get(), so failures would otherwise vanish
+            t.printStackTrace();
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final int threadPriority;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name, int threadPriority) {
+            this.name = name;
+            this.threadPriority = threadPriority;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(() -> {
+                Process.setThreadPriority(threadPriority);
+                runnable.run();
+            }, name + "-" + count.incrementAndGet());
+        }
+    }
+}
@@ -1,21 +1,32 @@
 package com.choreocam.app.database;
 
+import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import com.choreocam.app.database.dao.ClipDao;
 import com.choreocam.app.database.dao.MusicTrackDao;
 import com.choreocam.app.database.dao.PresetDao;
 import com.choreocam.app.database.dao.ProjectDao;
+import com.choreocam.app.database.dao.RenderJobDao;
 import com.choreocam.app.database.dao.UserDao;
+import com.choreocam.app.models.Clip;
 import com.choreocam.app.models.MusicTrack;
 import com.choreocam.app.models.Preset;
 import com.choreocam.app.models.Project;
+import com.choreocam.app.models.RenderJob;
 import com.choreocam.app.models.User;
+import java.util.List;
 
 @Database(
-    entities = {User.class, Project.class, Preset.class, MusicTrack.class},
-    version = 1,
+    entities = {User.class, Project.class, Preset.class, MusicTrack.class, Clip.class, RenderJob.class},
+    version = 10,
     exportSchema = true
 )
 public abstract class AppDatabase extends RoomDatabase {
@@ -27,6 +38,126 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract ProjectDao projectDao();
     public abstract PresetDao presetDao();
     public abstract MusicTrackDao musicTrackDao();
+    public abstract ClipDao clipDao();
+    public abstract RenderJobDao renderJobDao();
+
+    // Auto-edit timeline
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE projects ADD COLUMN editDecisionListJson TEXT");
+        }
+    };
+
+    // Field-level dirty tracking for delta sync
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE projects ADD COLUMN dirtyFields INTEGER NOT NULL DEFAULT 0");
+            // Rows already waiting for sync have never been uploaded field by field
+            db.execSQL("UPDATE projects SET dirtyFields = " + Project.FIELD_ALL + " WHERE needsSync = 1");
+        }
+    };
+
+    // Paged project list
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE projects ADD COLUMN thumbnailPath TEXT");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_projects_updatedAt` ON `projects` (`updatedAt`)");
+        }
+    };
+
+    // Clips move out of projects.clipsMetaJson into their own table
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `clips` ("
+                + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`projectId` INTEGER NOT NULL, "
+                + "`position` INTEGER NOT NULL, "
+                + "`uri` TEXT, "
+                + "`durationMs` INTEGER NOT NULL, "
+                + "`trimStartMs` INTEGER NOT NULL, "
+                + "`trimEndMs` INTEGER NOT NULL, "
+                + "FOREIGN KEY(`projectId`) REFERENCES `projects`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_clips_projectId_position` ON `clips` (`projectId`, `position`)");
+
+            try (Cursor cursor = db.query("SELECT id, clipsMetaJson FROM projects WHERE clipsMetaJson IS NOT NULL")) {
+                while (cursor.moveToNext()) {
+                    long projectId = cursor.getLong(0);
+                    List<Clip> clips = Clip.parseList(cursor.getString(1));
+                    for (int i = 0; i < clips.size(); i++) {
+                        Clip clip = clips.get(i);
+                        ContentValues values = new ContentValues();
+                        values.put("projectId", projectId);
+                        values.put("position", i);
+                        values.put("uri", clip.getUri());
+                        values.put("durationMs", clip.getDurationMs());
+                        values.put("trimStartMs", clip.getTrimStartMs());
+                        values.put("trimEndMs", clip.getTrimEndMs());
+                        db.insert("clips", SQLiteDatabase.CONFLICT_ABORT, values);
+                    }
+                }
+            }
+            db.execSQL("UPDATE projects SET clipsMetaJson = NULL");
+        }
+    };
+
+    // Binary EDL files next to the JSON timeline
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE projects ADD COLUMN edlPath TEXT");
+        }
+    };
+
+    // Size-bounded LRU over downloaded tracks
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE music_tracks ADD COLUMN lastUsedAt INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    // Resumable export uploads
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE projects ADD COLUMN uploadUrl TEXT");
+            db.execSQL("ALTER TABLE projects ADD COLUMN uploadedAt INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    // Editing proxies for high-resolution clips
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE clips ADD COLUMN proxyPath TEXT");
+        }
+    };
+
+    // Persistent render queue with segment checkpoints
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `render_jobs` ("
+                + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                + "`projectId` INTEGER NOT NULL, "
+                + "`priority` INTEGER NOT NULL, "
+                + "`status` TEXT, "
+                + "`progress` INTEGER NOT NULL, "
+                + "`segmentCount` INTEGER NOT NULL, "
+                + "`segmentsDone` INTEGER NOT NULL, "
+                + "`attempts` INTEGER NOT NULL, "
+                + "`timelineHash` TEXT, "
+                + "`createdAt` INTEGER NOT NULL, "
+                + "`updatedAt` INTEGER NOT NULL, "
+                + "FOREIGN KEY(`projectId`) REFERENCES `projects`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_render_jobs_projectId` ON `render_jobs` (`projectId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_render_jobs_status_priority` ON `render_jobs` (`status`, `priority`)");
+        }
+    };
 
     public static synchronized AppDatabase getInstance(Context context) {
         if (instance == null) {
@@ -35,7 +166,8 @@ public abstract class AppDatabase extends RoomDatabase {
                 AppDatabase.class,
                 DATABASE_NAME
             )
-            .fallbackToDestructiveMigration()
+            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7,
+                MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10)
             .build();
         }
         return instance;
@@ -0,0 +1,118 @@
+package com.choreocam.app.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.Project;
+import java.util.List;
+
+@Dao
+public interface ClipDao {
+    @Insert
+    long insert(Clip clip);
+
+    @Insert
+    void insertAll(List<Clip> clips);
+
+    @Update
+    void update(Clip clip);
+
+    @Delete
+    void delete(Clip clip);
+
+    @Query("SELECT * FROM clips WHERE projectId = :projectId ORDER BY position ASC")
+    List<Clip> getClipsForProject(long projectId);
+
+    @Query("SELECT * FROM clips WHERE projectId = :projectId ORDER BY position ASC")
+    LiveData<List<Clip>> getClipsForProjectLive(long projectId);
+
+    // Window of the timeline starting at fromPosition, served straight from the (projectId, position) index
+    @Query("SELECT * FROM clips WHERE projectId = :projectId AND position >= :fromPosition ORDER BY position ASC LIMIT :count")
+    List<Clip> getClipRange(long projectId, int fromPosition, int count);
+
+    @Query("SELECT * FROM clips WHERE projectId = :projectId AND position = :position")
+    Clip getClipAt(long projectId, int position);
+
+    @Query("SELECT COUNT(*) FROM clips WHERE projectId = :projectId")
+    int getClipCount(long projectId);
+
+    // Opens or closes a gap so a clip can be inserted or removed without renumbering by hand. The edit
+    // decisions point at clips by position, so callers must also call clearEditDecisions.
+    @Query("UPDATE clips SET position = position + :delta WHERE projectId = :projectId AND position >= :fromPosition")
+    void shiftPositions(long projectId, int fromPosition, int delta);
+
+    // Local-only column, so the project is not marked for sync
+    @Query("UPDATE clips SET proxyPath = :proxyPath WHERE id = :id")
+    void updateProxyPath(long id, String proxyPath);
+
+    @Query("SELECT DISTINCT proxyPath FROM clips WHERE proxyPath IS NOT NULL")
+    List<String> getProxyPaths();
+
+    @Query("DELETE FROM clips WHERE projectId = :projectId")
+    void deleteClipsForProject(long projectId);
+
+    @Query("UPDATE projects SET dirtyFields = dirtyFields | " + Project.FIELD_CLIPS
+        + ", needsSync = 1, updatedAt = :updatedAt WHERE id = :projectId")
+    void markProjectClipsDirty(long projectId, long updatedAt);
+
+    // Drops the timeline once clip positions move; it would otherwise cut to the wrong footage. The
+    // editor plans a new one, and the cleared JSON is synced so other devices drop theirs too.
+    @Query("UPDATE projects SET editDecisionListJson = NULL, edlPath = NULL, dirtyFields = dirtyFields | "
+        + (Project.FIELD_CLIPS | Project.FIELD_EDIT_DECISIONS)
+        + ", needsSync = 1, updatedAt = :updatedAt WHERE id = :projectId")
+    void clearEditDecisions(long projectId, long updatedAt);
+
+    // Editing one clip writes that clip's row and flags the project for sync, nothing else
+    @Transaction
+    default void updateClip(Clip clip) {
+        update(clip);
+        markProjectClipsDirty(clip.getProjectId(), System.currentTimeMillis());
+    }
+
+    @Transaction
+    default long addClip(Clip clip) {
+        clip.setPosition(getClipCount(clip.getProjectId()));
+        long id = insert(clip);
+        markProjectClipsDirty(clip.getProjectId(), System.currentTimeMillis());
+        return id;
+    }
+
+    // Appending leaves every existing position, and so the timeline, as it was
+    @Transaction
+    default long insertClipAt(Clip clip, int position) {
+        int count = getClipCount(clip.getProjectId());
+        if (position >= count) {
+            return addClip(clip);
+        }
+        shiftPositions(clip.getProjectId(), position, 1);
+        clip.setPosition(position);
+        long id = insert(clip);
+        clearEditDecisions(clip.getProjectId(), System.currentTimeMillis());
+        return id;
+    }
+
+    @Transaction
+    default void removeClip(Clip clip) {
+        delete(clip);
+        shiftPositions(clip.getProjectId(), clip.getPosition() + 1, -1);
+        clearEditDecisions(clip.getProjectId(), System.currentTimeMillis());
+    }
+
+    // Replaces a project's clips wholesale, e.g. with the list pulled from the server
+    @Transaction
+    default void replaceClips(long projectId, List<Clip> clips) {
+        deleteClipsForProject(projectId);
+        for (int i = 0; i < clips.size(); i++) {
+            Clip clip = clips.get(i);
+            clip.setId(0);
+            clip.setProjectId(projectId);
+            clip.setPosition(i);
+        }
+        insertAll(clips);
+    }
+}
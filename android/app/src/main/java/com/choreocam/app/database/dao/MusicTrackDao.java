@@ -6,6 +6,7 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import com.choreocam.app.models.MusicTrack;
 import java.util.List;
@@ -30,6 +31,9 @@ public interface MusicTrackDao {
     @Query("SELECT * FROM music_tracks WHERE id = :id")
     LiveData<MusicTrack> getTrackById(long id);
 
+    @Query("SELECT * FROM music_tracks WHERE id = :id")
+    MusicTrack getTrackByIdSync(long id);
+
     @Query("SELECT * FROM music_tracks WHERE trackId = :trackId")
     MusicTrack getTrackByTrackId(String trackId);
 
@@ -45,6 +49,47 @@ public interface MusicTrackDao {
     @Query("SELECT * FROM music_tracks WHERE localFilePath IS NOT NULL")
     LiveData<List<MusicTrack>> getDownloadedTracks();
 
+    @Query("SELECT * FROM music_tracks")
+    List<MusicTrack> getAllTracksSync();
+
+    // Least recently used first, for evicting downloads
+    @Query("SELECT * FROM music_tracks WHERE localFilePath IS NOT NULL ORDER BY lastUsedAt ASC")
+    List<MusicTrack> getDownloadedTracksByLastUse();
+
+    @Query("UPDATE music_tracks SET localFilePath = :path, lastUsedAt = :usedAt WHERE id = :id")
+    void setLocalFile(long id, String path, long usedAt);
+
+    @Query("UPDATE music_tracks SET localFilePath = NULL WHERE id = :id")
+    void clearLocalFile(long id);
+
+    @Query("UPDATE music_tracks SET lastUsedAt = :usedAt WHERE id = :id")
+    void markUsed(long id, long usedAt);
+
+    @Query("SELECT MAX(cachedAt) FROM music_tracks")
+    long getLatestCachedAt();
+
+    // Stamps the whole catalog as revalidated in one statement
+    @Query("UPDATE music_tracks SET cachedAt = :cachedAt")
+    void markAllCached(long cachedAt);
+
+    @Query("DELETE FROM music_tracks WHERE id IN (:ids)")
+    void deleteByIds(List<Long> ids);
+
+    // Writes only the rows that differ from the server, then stamps the catalog fresh
+    @Transaction
+    default void applyCatalogDiff(List<MusicTrack> inserted, List<MusicTrack> updated, List<Long> removedIds, long cachedAt) {
+        if (!removedIds.isEmpty()) {
+            deleteByIds(removedIds);
+        }
+        if (!inserted.isEmpty()) {
+            insertAll(inserted);
+        }
+        for (MusicTrack track : updated) {
+            update(track);
+        }
+        markAllCached(cachedAt);
+    }
+
     @Query("DELETE FROM music_tracks")
     void deleteAll();
 }
@@ -6,6 +6,7 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import com.choreocam.app.models.Preset;
 import java.util.List;
@@ -30,6 +31,9 @@ public interface PresetDao {
     @Query("SELECT * FROM presets WHERE id = :id")
     LiveData<Preset> getPresetById(long id);
 
+    @Query("SELECT * FROM presets WHERE id = :id")
+    Preset getPresetByIdSync(long id);
+
     @Query("SELECT * FROM presets WHERE presetId = :presetId")
     Preset getPresetByPresetId(String presetId);
 
@@ -42,6 +46,34 @@ public interface PresetDao {
     @Query("SELECT * FROM presets WHERE isPro = 1 ORDER BY cachedAt DESC")
     LiveData<List<Preset>> getProPresets();
 
+    @Query("SELECT * FROM presets")
+    List<Preset> getAllPresetsSync();
+
+    @Query("SELECT MAX(cachedAt) FROM presets")
+    long getLatestCachedAt();
+
+    // Stamps the whole catalog as revalidated in one statement
+    @Query("UPDATE presets SET cachedAt = :cachedAt")
+    void markAllCached(long cachedAt);
+
+    @Query("DELETE FROM presets WHERE id IN (:ids)")
+    void deleteByIds(List<Long> ids);
+
+    // Writes only the rows that differ from the server, then stamps the catalog fresh
+    @Transaction
+    default void applyCatalogDiff(List<Preset> inserted, List<Preset> updated, List<Long> removedIds, long cachedAt) {
+        if (!removedIds.isEmpty()) {
+            deleteByIds(removedIds);
+        }
+        if (!inserted.isEmpty()) {
+            insertAll(inserted);
+        }
+        for (Preset preset : updated) {
+            update(preset);
+        }
+        markAllCached(cachedAt);
+    }
+
     @Query("DELETE FROM presets")
     void deleteAll();
 }
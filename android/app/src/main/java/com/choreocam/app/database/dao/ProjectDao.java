@@ -1,13 +1,16 @@
 package com.choreocam.app.database.dao;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 import com.choreocam.app.models.Project;
+import com.choreocam.app.models.ProjectSummary;
 import java.util.List;
 
 @Dao
@@ -15,18 +18,31 @@ public interface ProjectDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     long insert(Project project);
 
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    List<Long> insertAll(List<Project> projects);
+
     @Update
     void update(Project project);
 
+    @Update
+    void updateAll(List<Project> projects);
+
     @Delete
     void delete(Project project);
 
     @Query("SELECT * FROM projects ORDER BY updatedAt DESC")
     LiveData<List<Project>> getAllProjects();
 
+    // Paged list rows: only the columns a list item shows, newest first
+    @Query("SELECT id, title, status, thumbnailPath, updatedAt FROM projects ORDER BY updatedAt DESC")
+    PagingSource<Integer, ProjectSummary> getProjectSummaries();
+
     @Query("SELECT * FROM projects WHERE id = :id")
     LiveData<Project> getProjectById(long id);
 
+    @Query("SELECT * FROM projects WHERE id = :id")
+    Project getProjectByIdSync(long id);
+
     @Query("SELECT * FROM projects WHERE projectId = :projectId")
     Project getProjectByProjectId(String projectId);
 
@@ -39,6 +55,55 @@ public interface ProjectDao {
     @Query("SELECT * FROM projects WHERE needsSync = 1")
     List<Project> getProjectsNeedingSync();
 
+    // Keyset page by id, so rows that stay dirty after a page is committed are not read again
+    @Query("SELECT * FROM projects WHERE needsSync = 1 AND id > :afterId ORDER BY id ASC LIMIT :limit")
+    List<Project> getProjectsNeedingSyncPage(long afterId, int limit);
+
+    @Query("SELECT * FROM projects WHERE projectId IN (:projectIds)")
+    List<Project> getProjectsByProjectIds(List<String> projectIds);
+
+    // Rows edited after readAt keep their dirty state, since their newer values haven't been sent yet
+    @Query("UPDATE projects SET needsSync = 0, dirtyFields = 0 WHERE id IN (:ids) AND updatedAt < :readAt")
+    int markProjectsSynced(List<Long> ids, long readAt);
+
+    // Sync bookkeeping for one uploaded page in a single transaction
+    @Transaction
+    default void commitSyncPage(List<Long> syncedIds, long readAt, List<Project> inserted, List<Project> updated) {
+        if (!syncedIds.isEmpty()) {
+            markProjectsSynced(syncedIds, readAt);
+        }
+        if (!inserted.isEmpty()) {
+            List<Long> ids = insertAll(inserted);
+            for (int i = 0; i < ids.size(); i++) {
+                inserted.get(i).setId(ids.get(i));
+            }
+        }
+        if (!updated.isEmpty()) {
+            updateAll(updated);
+        }
+    }
+
+    // Writes only what the editor owns, so sync, render and upload state saved meanwhile is kept
+    @Query("UPDATE projects SET title = :title, editDecisionListJson = :editDecisionListJson, duration = :duration, "
+        + "dirtyFields = dirtyFields | " + (Project.FIELD_TITLE | Project.FIELD_EDIT_DECISIONS | Project.FIELD_DURATION)
+        + ", needsSync = 1, updatedAt = :updatedAt WHERE id = :id")
+    void updateEdit(long id, String title, String editDecisionListJson, long duration, long updatedAt);
+
+    // Local-only column, so it neither bumps updatedAt nor marks the row for sync
+    @Query("UPDATE projects SET edlPath = :edlPath WHERE id = :id")
+    void updateEdlPath(long id, String edlPath);
+
+    @Query("UPDATE projects SET thumbnailPath = :thumbnailPath WHERE id = :id")
+    void updateThumbnailPath(long id, String thumbnailPath);
+
+    // Upload bookkeeping is local-only too; expectedPath keeps a finished upload of an old export
+    // from being recorded against a newer one
+    @Query("UPDATE projects SET uploadUrl = :uploadUrl, uploadedAt = :uploadedAt WHERE id = :id AND outputFilePath = :expectedPath")
+    int updateUpload(long id, String expectedPath, String uploadUrl, long uploadedAt);
+
+    @Query("SELECT COUNT(*) FROM projects")
+    int getProjectCount();
+
     @Query("DELETE FROM projects WHERE id = :id")
     void deleteById(long id);
 
@@ -0,0 +1,81 @@
+package com.choreocam.app.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+import com.choreocam.app.models.RenderJob;
+import java.util.List;
+
+@Dao
+public interface RenderJobDao {
+    @Insert
+    long insert(RenderJob job);
+
+    @Update
+    void update(RenderJob job);
+
+    @Delete
+    void delete(RenderJob job);
+
+    // At most one per project; a project can also have one running job, rendered from older edits
+    @Query("SELECT * FROM render_jobs WHERE projectId = :projectId AND status = 'queued' LIMIT 1")
+    RenderJob getQueuedJobForProject(long projectId);
+
+    @Query("SELECT EXISTS(SELECT 1 FROM render_jobs WHERE projectId = :projectId AND status = 'queued')")
+    boolean hasQueuedJobForProject(long projectId);
+
+    @Query("SELECT * FROM render_jobs WHERE status = 'queued' ORDER BY priority DESC, createdAt ASC LIMIT 1")
+    RenderJob getNextQueuedJob();
+
+    // Checked before each chunk, so an urgent export does not wait for a long one to finish and a
+    // re-export of the same project replaces the render of its older edits
+    @Query("SELECT EXISTS(SELECT 1 FROM render_jobs WHERE status = 'queued' AND (priority > :priority OR projectId = :projectId))")
+    boolean hasQueuedJobToYieldTo(int priority, long projectId);
+
+    // Nothing can be running when the render service starts, so these were cut off by a killed process.
+    // One whose project has since been queued again is dropped rather than rendered twice.
+    @Query("UPDATE render_jobs SET status = 'queued' WHERE status = 'running' "
+        + "AND projectId NOT IN (SELECT projectId FROM render_jobs WHERE status = 'queued')")
+    int requeueInterrupted();
+
+    @Query("DELETE FROM render_jobs WHERE status = 'running'")
+    int deleteInterrupted();
+
+    @Transaction
+    default void recoverInterrupted() {
+        requeueInterrupted();
+        deleteInterrupted();
+    }
+
+    @Query("SELECT id FROM render_jobs")
+    List<Long> getJobIds();
+
+    @Query("UPDATE render_jobs SET progress = :progress, segmentsDone = :segmentsDone, updatedAt = :updatedAt WHERE id = :id")
+    void updateProgress(long id, int progress, int segmentsDone, long updatedAt);
+
+    @Query("DELETE FROM render_jobs WHERE status IN ('completed', 'failed') AND updatedAt < :before")
+    void deleteFinishedBefore(long before);
+
+    // Re-exporting a project with a job in the queue only raises that job's priority. A running job
+    // does not count: it renders the edits from when it started, so a new job is queued to replace it.
+    @Transaction
+    default RenderJob enqueue(long projectId, int priority) {
+        RenderJob job = getQueuedJobForProject(projectId);
+        if (job != null) {
+            if (priority > job.getPriority()) {
+                job.setPriority(priority);
+                job.setUpdatedAt(System.currentTimeMillis());
+                update(job);
+            }
+            return job;
+        }
+        job = new RenderJob();
+        job.setProjectId(projectId);
+        job.setPriority(priority);
+        job.setId(insert(job));
+        return job;
+    }
+}
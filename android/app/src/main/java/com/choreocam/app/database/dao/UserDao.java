@@ -18,6 +18,9 @@ public interface UserDao {
     @Update
     void update(User user);
 
+    @Update
+    void updateAll(List<User> users);
+
     @Delete
     void delete(User user);
 
@@ -39,6 +42,9 @@ public interface UserDao {
     @Query("SELECT * FROM users WHERE needsSync = 1")
     List<User> getUsersNeedingSync();
 
+    @Query("UPDATE users SET needsSync = 0, lastSyncedAt = :syncedAt WHERE id IN (:ids)")
+    int markUsersSynced(List<Long> ids, long syncedAt);
+
     @Query("DELETE FROM users")
     void deleteAll();
 }
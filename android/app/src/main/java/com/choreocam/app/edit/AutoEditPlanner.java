@@ -0,0 +1,128 @@
+package com.choreocam.app.edit;
+
+import com.choreocam.app.models.Clip;
+import java.util.List;
+
+// Lays clips over the beat grid so every cut lands on a beat whenever the footage is long enough
+public class AutoEditPlanner {
+
+    public static final long DEFAULT_MIN_SEGMENT_MS = 400;
+    public static final int DEFAULT_MIN_BEATS = 1;
+    public static final int DEFAULT_MAX_BEATS = 8;
+
+    private final long minSegmentMs;
+    private final int minBeats;
+    private final int maxBeats;
+
+    // Scratch buffers reused across plans so the matching pass itself never allocates
+    private long[] clipStartMs = new long[0];
+    private long[] clipLengthMs = new long[0];
+    private long[] consumedMs = new long[0];
+
+    public AutoEditPlanner() {
+        this(DEFAULT_MIN_SEGMENT_MS, DEFAULT_MIN_BEATS, DEFAULT_MAX_BEATS);
+    }
+
+    public AutoEditPlanner(long minSegmentMs, int minBeats, int maxBeats) {
+        this.minSegmentMs = Math.max(1, minSegmentMs);
+        this.minBeats = Math.max(1, minBeats);
+        this.maxBeats = Math.max(this.minBeats, maxBeats);
+    }
+
+    public EditDecisionList plan(List<Clip> clips, BeatTimeline beats) {
+        EditDecisionList edl = new EditDecisionList();
+        if (clips == null || clips.isEmpty()) {
+            return edl;
+        }
+        int count = clips.size();
+        ensureScratch(count);
+        for (int i = 0; i < count; i++) {
+            Clip clip = clips.get(i);
+            clipStartMs[i] = clip.getTrimStartMs();
+            clipLengthMs[i] = clip.getUsableDurationMs();
+        }
+        plan(beats, clipStartMs, clipLengthMs, count, edl);
+        return edl;
+    }
+
+    // Clip i may be used from startsMs[i] for lengthsMs[i]; returns the number of segments written to out
+    public int plan(BeatTimeline beats, long[] startsMs, long[] lengthsMs, int clipCount, EditDecisionList out) {
+        out.clear();
+        ensureScratch(clipCount);
+
+        long materialMs = 0;
+        int usableClips = 0;
+        for (int i = 0; i < clipCount; i++) {
+            consumedMs[i] = 0;
+            if (lengthsMs[i] >= minSegmentMs) {
+                materialMs += lengthsMs[i];
+                usableClips++;
+            }
+        }
+        if (usableClips == 0) {
+            return 0;
+        }
+
+        // The edit runs for the song, but never repeats footage just to fill it
+        long targetMs = beats.getDurationMs() > 0 ? Math.min(beats.getDurationMs(), materialMs) : materialMs;
+        int beatsInTarget = beats.firstBeatAfter(targetMs);
+        int beatsPerSegment = Math.max(minBeats, Math.min(maxBeats,
+            Math.round((float) beatsInTarget / usableClips)));
+
+        // Every segment but the last is at least minSegmentMs long, which bounds the segment count
+        out.ensureCapacity((int) (targetMs / minSegmentMs) + 2);
+
+        int beatCount = beats.getCount();
+        long position = 0;
+        // Stops early once every clip's unused remainder is too short for a segment
+        int clip = nextClipWithFootage(-1, lengthsMs, clipCount);
+        while (position < targetMs && clip >= 0) {
+            long available = lengthsMs[clip] - consumedMs[clip];
+            long limit = Math.min(position + available, targetMs);
+
+            int next = beats.firstBeatAfter(position);
+            while (next < beatCount && beats.getBeatMs(next) - position < minSegmentMs) {
+                next++;
+            }
+
+            long end;
+            if (next >= beatCount || beats.getBeatMs(next) > limit) {
+                // No beat fits inside this clip: let it run out and snap back on the next one
+                end = limit;
+            } else {
+                int lastFitting = beats.firstBeatAfter(limit) - 1;
+                end = beats.getBeatMs(Math.min(next + beatsPerSegment - 1, lastFitting));
+            }
+            if (end <= position) {
+                break;
+            }
+
+            long in = startsMs[clip] + consumedMs[clip];
+            out.add(clip, in, in + (end - position), position);
+            consumedMs[clip] += end - position;
+            position = end;
+            clip = nextClipWithFootage(clip, lengthsMs, clipCount);
+        }
+        return out.size();
+    }
+
+    // The next clip, in turn, with at least a segment of unused footage; -1 when there is none
+    private int nextClipWithFootage(int current, long[] lengthsMs, int clipCount) {
+        int clip = current;
+        for (int i = 0; i < clipCount; i++) {
+            clip = (clip + 1) % clipCount;
+            if (lengthsMs[clip] - consumedMs[clip] >= minSegmentMs) {
+                return clip;
+            }
+        }
+        return -1;
+    }
+
+    private void ensureScratch(int count) {
+        if (consumedMs.length < count) {
+            clipStartMs = new long[count];
+            clipLengthMs = new long[count];
+            consumedMs = new long[count];
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.choreocam.app.edit;
+
+import com.choreocam.app.models.MusicTrack;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+// Beat markers of a track as a sorted primitive timeline in milliseconds
+public class BeatTimeline {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final long[] beatsMs;
+    private final int count;
+    private final long durationMs;
+
+    public BeatTimeline(long[] beatsMs, int count, long durationMs) {
+        this.beatsMs = beatsMs;
+        this.count = count;
+        this.durationMs = durationMs;
+    }
+
+    // Prefers the track's cue points and falls back to a constant grid derived from its BPM
+    public static BeatTimeline forTrack(MusicTrack track) {
+        if (track == null) {
+            return new BeatTimeline(EMPTY, 0, 0);
+        }
+        long[] beats = parseCuePoints(track.getCuePointsJson());
+        if (beats.length == 0 && track.getBpm() > 0) {
+            beats = gridFromBpm(track.getBpm(), track.getDurationMs());
+        }
+        long duration = track.getDurationMs();
+        if (duration <= 0 && beats.length > 0) {
+            duration = beats[beats.length - 1];
+        }
+        return new BeatTimeline(beats, beats.length, duration);
+    }
+
+    // Accepts [120, 620, ...] in milliseconds, or objects carrying "timeMs" (ms) or "time" (seconds)
+    public static long[] parseCuePoints(String json) {
+        if (json == null || json.isEmpty()) {
+            return EMPTY;
+        }
+        long[] beats = new long[64];
+        int count = 0;
+        boolean sorted = true;
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                return EMPTY;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                long value = -1;
+                JsonToken token = reader.peek();
+                if (token == JsonToken.NUMBER) {
+                    value = (long) reader.nextDouble();
+                } else if (token == JsonToken.BEGIN_OBJECT) {
+                    value = readCueObject(reader);
+                } else {
+                    reader.skipValue();
+                }
+                if (value < 0) {
+                    continue;
+                }
+                if (count == beats.length) {
+                    beats = Arrays.copyOf(beats, count * 2);
+                }
+                if (count > 0 && value < beats[count - 1]) {
+                    sorted = false;
+                }
+                beats[count++] = value;
+            }
+            reader.endArray();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            e.printStackTrace();
+            return EMPTY;
+        }
+        long[] result = Arrays.copyOf(beats, count);
+        if (!sorted) {
+            Arrays.sort(result);
+        }
+        return result;
+    }
+
+    private static long readCueObject(JsonReader reader) throws IOException {
+        long value = -1;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() != JsonToken.NUMBER) {
+                reader.skipValue();
+            } else if (name.equals("timeMs")) {
+                value = (long) reader.nextDouble();
+            } else if (name.equals("time")) {
+                value = Math.round(reader.nextDouble() * 1000);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    public static long[] gridFromBpm(int bpm, long durationMs) {
+        if (bpm <= 0 || durationMs <= 0) {
+            return EMPTY;
+        }
+        double intervalMs = 60000.0 / bpm;
+        int count = (int) (durationMs / intervalMs) + 1;
+        long[] beats = new long[count];
+        for (int i = 0; i < count; i++) {
+            beats[i] = Math.round(i * intervalMs);
+        }
+        return beats;
+    }
+
+    public static String toJson(long[] beatsMs, int count) {
+        StringBuilder builder = new StringBuilder(count * 7 + 2);
+        builder.append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(beatsMs[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getBeatMs(int index) {
+        return beatsMs[index];
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    // Index of the first beat strictly after timeMs, or count when there is none
+    public int firstBeatAfter(long timeMs) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (beatsMs[mid] <= timeMs) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,188 @@
+package com.choreocam.app.edit;
+
+import com.choreocam.app.models.Clip;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+// Ordered timeline segments stored as parallel primitive arrays so planning and rendering don't box
+public class EditDecisionList implements SegmentList {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] clipIndex;
+    private long[] sourceInMs;
+    private long[] sourceOutMs;
+    private long[] timelineStartMs;
+    private int size;
+
+    public EditDecisionList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EditDecisionList(int capacity) {
+        capacity = Math.max(1, capacity);
+        clipIndex = new int[capacity];
+        sourceInMs = new long[capacity];
+        sourceOutMs = new long[capacity];
+        timelineStartMs = new long[capacity];
+    }
+
+    // Plays every clip once, back to back, for projects that were never auto-edited
+    public static EditDecisionList fromClips(List<Clip> clips) {
+        EditDecisionList edl = new EditDecisionList(clips != null ? clips.size() : 0);
+        if (clips == null) {
+            return edl;
+        }
+        long position = 0;
+        for (int i = 0; i < clips.size(); i++) {
+            Clip clip = clips.get(i);
+            long length = clip.getUsableDurationMs();
+            if (length <= 0) {
+                continue;
+            }
+            edl.add(i, clip.getTrimStartMs(), clip.getTrimStartMs() + length, position);
+            position += length;
+        }
+        return edl;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Grows the backing arrays up front so a planning pass can append without allocating
+    public void ensureCapacity(int capacity) {
+        if (capacity <= clipIndex.length) {
+            return;
+        }
+        clipIndex = Arrays.copyOf(clipIndex, capacity);
+        sourceInMs = Arrays.copyOf(sourceInMs, capacity);
+        sourceOutMs = Arrays.copyOf(sourceOutMs, capacity);
+        timelineStartMs = Arrays.copyOf(timelineStartMs, capacity);
+    }
+
+    public void add(int clip, long inMs, long outMs, long atMs) {
+        if (size == clipIndex.length) {
+            ensureCapacity(size * 2);
+        }
+        clipIndex[size] = clip;
+        sourceInMs[size] = inMs;
+        sourceOutMs[size] = outMs;
+        timelineStartMs[size] = atMs;
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int getClipIndex(int segment) {
+        return clipIndex[segment];
+    }
+
+    @Override
+    public long getSourceInMs(int segment) {
+        return sourceInMs[segment];
+    }
+
+    @Override
+    public long getSourceOutMs(int segment) {
+        return sourceOutMs[segment];
+    }
+
+    @Override
+    public long getTimelineStartMs(int segment) {
+        return timelineStartMs[segment];
+    }
+
+    @Override
+    public long getLengthMs(int segment) {
+        return sourceOutMs[segment] - sourceInMs[segment];
+    }
+
+    @Override
+    public long getDurationMs() {
+        if (size == 0) {
+            return 0;
+        }
+        return timelineStartMs[size - 1] + getLengthMs(size - 1);
+    }
+
+    // Serialized as [{"clip":0,"in":0,"out":1500,"at":0}, ...] in Project.editDecisionListJson
+    public String toJson() {
+        StringBuilder builder = new StringBuilder(size * 48 + 2);
+        builder.append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"clip\":").append(clipIndex[i])
+                .append(",\"in\":").append(sourceInMs[i])
+                .append(",\"out\":").append(sourceOutMs[i])
+                .append(",\"at\":").append(timelineStartMs[i])
+                .append('}');
+        }
+        return builder.append(']').toString();
+    }
+
+    public static EditDecisionList fromJson(String json) {
+        EditDecisionList edl = new EditDecisionList();
+        if (json == null || json.isEmpty()) {
+            return edl;
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                int clip = -1;
+                long in = 0;
+                long out = 0;
+                long at = 0;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (reader.peek() != JsonToken.NUMBER) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    switch (name) {
+                        case "clip":
+                            clip = reader.nextInt();
+                            break;
+                        case "in":
+                            in = reader.nextLong();
+                            break;
+                        case "out":
+                            out = reader.nextLong();
+                            break;
+                        case "at":
+                            at = reader.nextLong();
+                            break;
+                        default:
+                            reader.skipValue();
+                            break;
+                    }
+                }
+                reader.endObject();
+                if (clip >= 0 && out > in) {
+                    edl.add(clip, in, out, at);
+                }
+            }
+            reader.endArray();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            e.printStackTrace();
+            edl.clear();
+        }
+        return edl;
+    }
+}
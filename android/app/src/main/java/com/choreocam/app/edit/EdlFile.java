@@ -0,0 +1,219 @@
+package com.choreocam.app.edit;
+
+import com.choreocam.app.models.Preset;
+import com.choreocam.app.render.PresetEffects;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+
+// Versioned binary edit decision list read in place from a memory-mapped file.
+// Layout (little-endian, 8-byte aligned):
+//   header      48 bytes  magic, version, header size, counts, preset stamp, colour effects, duration
+//   transitions  8 bytes each  type, durationMs
+//   segments    32 bytes each  clip index, reserved, source in, source out, timeline start (ms)
+public class EdlFile implements SegmentList {
+
+    public static final int MAGIC = 0x4C444543; // "CEDL" when read little-endian
+    public static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 48;
+    static final int TRANSITION_SIZE = 8;
+    static final int SEGMENT_SIZE = 32;
+
+    private static final int OFFSET_VERSION = 4;
+    private static final int OFFSET_HEADER_SIZE = 6;
+    private static final int OFFSET_SEGMENT_COUNT = 8;
+    private static final int OFFSET_TRANSITION_COUNT = 12;
+    private static final int OFFSET_PRESET_STAMP = 16;
+    private static final int OFFSET_BRIGHTNESS = 20;
+    private static final int OFFSET_CONTRAST = 24;
+    private static final int OFFSET_SATURATION = 28;
+    private static final int OFFSET_VIGNETTE = 32;
+    private static final int OFFSET_DURATION = 40;
+
+    private final ByteBuffer buffer;
+    private final int segmentCount;
+    private final int transitionCount;
+    private final int transitionsOffset;
+    private final int segmentsOffset;
+
+    private EdlFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an EDL file");
+        }
+        if (buffer.getShort(OFFSET_VERSION) > VERSION) {
+            throw new IOException("Unsupported EDL version " + buffer.getShort(OFFSET_VERSION));
+        }
+        // Later versions may grow the header; readers skip what they don't know
+        transitionsOffset = buffer.getShort(OFFSET_HEADER_SIZE);
+        segmentCount = buffer.getInt(OFFSET_SEGMENT_COUNT);
+        transitionCount = buffer.getInt(OFFSET_TRANSITION_COUNT);
+        segmentsOffset = transitionsOffset + transitionCount * TRANSITION_SIZE;
+        if (transitionsOffset < HEADER_SIZE || segmentCount < 0 || transitionCount < 0
+                || (long) segmentsOffset + (long) segmentCount * SEGMENT_SIZE > buffer.limit()) {
+            throw new IOException("Truncated EDL file");
+        }
+    }
+
+    public static EdlFile wrap(ByteBuffer buffer) throws IOException {
+        return new EdlFile(buffer);
+    }
+
+    // The mapping stays valid after the channel is closed, and segments are decoded on access
+    public static EdlFile open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            return new EdlFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static ByteBuffer encode(SegmentList segments, PresetEffects effects, int presetStamp) {
+        if (effects == null) {
+            effects = PresetEffects.none();
+        }
+        int transitions = effects.getTransitionCount();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + transitions * TRANSITION_SIZE
+            + segments.size() * SEGMENT_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC)
+            .putShort(VERSION)
+            .putShort((short) HEADER_SIZE)
+            .putInt(segments.size())
+            .putInt(transitions)
+            .putInt(presetStamp)
+            .putFloat(effects.getBrightness())
+            .putFloat(effects.getContrast())
+            .putFloat(effects.getSaturation())
+            .putFloat(effects.getVignette())
+            .putInt(0)
+            .putLong(segments.getDurationMs());
+        for (int i = 0; i < transitions; i++) {
+            buffer.putInt(effects.getTransitionType(i))
+                .putInt((int) Math.min(Integer.MAX_VALUE, effects.getTransitionDurationMs(i)));
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            buffer.putInt(segments.getClipIndex(i))
+                .putInt(0)
+                .putLong(segments.getSourceInMs(i))
+                .putLong(segments.getSourceOutMs(i))
+                .putLong(segments.getTimelineStartMs(i));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    // Written to a sibling temp file and renamed, so a reader never maps a half-written EDL. The temp
+    // name is unique per call: the editor, preview and render threads may save the same project at once.
+    public static void write(File file, SegmentList segments, PresetEffects effects, int presetStamp)
+            throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        File temp = File.createTempFile(file.getName() + ".", ".tmp", parent);
+        ByteBuffer buffer = encode(segments, effects, presetStamp);
+        try (FileOutputStream out = new FileOutputStream(temp);
+             FileChannel channel = out.getChannel()) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    // Converts the JSON columns of a project and its preset, the formats used before binary EDLs
+    public static void convert(String editDecisionListJson, Preset preset, File file) throws IOException {
+        write(file, EditDecisionList.fromJson(editDecisionListJson), PresetEffects.fromPreset(preset),
+            presetStamp(preset));
+    }
+
+    // Identifies the preset content the colour and transition block was flattened from
+    public static int presetStamp(Preset preset) {
+        if (preset == null) {
+            return 0;
+        }
+        return Objects.hash(preset.getId(), preset.getTransitionsJson(), preset.getEffectsJson());
+    }
+
+    public int getPresetStamp() {
+        return buffer.getInt(OFFSET_PRESET_STAMP);
+    }
+
+    public PresetEffects getEffects() {
+        int[] types = new int[transitionCount];
+        long[] durations = new long[transitionCount];
+        for (int i = 0; i < transitionCount; i++) {
+            int offset = transitionsOffset + i * TRANSITION_SIZE;
+            types[i] = buffer.getInt(offset);
+            durations[i] = buffer.getInt(offset + 4);
+        }
+        return PresetEffects.of(
+            buffer.getFloat(OFFSET_BRIGHTNESS),
+            buffer.getFloat(OFFSET_CONTRAST),
+            buffer.getFloat(OFFSET_SATURATION),
+            buffer.getFloat(OFFSET_VIGNETTE),
+            types,
+            durations
+        );
+    }
+
+    @Override
+    public int size() {
+        return segmentCount;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return segmentCount == 0;
+    }
+
+    @Override
+    public int getClipIndex(int segment) {
+        return buffer.getInt(segmentOffset(segment));
+    }
+
+    @Override
+    public long getSourceInMs(int segment) {
+        return buffer.getLong(segmentOffset(segment) + 8);
+    }
+
+    @Override
+    public long getSourceOutMs(int segment) {
+        return buffer.getLong(segmentOffset(segment) + 16);
+    }
+
+    @Override
+    public long getTimelineStartMs(int segment) {
+        return buffer.getLong(segmentOffset(segment) + 24);
+    }
+
+    @Override
+    public long getLengthMs(int segment) {
+        int offset = segmentOffset(segment);
+        return buffer.getLong(offset + 16) - buffer.getLong(offset + 8);
+    }
+
+    @Override
+    public long getDurationMs() {
+        return buffer.getLong(OFFSET_DURATION);
+    }
+
+    private int segmentOffset(int segment) {
+        if (segment < 0 || segment >= segmentCount) {
+            throw new IndexOutOfBoundsException("Segment " + segment + " of " + segmentCount);
+        }
+        return segmentsOffset + segment * SEGMENT_SIZE;
+    }
+}
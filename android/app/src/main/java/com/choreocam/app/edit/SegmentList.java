@@ -0,0 +1,21 @@
+package com.choreocam.app.edit;
+
+// Read access to timeline segments, whether built in memory or mapped from an EDL file
+public interface SegmentList {
+
+    int size();
+
+    boolean isEmpty();
+
+    int getClipIndex(int segment);
+
+    long getSourceInMs(int segment);
+
+    long getSourceOutMs(int segment);
+
+    long getTimelineStartMs(int segment);
+
+    long getLengthMs(int segment);
+
+    long getDurationMs();
+}
@@ -0,0 +1,555 @@
+package com.choreocam.app.media;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Base64;
+import com.choreocam.app.ChoreoCamApplication;
+import com.choreocam.app.concurrent.PriorityExecutor;
+import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.models.MusicTrack;
+import com.choreocam.app.utils.ConfigManager;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+// Downloads catalog tracks in resumable HTTP Range chunks. Progress is committed to a sidecar file
+// after every chunk, so a dropped connection or a killed process resumes where it stopped instead
+// of starting over. Finished files are verified, then kept under a size cap by evicting the least
+// recently used downloads.
+public class MusicDownloadManager {
+
+    public interface Listener {
+        void onProgress(long trackId, long downloadedBytes, long totalBytes);
+
+        void onComplete(long trackId, String path);
+
+        void onFailed(long trackId, Exception error);
+    }
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long INITIAL_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 30_000;
+    private static final long TRANSFER_SLICE = 64 * 1024;
+    // Parts of downloads nobody resumed within this long are deleted during eviction
+    private static final long STALE_PART_MS = TimeUnit.DAYS.toMillis(7);
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+
+    private static volatile MusicDownloadManager instance;
+
+    private final AppDatabase database;
+    private final ConfigManager config;
+    private final File musicDir;
+    private final OkHttpClient httpClient;
+    private final PriorityExecutor downloadExecutor;
+    private final Map<Long, Download> active = new ConcurrentHashMap<>();
+    private final Set<Listener> listeners = new CopyOnWriteArraySet<>();
+    private final Object evictionLock = new Object();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private MusicDownloadManager(Context context, AppDatabase database, ConfigManager config) {
+        this.database = database;
+        this.config = config;
+        this.musicDir = new File(context.getFilesDir(), "music");
+        // No logging interceptor: BODY logging would buffer whole audio files in memory
+        this.httpClient = new OkHttpClient.Builder()
+            .connectTimeout(config.getTimeoutSeconds(), TimeUnit.SECONDS)
+            .readTimeout(config.getTimeoutSeconds(), TimeUnit.SECONDS)
+            .build();
+        // One thread per allowed download, so the cap needs no extra bookkeeping
+        this.downloadExecutor = new PriorityExecutor("download", Math.max(1, config.getMaxConcurrentDownloads()),
+            Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+    public static MusicDownloadManager getInstance() {
+        if (instance == null) {
+            synchronized (MusicDownloadManager.class) {
+                if (instance == null) {
+                    instance = new MusicDownloadManager(
+                        ChoreoCamApplication.getAppContext(),
+                        ChoreoCamApplication.getDatabase(),
+                        ChoreoCamApplication.getConfigManager()
+                    );
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Listeners are called on the main thread
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public boolean isDownloading(long trackId) {
+        return active.containsKey(trackId);
+    }
+
+    // Queues the track unless it is already downloaded or in flight; user taps should pass
+    // PRIORITY_HIGH so they overtake prefetches
+    public void download(MusicTrack track, int priority) {
+        if (track.getFileUrl() == null || track.getFileUrl().isEmpty()) {
+            return;
+        }
+        Download download = new Download(track);
+        if (active.putIfAbsent(track.getId(), download) != null) {
+            return;
+        }
+        downloadExecutor.submit(priority, () -> run(download));
+    }
+
+    // Stops after the current slice; the committed part is kept so the next download resumes it
+    public void cancel(long trackId) {
+        Download download = active.get(trackId);
+        if (download != null) {
+            download.cancelled = true;
+        }
+    }
+
+    // The track's file if it is still on disk, clearing a path whose file has gone. Counts as a use
+    // for eviction. Must not be called on the main thread.
+    public String getLocalFile(MusicTrack track) {
+        String path = track.getLocalFilePath();
+        if (path == null) {
+            return null;
+        }
+        if (!new File(path).exists()) {
+            database.musicTrackDao().clearLocalFile(track.getId());
+            track.setLocalFilePath(null);
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        database.musicTrackDao().markUsed(track.getId(), now);
+        track.setLastUsedAt(now);
+        return path;
+    }
+
+    private void run(Download download) {
+        MusicTrack track = download.track;
+        try {
+            File target = targetFile(track);
+            if (track.getLocalFilePath() != null && new File(track.getLocalFilePath()).exists()) {
+                notifyComplete(track.getId(), track.getLocalFilePath());
+                return;
+            }
+            if (!musicDir.exists() && !musicDir.mkdirs()) {
+                throw new IOException("Cannot create " + musicDir);
+            }
+            File part = new File(musicDir, target.getName() + ".part");
+            File stateFile = new File(musicDir, target.getName() + ".part.state");
+            PartState state = PartState.load(stateFile, part, track.getFileUrl());
+
+            fetch(download, part, state, stateFile);
+            if (download.cancelled) {
+                return;
+            }
+            try {
+                verify(part, state);
+            } catch (IOException e) {
+                // A part that fails verification is useless to resume
+                part.delete();
+                stateFile.delete();
+                throw e;
+            }
+            if (!part.renameTo(target)) {
+                throw new IOException("Cannot move download into place: " + target);
+            }
+            stateFile.delete();
+
+            database.musicTrackDao().setLocalFile(track.getId(), target.getAbsolutePath(), System.currentTimeMillis());
+            enforceCacheLimit(track.getId());
+            notifyComplete(track.getId(), target.getAbsolutePath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            notifyFailed(track.getId(), e);
+        } finally {
+            active.remove(track.getId());
+        }
+    }
+
+    private void fetch(Download download, File part, PartState state, File stateFile) throws IOException {
+        long chunkBytes = Math.max(64, config.getDownloadChunkKb()) * 1024L;
+        int attempts = 0;
+        try (FileChannel channel = FileChannel.open(part.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            while (!download.cancelled && (state.totalBytes < 0 || state.committed < state.totalBytes)) {
+                try {
+                    boolean finished = fetchChunk(download, channel, state, chunkBytes);
+                    attempts = 0;
+                    if (finished) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    if (++attempts >= MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                    sleepBackoff(attempts);
+                } finally {
+                    // Bytes already written belong to the same representation, so they are kept
+                    channel.force(false);
+                    state.save(stateFile);
+                }
+            }
+            channel.truncate(state.committed);
+        }
+    }
+
+    // Returns true when the server sent the rest of the file in one response
+    private boolean fetchChunk(Download download, FileChannel channel, PartState state, long chunkBytes)
+            throws IOException {
+        long end = state.totalBytes > 0
+            ? Math.min(state.committed + chunkBytes, state.totalBytes) - 1
+            : state.committed + chunkBytes - 1;
+        Request.Builder request = new Request.Builder()
+            .url(state.url)
+            .header("Range", "bytes=" + state.committed + "-" + end)
+            // Audio is already compressed; identity keeps byte offsets meaningful
+            .header("Accept-Encoding", "identity")
+            .header("Want-Repr-Digest", "sha-256=10, md5=5");
+        String validator = state.validator();
+        if (validator != null && state.committed > 0) {
+            // The server sends the whole new file instead of a range if it has changed since
+            request.header("If-Range", validator);
+        }
+
+        try (Response response = httpClient.newCall(request.build()).execute()) {
+            ResponseBody body = response.body();
+            if (response.code() == 206 && body != null) {
+                Matcher range = CONTENT_RANGE.matcher(nonNull(response.header("Content-Range")));
+                if (!range.matches() || Long.parseLong(range.group(1)) != state.committed
+                        || !state.sameRepresentation(response)) {
+                    // Misaligned or for a different version of the file: start over
+                    state.reset();
+                    return false;
+                }
+                if (!"*".equals(range.group(3))) {
+                    state.totalBytes = Long.parseLong(range.group(3));
+                }
+                state.remember(response);
+                transfer(download, body.source(), channel, state);
+                return false;
+            }
+            if (response.code() == 200 && body != null) {
+                // Ranges unsupported or the file changed: the body is the complete file
+                state.reset();
+                channel.truncate(0);
+                state.totalBytes = body.contentLength();
+                state.remember(response);
+                transfer(download, body.source(), channel, state);
+                if (state.totalBytes < 0) {
+                    state.totalBytes = state.committed;
+                }
+                return true;
+            }
+            if (response.code() == 416) {
+                if (state.totalBytes > 0 && state.committed >= state.totalBytes) {
+                    return true;
+                }
+                // The part is longer than the current file, so it belongs to an older version
+                state.reset();
+                throw new IOException("Range not satisfiable for " + state.url);
+            }
+            throw new IOException("HTTP " + response.code() + " for " + state.url);
+        }
+    }
+
+    private void transfer(Download download, BufferedSource source, FileChannel channel, PartState state)
+            throws IOException {
+        long lastReported = 0;
+        while (!download.cancelled) {
+            // FileChannel pulls straight from the socket's buffer; no intermediate byte[] copy per slice
+            long transferred = channel.transferFrom(source, state.committed, TRANSFER_SLICE);
+            if (transferred <= 0) {
+                break;
+            }
+            state.committed += transferred;
+            if (state.committed - lastReported >= TRANSFER_SLICE * 4) {
+                lastReported = state.committed;
+                notifyProgress(download.track.getId(), state.committed, state.totalBytes);
+            }
+        }
+        notifyProgress(download.track.getId(), state.committed, state.totalBytes);
+    }
+
+    private void verify(File part, PartState state) throws IOException {
+        if (state.totalBytes >= 0 && part.length() != state.totalBytes) {
+            throw new IOException("Size mismatch: " + part.length() + " of " + state.totalBytes);
+        }
+        if (state.digestAlgorithm == null) {
+            return;
+        }
+        byte[] actual;
+        try (FileChannel channel = FileChannel.open(part.toPath(), StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance(state.digestAlgorithm);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            actual = digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] expected;
+        try {
+            expected = Base64.decode(state.digest, Base64.DEFAULT);
+        } catch (IllegalArgumentException e) {
+            // An unreadable header is no evidence of corruption; the size check above still held
+            e.printStackTrace();
+            return;
+        }
+        if (!MessageDigest.isEqual(actual, expected)) {
+            throw new IOException("Digest mismatch for " + state.url);
+        }
+    }
+
+    // Deletes least recently used downloads until the total fits the configured cap
+    private void enforceCacheLimit(long keepTrackId) {
+        synchronized (evictionLock) {
+            long limit = config.getMusicCacheMb() * 1024L * 1024L;
+            long total = 0;
+            List<MusicTrack> downloaded = database.musicTrackDao().getDownloadedTracksByLastUse();
+            for (MusicTrack track : downloaded) {
+                File file = new File(track.getLocalFilePath());
+                if (file.exists()) {
+                    total += file.length();
+                } else {
+                    database.musicTrackDao().clearLocalFile(track.getId());
+                }
+            }
+            File[] parts = musicDir.listFiles((dir, name) -> name.endsWith(".part") || name.endsWith(".part.state"));
+            long staleBefore = System.currentTimeMillis() - STALE_PART_MS;
+            if (parts != null) {
+                for (File file : parts) {
+                    if (file.lastModified() < staleBefore) {
+                        file.delete();
+                    } else if (file.getName().endsWith(".part")) {
+                        total += file.length();
+                    }
+                }
+            }
+            for (MusicTrack track : downloaded) {
+                if (total <= limit) {
+                    break;
+                }
+                if (track.getId() == keepTrackId || active.containsKey(track.getId())) {
+                    continue;
+                }
+                File file = new File(track.getLocalFilePath());
+                long length = file.length();
+                if (!file.exists() || file.delete()) {
+                    database.musicTrackDao().clearLocalFile(track.getId());
+                    total -= length;
+                }
+            }
+        }
+    }
+
+    private File targetFile(MusicTrack track) {
+        String extension = "m4a";
+        String url = track.getFileUrl();
+        int query = url.indexOf('?');
+        String path = query >= 0 ? url.substring(0, query) : url;
+        int dot = path.lastIndexOf('.');
+        if (dot > path.lastIndexOf('/') && path.length() - dot <= 5) {
+            extension = path.substring(dot + 1).toLowerCase(Locale.US);
+        }
+        return new File(musicDir, "track_" + track.getId() + "." + extension);
+    }
+
+    private static void sleepBackoff(int attempt) throws IOException {
+        long delay = Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << (attempt - 1));
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+
+    private void notifyProgress(long trackId, long downloaded, long total) {
+        mainHandler.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onProgress(trackId, downloaded, total);
+            }
+        });
+    }
+
+    private void notifyComplete(long trackId, String path) {
+        mainHandler.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onComplete(trackId, path);
+            }
+        });
+    }
+
+    private void notifyFailed(long trackId, Exception error) {
+        mainHandler.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onFailed(trackId, error);
+            }
+        });
+    }
+
+    private static class Download {
+        final MusicTrack track;
+        volatile boolean cancelled;
+
+        Download(MusicTrack track) {
+            this.track = track;
+        }
+    }
+
+    // What is needed to resume a part: how much of it is durable and which version of the file it is
+    private static class PartState {
+        String url;
+        long committed;
+        long totalBytes = -1;
+        String etag;
+        String lastModified;
+        String digestAlgorithm;
+        String digest;
+
+        static PartState load(File stateFile, File part, String url) {
+            PartState state = new PartState();
+            state.url = url;
+            if (stateFile.exists() && part.exists()) {
+                Properties properties = new Properties();
+                try (InputStream in = new FileInputStream(stateFile)) {
+                    properties.load(in);
+                    if (url.equals(properties.getProperty("url"))) {
+                        // Never trust bytes past the last flush
+                        state.committed = Math.min(part.length(), Long.parseLong(properties.getProperty("committed", "0")));
+                        state.totalBytes = Long.parseLong(properties.getProperty("total", "-1"));
+                        state.etag = properties.getProperty("etag");
+                        state.lastModified = properties.getProperty("lastModified");
+                        state.digestAlgorithm = properties.getProperty("digestAlgorithm");
+                        state.digest = properties.getProperty("digest");
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    e.printStackTrace();
+                    state.reset();
+                }
+            }
+            return state;
+        }
+
+        void save(File stateFile) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("url", url);
+            properties.setProperty("committed", Long.toString(committed));
+            properties.setProperty("total", Long.toString(totalBytes));
+            setIfPresent(properties, "etag", etag);
+            setIfPresent(properties, "lastModified", lastModified);
+            setIfPresent(properties, "digestAlgorithm", digestAlgorithm);
+            setIfPresent(properties, "digest", digest);
+            File temp = new File(stateFile.getPath() + ".tmp");
+            try (OutputStream out = new FileOutputStream(temp)) {
+                properties.store(out, null);
+            }
+            if (!temp.renameTo(stateFile)) {
+                throw new IOException("Cannot save download state: " + stateFile);
+            }
+        }
+
+        void reset() {
+            committed = 0;
+            totalBytes = -1;
+            etag = null;
+            lastModified = null;
+            digestAlgorithm = null;
+            digest = null;
+        }
+
+        // Strong ETags only; a weak one is not allowed in If-Range
+        String validator() {
+            if (etag != null && !etag.startsWith("W/")) {
+                return etag;
+            }
+            return lastModified;
+        }
+
+        boolean sameRepresentation(Response response) {
+            String responseEtag = response.header("ETag");
+            return etag == null || responseEtag == null || etag.equals(responseEtag);
+        }
+
+        void remember(Response response) {
+            if (response.header("ETag") != null) {
+                etag = response.header("ETag");
+            }
+            if (response.header("Last-Modified") != null) {
+                lastModified = response.header("Last-Modified");
+            }
+            // Both headers describe the whole file, even on a 206
+            parseDigest(response.header("Repr-Digest"));
+            parseDigest(response.header("Digest"));
+        }
+
+        // Repr-Digest: sha-256=:base64:  or the older  Digest: SHA-256=base64
+        private void parseDigest(String header) {
+            if (header == null || "SHA-256".equals(digestAlgorithm)) {
+                return;
+            }
+            for (String entry : header.split(",")) {
+                int equals = entry.indexOf('=');
+                if (equals <= 0) {
+                    continue;
+                }
+                String algorithm = entry.substring(0, equals).trim().toLowerCase(Locale.US);
+                String value = entry.substring(equals + 1).trim();
+                if (value.startsWith(":") && value.endsWith(":") && value.length() > 1) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                if ("sha-256".equals(algorithm)) {
+                    digestAlgorithm = "SHA-256";
+                    digest = value;
+                    return;
+                }
+                if ("md5".equals(algorithm) && digestAlgorithm == null) {
+                    digestAlgorithm = "MD5";
+                    digest = value;
+                }
+            }
+        }
+
+        private static void setIfPresent(Properties properties, String key, String value) {
+            if (value != null) {
+                properties.setProperty(key, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.choreocam.app.media;
+
+import android.content.Context;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.net.Uri;
+import com.choreocam.app.database.dao.ClipDao;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.render.EncoderGate;
+import com.choreocam.app.render.PresetEffects;
+import com.choreocam.app.render.RenderEngine;
+import com.choreocam.app.render.RenderSpec;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Transcodes high-resolution clips into small all-intra proxies through the export pipeline. Proxies
+// are named after the source uri, so every clip row pointing at the same video shares one file.
+public class ProxyGenerator {
+
+    private final Context context;
+    private final ClipDao clipDao;
+    private final File proxyDir;
+    private volatile RenderEngine activeEngine;
+    private volatile boolean cancelled;
+
+    public ProxyGenerator(Context context, ClipDao clipDao) {
+        this.context = context.getApplicationContext();
+        this.clipDao = clipDao;
+        this.proxyDir = new File(context.getFilesDir(), "proxies");
+    }
+
+    public void cancel() {
+        cancelled = true;
+        RenderEngine engine = activeEngine;
+        if (engine != null) {
+            engine.cancel();
+        }
+    }
+
+    // Records the clip's proxy, transcoding it first if needed; false when the source is small enough
+    // to edit directly. Blocks for roughly the clip's duration when a transcode is needed.
+    public boolean ensureProxy(Clip clip) throws IOException {
+        if (clip.getProxyPath() != null && new File(clip.getProxyPath()).exists()) {
+            return true;
+        }
+        if (clip.getUri() == null) {
+            return false;
+        }
+        File proxy = proxyFile(clip.getUri());
+        if (!proxy.exists()) {
+            RenderSpec spec = proxySpec(clip.getUri());
+            if (spec == null) {
+                return false;
+            }
+            transcode(clip, spec, proxy);
+        }
+        clipDao.updateProxyPath(clip.getId(), proxy.getAbsolutePath());
+        clip.setProxyPath(proxy.getAbsolutePath());
+        return true;
+    }
+
+    // Forgets proxies whose file has gone, so callers fall back to the original; not for the main thread
+    public void dropMissingProxies(List<Clip> clips) {
+        for (Clip clip : clips) {
+            if (clip.getProxyPath() != null && !new File(clip.getProxyPath()).exists()) {
+                clipDao.updateProxyPath(clip.getId(), null);
+                clip.setProxyPath(null);
+            }
+        }
+    }
+
+    // Deletes proxy files no clip points at any more. Recent files are spared: another generator may
+    // be writing one or about to record it.
+    public void deleteUnused() {
+        File[] files = proxyDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Set<String> used = new HashSet<>(clipDao.getProxyPaths());
+        long recent = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+        for (File file : files) {
+            if (file.lastModified() < recent && !used.contains(file.getAbsolutePath())) {
+                file.delete();
+            }
+        }
+    }
+
+    private void transcode(Clip clip, RenderSpec spec, File proxy) throws IOException {
+        if (!proxyDir.exists() && !proxyDir.mkdirs()) {
+            throw new IOException("Cannot create " + proxyDir);
+        }
+        // The whole source, untrimmed, so later trim changes never need a new proxy
+        Clip source = new Clip();
+        source.setUri(clip.getUri());
+        source.setDurationMs(clip.getDurationMs());
+
+        // Unique per transcode: workers for two projects sharing a source may both build its proxy, and
+        // whichever finishes last renames a complete file over the other's
+        File temp = File.createTempFile(proxy.getName() + ".", ".tmp", proxyDir);
+        RenderEngine engine = new RenderEngine(context, spec, PresetEffects.none());
+        activeEngine = engine;
+        try {
+            if (cancelled) {
+                engine.cancel();
+            }
+            EncoderGate.acquire();
+            try {
+                engine.render(Collections.singletonList(source), null, null, temp, null);
+            } finally {
+                EncoderGate.release();
+            }
+            if (!temp.renameTo(proxy)) {
+                throw new IOException("Cannot move proxy into place: " + proxy);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } finally {
+            activeEngine = null;
+            temp.delete();
+        }
+    }
+
+    // Null when the source's short side is already small enough to decode and seek smoothly
+    private RenderSpec proxySpec(String source) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        try {
+            if (source == null) {
+                throw new IOException("Clip has no source");
+            }
+            if (source.startsWith("content:") || source.startsWith("file:")) {
+                extractor.setDataSource(context, Uri.parse(source), null);
+            } else {
+                extractor.setDataSource(source);
+            }
+            for (int i = 0; i < extractor.getTrackCount(); i++) {
+                MediaFormat format = extractor.getTrackFormat(i);
+                String mime = format.getString(MediaFormat.KEY_MIME);
+                if (mime == null || !mime.startsWith("video/")) {
+                    continue;
+                }
+                int width = format.getInteger(MediaFormat.KEY_WIDTH);
+                int height = format.getInteger(MediaFormat.KEY_HEIGHT);
+                if (Math.min(width, height) <= RenderSpec.PROXY_THRESHOLD_SHORT_SIDE) {
+                    return null;
+                }
+                int rotation = format.containsKey(MediaFormat.KEY_ROTATION) ? format.getInteger(MediaFormat.KEY_ROTATION) : 0;
+                // The proxy is drawn upright, so it takes the displayed orientation
+                return rotation % 180 != 0 ? RenderSpec.forProxy(height, width) : RenderSpec.forProxy(width, height);
+            }
+            throw new IOException("No video track in " + source);
+        } finally {
+            extractor.release();
+        }
+    }
+
+    private File proxyFile(String source) {
+        String name;
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(source.getBytes(StandardCharsets.UTF_8));
+            name = String.format(Locale.US, "%040x", new BigInteger(1, hash));
+        } catch (NoSuchAlgorithmException e) {
+            name = Integer.toHexString(source.hashCode());
+        }
+        return new File(proxyDir, "proxy_" + name + ".mp4");
+    }
+}
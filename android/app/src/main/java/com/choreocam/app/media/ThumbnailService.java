@@ -0,0 +1,421 @@
+package com.choreocam.app.media;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.LruCache;
+import com.choreocam.app.ChoreoCamApplication;
+import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.Project;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Video frame thumbnails decoded at the exact size they are drawn, cached in memory and on disk
+public class ThumbnailService {
+
+    public interface Callback {
+        void onThumbnail(Bitmap bitmap);
+    }
+
+    public interface FrameCallback {
+        void onFrame(int index, Bitmap bitmap);
+    }
+
+    // Returned to views so a recycled row can drop work it no longer needs
+    public static class Request {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static final int DECODE_THREADS = 2;
+    private static final int JPEG_QUALITY = 85;
+    private static final int COVER_WIDTH = 384;
+    private static final int COVER_HEIGHT = 216;
+
+    private static volatile ThumbnailService instance;
+
+    private final Context context;
+    private final AppDatabase database;
+    private final LruCache<String, Bitmap> memoryCache;
+    private final File diskDir;
+    private final File coverDir;
+    private final long diskCacheBytes;
+    private final AtomicLong diskUsage = new AtomicLong(-1);
+    private final ThreadPoolExecutor decodeExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private ThumbnailService(Context context, AppDatabase database, long diskCacheBytes) {
+        this.context = context.getApplicationContext();
+        this.database = database;
+        this.diskDir = new File(context.getCacheDir(), "thumbnails");
+        this.coverDir = new File(context.getFilesDir(), "covers");
+        this.diskCacheBytes = diskCacheBytes;
+
+        int memoryBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+        memoryCache = new LruCache<String, Bitmap>(memoryBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+
+        // LIFO queue: while scrubbing, the frames that just scrolled into view are decoded first
+        decodeExecutor = new ThreadPoolExecutor(DECODE_THREADS, DECODE_THREADS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingDeque<Runnable>() {
+                @Override
+                public boolean offer(Runnable runnable) {
+                    return offerFirst(runnable);
+                }
+            },
+            runnable -> new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "thumbnail-decode"));
+        decodeExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    public static ThumbnailService getInstance() {
+        if (instance == null) {
+            synchronized (ThumbnailService.class) {
+                if (instance == null) {
+                    instance = new ThumbnailService(
+                        ChoreoCamApplication.getAppContext(),
+                        ChoreoCamApplication.getDatabase(),
+                        ChoreoCamApplication.getConfigManager().getThumbnailDiskCacheMb() * 1024L * 1024L
+                    );
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Memory hit only; safe to call from onBindViewHolder
+    public Bitmap getCached(String uri, long timeMs, int width, int height) {
+        return memoryCache.get(key(uri, timeMs, width, height));
+    }
+
+    public Request load(String uri, long timeMs, int width, int height, Callback callback) {
+        Request request = new Request();
+        Bitmap cached = getCached(uri, timeMs, width, height);
+        if (cached != null) {
+            callback.onThumbnail(cached);
+            return request;
+        }
+        decodeExecutor.execute(() -> {
+            if (request.isCancelled()) {
+                return;
+            }
+            Bitmap bitmap = fromCaches(key(uri, timeMs, width, height));
+            if (bitmap == null) {
+                MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+                try {
+                    setDataSource(retriever, uri);
+                    bitmap = decodeAndStore(retriever, sourceSize(retriever), uri, timeMs, width, height);
+                } catch (RuntimeException | IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    releaseQuietly(retriever);
+                }
+            }
+            deliver(request, bitmap, callback);
+        });
+        return request;
+    }
+
+    // Frames evenly spaced over [startMs, endMs), decoded with one retriever so the source is opened once
+    public Request loadFilmstrip(String uri, long startMs, long endMs, int count, int width, int height,
+                                 FrameCallback callback) {
+        Request request = new Request();
+        decodeExecutor.execute(() -> {
+            MediaMetadataRetriever retriever = null;
+            int[] sourceSize = null;
+            try {
+                for (int i = 0; i < count && !request.isCancelled(); i++) {
+                    long timeMs = filmstripFrameTime(startMs, endMs, count, i);
+                    Bitmap bitmap = fromCaches(key(uri, timeMs, width, height));
+                    if (bitmap == null) {
+                        if (retriever == null) {
+                            retriever = new MediaMetadataRetriever();
+                            setDataSource(retriever, uri);
+                            sourceSize = sourceSize(retriever);
+                        }
+                        bitmap = decodeAndStore(retriever, sourceSize, uri, timeMs, width, height);
+                    }
+                    if (bitmap != null) {
+                        int index = i;
+                        Bitmap frame = bitmap;
+                        mainHandler.post(() -> {
+                            if (!request.isCancelled()) {
+                                callback.onFrame(index, frame);
+                            }
+                        });
+                    }
+                }
+            } catch (RuntimeException | IOException e) {
+                e.printStackTrace();
+            } finally {
+                if (retriever != null) {
+                    releaseQuietly(retriever);
+                }
+            }
+        });
+        return request;
+    }
+
+    public static long filmstripFrameTime(long startMs, long endMs, int count, int index) {
+        return startMs + (endMs - startMs) * index / Math.max(1, count);
+    }
+
+    // Writes the project's list thumbnail from its first clip; must be called off the main thread
+    public String updateProjectCover(Project project, Clip clip) {
+        if (clip == null || clip.getUri() == null) {
+            return null;
+        }
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            setDataSource(retriever, clip.getUri());
+            Bitmap cover = decodeFrame(retriever, sourceSize(retriever), clip.getTrimStartMs(),
+                COVER_WIDTH, COVER_HEIGHT);
+            if (cover == null) {
+                return null;
+            }
+            coverDir.mkdirs();
+            // A new name per cover, so image loaders keyed by path never show the previous one
+            File file = new File(coverDir, "project_" + project.getId() + "_" + System.currentTimeMillis() + ".jpg");
+            writeJpeg(cover, file);
+            String previous = project.getThumbnailPath();
+            project.setThumbnailPath(file.getAbsolutePath());
+            database.projectDao().updateThumbnailPath(project.getId(), file.getAbsolutePath());
+            if (previous != null && previous.startsWith(coverDir.getAbsolutePath())) {
+                new File(previous).delete();
+            }
+            return file.getAbsolutePath();
+        } catch (RuntimeException | IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            releaseQuietly(retriever);
+        }
+    }
+
+    private Bitmap fromCaches(String key) {
+        Bitmap bitmap = memoryCache.get(key);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        File file = new File(diskDir, key + ".jpg");
+        if (!file.exists()) {
+            return null;
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        // JPEG has no alpha, so 565 halves the memory cost without visible loss at thumbnail size
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        bitmap = BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        if (bitmap != null) {
+            file.setLastModified(System.currentTimeMillis());
+            memoryCache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    private Bitmap decodeAndStore(MediaMetadataRetriever retriever, int[] sourceSize, String uri, long timeMs,
+                                  int width, int height) {
+        Bitmap bitmap = decodeFrame(retriever, sourceSize, timeMs, width, height);
+        if (bitmap == null) {
+            return null;
+        }
+        String key = key(uri, timeMs, width, height);
+        memoryCache.put(key, bitmap);
+        try {
+            diskDir.mkdirs();
+            File file = new File(diskDir, key + ".jpg");
+            writeJpeg(bitmap, file);
+            addDiskUsage(file.length());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return bitmap;
+    }
+
+    // Scales so the frame covers width x height, then centre-crops; nothing larger than needed is kept
+    private static Bitmap decodeFrame(MediaMetadataRetriever retriever, int[] sourceSize, long timeMs,
+                                      int width, int height) {
+        long timeUs = timeMs * 1000;
+        if (sourceSize[0] <= 0 || sourceSize[1] <= 0) {
+            return null;
+        }
+        float scale = Math.max((float) width / sourceSize[0], (float) height / sourceSize[1]);
+        int scaledWidth = Math.max(width, Math.round(sourceSize[0] * scale));
+        int scaledHeight = Math.max(height, Math.round(sourceSize[1] * scale));
+
+        Bitmap scaled;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            // The decoder downsamples while converting, so no full-resolution frame is allocated
+            scaled = retriever.getScaledFrameAtTime(timeUs, MediaMetadataRetriever.OPTION_CLOSEST_SYNC,
+                scaledWidth, scaledHeight);
+        } else {
+            Bitmap frame = retriever.getFrameAtTime(timeUs, MediaMetadataRetriever.OPTION_CLOSEST_SYNC);
+            if (frame == null) {
+                return null;
+            }
+            scaled = Bitmap.createScaledBitmap(frame, scaledWidth, scaledHeight, true);
+            if (scaled != frame) {
+                frame.recycle();
+            }
+        }
+        if (scaled == null) {
+            return null;
+        }
+        if (scaled.getWidth() == width && scaled.getHeight() == height) {
+            return scaled;
+        }
+        if (scaled.getWidth() < width || scaled.getHeight() < height) {
+            Bitmap exact = Bitmap.createScaledBitmap(scaled, width, height, true);
+            if (exact != scaled) {
+                scaled.recycle();
+            }
+            return exact;
+        }
+        Bitmap cropped = Bitmap.createBitmap(scaled, (scaled.getWidth() - width) / 2,
+            (scaled.getHeight() - height) / 2, width, height);
+        if (cropped != scaled) {
+            scaled.recycle();
+        }
+        return cropped;
+    }
+
+    // Display size of the video track, with rotation applied
+    private static int[] sourceSize(MediaMetadataRetriever retriever) {
+        int width = parseInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_WIDTH));
+        int height = parseInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_HEIGHT));
+        int rotation = parseInt(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_ROTATION));
+        if (rotation == 90 || rotation == 270) {
+            return new int[]{height, width};
+        }
+        return new int[]{width, height};
+    }
+
+    private void setDataSource(MediaMetadataRetriever retriever, String uri) throws IOException {
+        if (uri.startsWith("content:") || uri.startsWith("file:")) {
+            retriever.setDataSource(context, Uri.parse(uri));
+        } else if (new File(uri).exists()) {
+            retriever.setDataSource(uri);
+        } else {
+            throw new IOException("Missing clip source " + uri);
+        }
+    }
+
+    private void deliver(Request request, Bitmap bitmap, Callback callback) {
+        if (bitmap == null) {
+            return;
+        }
+        mainHandler.post(() -> {
+            if (!request.isCancelled()) {
+                callback.onThumbnail(bitmap);
+            }
+        });
+    }
+
+    private void writeJpeg(Bitmap bitmap, File file) throws IOException {
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not write " + file);
+        }
+    }
+
+    // Least recently read files go first once the disk cache passes its budget
+    private synchronized void addDiskUsage(long bytes) {
+        if (diskUsage.get() < 0) {
+            long total = 0;
+            File[] files = diskDir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    total += file.length();
+                }
+            }
+            diskUsage.set(total);
+        } else {
+            diskUsage.addAndGet(bytes);
+        }
+        if (diskUsage.get() <= diskCacheBytes) {
+            return;
+        }
+        File[] files = diskDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        long target = diskCacheBytes * 9 / 10;
+        for (File file : files) {
+            if (diskUsage.get() <= target) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                diskUsage.addAndGet(-length);
+            }
+        }
+    }
+
+    private static String key(String uri, long timeMs, int width, int height) {
+        String source = uri + "|" + timeMs + "|" + width + "x" + height;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(source.hashCode());
+        }
+    }
+
+    private static int parseInt(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void releaseQuietly(MediaMetadataRetriever retriever) {
+        try {
+            retriever.release();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.choreocam.app.media;
+
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import com.choreocam.app.audio.BeatAnalysis;
+import com.choreocam.app.audio.OnsetDetector;
+import com.choreocam.app.database.dao.MusicTrackDao;
+import com.choreocam.app.edit.BeatTimeline;
+import com.choreocam.app.models.MusicTrack;
+import com.choreocam.app.render.AudioTranscoder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Decodes a local track chunk by chunk and feeds the PCM straight into the onset detector
+public class TrackAnalyzer {
+
+    private static final long TIMEOUT_US = 10000;
+
+    // Detects beats for a track that has no cue points and stores them; returns false if nothing was found
+    public static boolean analyzeAndStore(MusicTrack track, MusicTrackDao dao) {
+        String path = track.getLocalFilePath();
+        if (path == null || !new File(path).exists()) {
+            return false;
+        }
+
+        BeatAnalysis analysis;
+        try {
+            analysis = analyze(path);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return false;
+        }
+        if (analysis.isEmpty()) {
+            return false;
+        }
+
+        track.setCuePointsJson(BeatTimeline.toJson(analysis.getBeatsMs(), analysis.getBeatsMs().length));
+        // Catalog BPM is authoritative when present
+        if (track.getBpm() <= 0) {
+            track.setBpm(analysis.getBpm());
+        }
+        dao.update(track);
+        return true;
+    }
+
+    public static BeatAnalysis analyze(String path) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec decoder = null;
+        try {
+            extractor.setDataSource(path);
+            int trackIndex = AudioTranscoder.selectAudioTrack(extractor);
+            if (trackIndex < 0) {
+                throw new IOException("No audio track in " + path);
+            }
+            extractor.selectTrack(trackIndex);
+            MediaFormat inputFormat = extractor.getTrackFormat(trackIndex);
+            int channelCount = inputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+            OnsetDetector detector = new OnsetDetector(inputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE));
+
+            decoder = MediaCodec.createDecoderByType(inputFormat.getString(MediaFormat.KEY_MIME));
+            decoder.configure(inputFormat, null, null, 0);
+            decoder.start();
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean extractorDone = false;
+            boolean decoderDone = false;
+
+            while (!decoderDone) {
+                if (!extractorDone) {
+                    int inputIndex = decoder.dequeueInputBuffer(TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        ByteBuffer inputBuffer = decoder.getInputBuffer(inputIndex);
+                        int size = extractor.readSampleData(inputBuffer, 0);
+                        if (size < 0) {
+                            decoder.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            extractorDone = true;
+                        } else {
+                            decoder.queueInputBuffer(inputIndex, 0, size, extractor.getSampleTime(), 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                int outputIndex = decoder.dequeueOutputBuffer(info, TIMEOUT_US);
+                if (outputIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    // The decoder's real output layout can differ from the container's
+                    MediaFormat outputFormat = decoder.getOutputFormat();
+                    channelCount = outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+                    detector = new OnsetDetector(outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE));
+                } else if (outputIndex >= 0) {
+                    if (info.size > 0) {
+                        ByteBuffer outputBuffer = decoder.getOutputBuffer(outputIndex);
+                        outputBuffer.position(info.offset);
+                        outputBuffer.limit(info.offset + info.size);
+                        // A view over the codec buffer, so no PCM is copied
+                        detector.processPcm16(outputBuffer.order(ByteOrder.nativeOrder()).asShortBuffer(), channelCount);
+                    }
+                    decoder.releaseOutputBuffer(outputIndex, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                        decoderDone = true;
+                    }
+                }
+            }
+            return detector.finish();
+        } finally {
+            if (decoder != null) {
+                try {
+                    decoder.stop();
+                } catch (IllegalStateException e) {
+                    e.printStackTrace();
+                }
+                decoder.release();
+            }
+            extractor.release();
+        }
+    }
+}
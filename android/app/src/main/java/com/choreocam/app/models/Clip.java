@@ -0,0 +1,144 @@
+package com.choreocam.app.models;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity(
+    tableName = "clips",
+    foreignKeys = @ForeignKey(
+        entity = Project.class,
+        parentColumns = "id",
+        childColumns = "projectId",
+        onDelete = ForeignKey.CASCADE
+    ),
+    indices = {@Index({"projectId", "position"})}
+)
+public class Clip {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    private long projectId;
+    private int position; // order of the clip within its project, starting at 0
+    private String uri; // content:// URI or absolute file path of the source video
+    private long durationMs;
+    private long trimStartMs;
+    private long trimEndMs; // 0 means until the end of the source
+    private String proxyPath; // small all-intra copy of the source for preview and scrubbing, local only
+
+    public Clip() {}
+
+    public static List<Clip> parseList(String clipsMetaJson) {
+        if (clipsMetaJson == null || clipsMetaJson.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try {
+            List<Clip> clips = new Gson().fromJson(clipsMetaJson, new TypeToken<List<Clip>>() {}.getType());
+            return clips != null ? clips : new ArrayList<>();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    // The clipsMetaJson shape exchanged with the backend; row ids and ordering stay local
+    public static String toJson(List<Clip> clips) {
+        JsonArray array = new JsonArray();
+        for (Clip clip : clips) {
+            JsonObject item = new JsonObject();
+            item.addProperty("uri", clip.uri);
+            item.addProperty("durationMs", clip.durationMs);
+            item.addProperty("trimStartMs", clip.trimStartMs);
+            item.addProperty("trimEndMs", clip.trimEndMs);
+            array.add(item);
+        }
+        return array.toString();
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public long getTrimStartMs() {
+        return trimStartMs;
+    }
+
+    public void setTrimStartMs(long trimStartMs) {
+        this.trimStartMs = trimStartMs;
+    }
+
+    public long getTrimEndMs() {
+        return trimEndMs;
+    }
+
+    public void setTrimEndMs(long trimEndMs) {
+        this.trimEndMs = trimEndMs;
+    }
+
+    public String getProxyPath() {
+        return proxyPath;
+    }
+
+    public void setProxyPath(String proxyPath) {
+        this.proxyPath = proxyPath;
+    }
+
+    // What preview and the filmstrip decode; exports always read the original uri
+    public String getEditSource() {
+        return proxyPath != null ? proxyPath : uri;
+    }
+
+    public long getUsableEndMs() {
+        if (trimEndMs > 0 && (durationMs <= 0 || trimEndMs < durationMs)) {
+            return trimEndMs;
+        }
+        return durationMs;
+    }
+
+    public long getUsableDurationMs() {
+        return Math.max(0, getUsableEndMs() - trimStartMs);
+    }
+}
@@ -19,6 +19,7 @@ public class MusicTrack {
     private String cuePointsJson; // JSON array of beat markers
     private long createdAt;
     private long cachedAt;
+    private long lastUsedAt; // last download or playback of the local file; orders download eviction
 
     public MusicTrack() {
         this.cachedAt = System.currentTimeMillis();
@@ -128,4 +129,12 @@ public class MusicTrack {
     public void setCachedAt(long cachedAt) {
         this.cachedAt = cachedAt;
     }
+
+    public long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    public void setLastUsedAt(long lastUsedAt) {
+        this.lastUsedAt = lastUsedAt;
+    }
 }
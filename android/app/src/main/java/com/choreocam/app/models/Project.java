@@ -1,32 +1,60 @@
 package com.choreocam.app.models;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "projects")
+@Entity(tableName = "projects", indices = {@Index("updatedAt")})
 public class Project {
+    // Bits of dirtyFields, one per column the sync protocol exchanges
+    public static final int FIELD_TITLE = 1;
+    public static final int FIELD_DESCRIPTION = 1 << 1;
+    public static final int FIELD_CLIPS = 1 << 2;
+    public static final int FIELD_EDIT_DECISIONS = 1 << 3;
+    public static final int FIELD_PRESET = 1 << 4;
+    public static final int FIELD_MUSIC = 1 << 5;
+    public static final int FIELD_STATUS = 1 << 6;
+    public static final int FIELD_OUTPUT = 1 << 7;
+    public static final int FIELD_DURATION = 1 << 8;
+    public static final int FIELD_RESOLUTION = 1 << 9;
+    public static final int FIELD_ALL = (1 << 10) - 1;
+
     @PrimaryKey(autoGenerate = true)
     private long id;
     private String projectId;
     private long userId;
     private String title;
     private String description;
-    private String clipsMetaJson; // JSON array of clip metadata
+    private String clipsMetaJson; // Sync wire format only; clips live in the clips table since DB v5
+    private String editDecisionListJson; // JSON array of timeline segments from auto-edit
     private long chosenPresetId;
     private long musicId;
     private String status; // draft, rendering, completed, failed
     private String outputFilePath;
+    private String thumbnailPath; // cover frame on local storage, local only
+    private String edlPath; // binary EDL built from editDecisionListJson, local only
+    private String uploadUrl; // resumable upload of outputFilePath on the backend, local only
+    private long uploadedAt; // when the upload of outputFilePath finished, 0 until then; local only
     private long duration;
     private String resolution;
     private long createdAt;
     private long updatedAt;
     private boolean needsSync;
+    private int dirtyFields; // FIELD_* bits changed locally since the last successful sync
 
     public Project() {
         this.createdAt = System.currentTimeMillis();
         this.updatedAt = System.currentTimeMillis();
         this.status = "draft";
         this.needsSync = true;
+        this.dirtyFields = FIELD_ALL;
+    }
+
+    // Records a local edit so the next sync only uploads the columns that actually changed
+    public void markDirty(int fields) {
+        this.dirtyFields |= fields;
+        this.needsSync = true;
+        this.updatedAt = System.currentTimeMillis();
     }
 
     // Getters and Setters
@@ -78,6 +106,14 @@ public class Project {
         this.clipsMetaJson = clipsMetaJson;
     }
 
+    public String getEditDecisionListJson() {
+        return editDecisionListJson;
+    }
+
+    public void setEditDecisionListJson(String editDecisionListJson) {
+        this.editDecisionListJson = editDecisionListJson;
+    }
+
     public long getChosenPresetId() {
         return chosenPresetId;
     }
@@ -110,6 +146,38 @@ public class Project {
         this.outputFilePath = outputFilePath;
     }
 
+    public String getThumbnailPath() {
+        return thumbnailPath;
+    }
+
+    public void setThumbnailPath(String thumbnailPath) {
+        this.thumbnailPath = thumbnailPath;
+    }
+
+    public String getEdlPath() {
+        return edlPath;
+    }
+
+    public void setEdlPath(String edlPath) {
+        this.edlPath = edlPath;
+    }
+
+    public String getUploadUrl() {
+        return uploadUrl;
+    }
+
+    public void setUploadUrl(String uploadUrl) {
+        this.uploadUrl = uploadUrl;
+    }
+
+    public long getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public void setUploadedAt(long uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+
     public long getDuration() {
         return duration;
     }
@@ -149,4 +217,12 @@ public class Project {
     public void setNeedsSync(boolean needsSync) {
         this.needsSync = needsSync;
     }
+
+    public int getDirtyFields() {
+        return dirtyFields;
+    }
+
+    public void setDirtyFields(int dirtyFields) {
+        this.dirtyFields = dirtyFields;
+    }
 }
@@ -0,0 +1,138 @@
+package com.choreocam.app.models;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// One export request in the persistent render queue; local only, never synced
+@Entity(
+    tableName = "render_jobs",
+    foreignKeys = @ForeignKey(
+        entity = Project.class,
+        parentColumns = "id",
+        childColumns = "projectId",
+        onDelete = ForeignKey.CASCADE
+    ),
+    indices = {@Index("projectId"), @Index({"status", "priority"})}
+)
+public class RenderJob {
+    public static final String STATUS_QUEUED = "queued";
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_COMPLETED = "completed";
+    public static final String STATUS_FAILED = "failed";
+
+    // Queue ranks, higher first: the opposite order to PriorityExecutor.PRIORITY_*, hence the name
+    public static final int RANK_LOW = 0;
+    public static final int RANK_NORMAL = 5;
+    public static final int RANK_HIGH = 10;
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    private long projectId;
+    private int priority; // one of RANK_*, higher runs first; ties run oldest first
+    private String status; // queued, running, completed, failed
+    private int progress; // 0-100
+    private int segmentCount; // checkpoint chunks the timeline is split into
+    private int segmentsDone; // chunks with a finished checkpoint file
+    private int attempts; // failed runs so far
+    private String timelineHash; // inputs the checkpoints were rendered from; a change discards them
+    private long createdAt;
+    private long updatedAt;
+
+    public RenderJob() {
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = this.createdAt;
+        this.status = STATUS_QUEUED;
+        this.priority = RANK_NORMAL;
+    }
+
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(long projectId) {
+        this.projectId = projectId;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public void setSegmentCount(int segmentCount) {
+        this.segmentCount = segmentCount;
+    }
+
+    public int getSegmentsDone() {
+        return segmentsDone;
+    }
+
+    public void setSegmentsDone(int segmentsDone) {
+        this.segmentsDone = segmentsDone;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getTimelineHash() {
+        return timelineHash;
+    }
+
+    public void setTimelineHash(String timelineHash) {
+        this.timelineHash = timelineHash;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
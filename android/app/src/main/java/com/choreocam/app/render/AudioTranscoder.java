@@ -0,0 +1,165 @@
+package com.choreocam.app.render;
+
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// MediaMuxer only accepts AAC in MP4, so other music formats are re-encoded once before muxing
+public class AudioTranscoder {
+
+    private static final long TIMEOUT_US = 10000;
+    private static final int AAC_BIT_RATE = 128000;
+
+    public static boolean canPassThrough(MediaFormat format) {
+        return MediaFormat.MIMETYPE_AUDIO_AAC.equals(format.getString(MediaFormat.KEY_MIME));
+    }
+
+    // Returns the index of the first audio track, or -1 when the file has none
+    public static int selectAudioTrack(MediaExtractor extractor) {
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+            if (mime != null && mime.startsWith("audio/")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Decodes the first audio track of sourcePath and re-encodes at most maxDurationUs of it to AAC
+    public static void transcodeToAac(String sourcePath, File output, long maxDurationUs) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec decoder = null;
+        MediaCodec encoder = null;
+        MediaMuxer muxer = null;
+        boolean muxerStarted = false;
+
+        try {
+            extractor.setDataSource(sourcePath);
+            int trackIndex = selectAudioTrack(extractor);
+            if (trackIndex < 0) {
+                throw new IOException("No audio track in " + sourcePath);
+            }
+            extractor.selectTrack(trackIndex);
+            MediaFormat inputFormat = extractor.getTrackFormat(trackIndex);
+            int sampleRate = inputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE);
+            int channelCount = inputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT);
+
+            decoder = MediaCodec.createDecoderByType(inputFormat.getString(MediaFormat.KEY_MIME));
+            decoder.configure(inputFormat, null, null, 0);
+            decoder.start();
+
+            MediaFormat outputFormat = MediaFormat.createAudioFormat(
+                MediaFormat.MIMETYPE_AUDIO_AAC, sampleRate, channelCount);
+            outputFormat.setInteger(MediaFormat.KEY_AAC_PROFILE, MediaCodecInfo.CodecProfileLevel.AACObjectLC);
+            outputFormat.setInteger(MediaFormat.KEY_BIT_RATE, AAC_BIT_RATE);
+            encoder = MediaCodec.createEncoderByType(MediaFormat.MIMETYPE_AUDIO_AAC);
+            encoder.configure(outputFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            encoder.start();
+
+            muxer = new MediaMuxer(output.getAbsolutePath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+            int muxerTrack = -1;
+
+            MediaCodec.BufferInfo decoderInfo = new MediaCodec.BufferInfo();
+            MediaCodec.BufferInfo encoderInfo = new MediaCodec.BufferInfo();
+            int bytesPerFrame = 2 * channelCount;
+            boolean extractorDone = false;
+            boolean decoderDone = false;
+            boolean encoderDone = false;
+            int pendingDecoderIndex = -1;
+            int pendingOffset = 0;
+
+            while (!encoderDone) {
+                if (!extractorDone) {
+                    int inputIndex = decoder.dequeueInputBuffer(TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        ByteBuffer inputBuffer = decoder.getInputBuffer(inputIndex);
+                        int size = extractor.readSampleData(inputBuffer, 0);
+                        long sampleTime = extractor.getSampleTime();
+                        if (size < 0 || sampleTime > maxDurationUs) {
+                            decoder.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            extractorDone = true;
+                        } else {
+                            decoder.queueInputBuffer(inputIndex, 0, size, sampleTime, 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                if (!decoderDone && pendingDecoderIndex < 0) {
+                    int outputIndex = decoder.dequeueOutputBuffer(decoderInfo, TIMEOUT_US);
+                    if (outputIndex >= 0) {
+                        pendingDecoderIndex = outputIndex;
+                        pendingOffset = 0;
+                    }
+                }
+
+                // Copy decoded PCM into the encoder, splitting buffers larger than its input capacity
+                if (pendingDecoderIndex >= 0) {
+                    int inputIndex = encoder.dequeueInputBuffer(TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        boolean endOfStream = (decoderInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+                        ByteBuffer pcm = decoder.getOutputBuffer(pendingDecoderIndex);
+                        ByteBuffer encoderInput = encoder.getInputBuffer(inputIndex);
+                        int remaining = decoderInfo.size - pendingOffset;
+                        int chunk = Math.min(remaining, encoderInput.remaining());
+                        long presentationTimeUs = decoderInfo.presentationTimeUs
+                            + (pendingOffset / bytesPerFrame) * 1_000_000L / sampleRate;
+                        if (chunk > 0) {
+                            ByteBuffer slice = pcm.duplicate();
+                            slice.position(decoderInfo.offset + pendingOffset);
+                            slice.limit(decoderInfo.offset + pendingOffset + chunk);
+                            encoderInput.put(slice);
+                        }
+                        pendingOffset += chunk;
+                        boolean consumed = pendingOffset >= decoderInfo.size;
+                        int flags = consumed && endOfStream ? MediaCodec.BUFFER_FLAG_END_OF_STREAM : 0;
+                        encoder.queueInputBuffer(inputIndex, 0, chunk, presentationTimeUs, flags);
+                        if (consumed) {
+                            decoder.releaseOutputBuffer(pendingDecoderIndex, false);
+                            pendingDecoderIndex = -1;
+                            decoderDone = endOfStream;
+                        }
+                    }
+                }
+
+                int encoderIndex = encoder.dequeueOutputBuffer(encoderInfo, TIMEOUT_US);
+                if (encoderIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    muxerTrack = muxer.addTrack(encoder.getOutputFormat());
+                    muxer.start();
+                    muxerStarted = true;
+                } else if (encoderIndex >= 0) {
+                    ByteBuffer encoded = encoder.getOutputBuffer(encoderIndex);
+                    boolean config = (encoderInfo.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0;
+                    if (!config && encoderInfo.size > 0 && muxerStarted) {
+                        encoded.position(encoderInfo.offset);
+                        encoded.limit(encoderInfo.offset + encoderInfo.size);
+                        muxer.writeSampleData(muxerTrack, encoded, encoderInfo);
+                    }
+                    encoder.releaseOutputBuffer(encoderIndex, false);
+                    encoderDone = (encoderInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+                }
+            }
+        } finally {
+            extractor.release();
+            if (decoder != null) {
+                decoder.stop();
+                decoder.release();
+            }
+            if (encoder != null) {
+                encoder.stop();
+                encoder.release();
+            }
+            if (muxer != null) {
+                if (muxerStarted) {
+                    muxer.stop();
+                }
+                muxer.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.choreocam.app.render;
+
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.media.MediaFormat;
+import com.choreocam.app.ChoreoCamApplication;
+import java.util.concurrent.Semaphore;
+
+// Hardware video encoders are few and slow each other down past their limit, so every encode (exports
+// and proxies alike) holds one permit for its duration. There are as many permits as the device says
+// its AVC encoder can run at once, capped by config. Fair, so a waiting export is not starved by proxies.
+public final class EncoderGate {
+
+    private EncoderGate() {}
+
+    public static void acquire() throws InterruptedException {
+        Holder.permits.acquire();
+    }
+
+    public static void release() {
+        Holder.permits.release();
+    }
+
+    // Encodes that can run side by side, at least one
+    public static int getCapacity() {
+        return Holder.capacity;
+    }
+
+    // Sized on first use, after the config has loaded
+    private static final class Holder {
+        static final int capacity = Math.max(1, Math.min(maxEncoderInstances(MediaFormat.MIMETYPE_VIDEO_AVC),
+            ChoreoCamApplication.getConfigManager().getMaxParallelEncodes()));
+        static final Semaphore permits = new Semaphore(capacity, true);
+    }
+
+    // Instance limit of the encoder MediaCodec.createEncoderByType would pick: the first in the list
+    private static int maxEncoderInstances(String mime) {
+        try {
+            for (MediaCodecInfo info : new MediaCodecList(MediaCodecList.REGULAR_CODECS).getCodecInfos()) {
+                if (!info.isEncoder()) {
+                    continue;
+                }
+                for (String type : info.getSupportedTypes()) {
+                    if (type.equalsIgnoreCase(mime)) {
+                        return info.getCapabilitiesForType(type).getMaxSupportedInstances();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+        return 1;
+    }
+}
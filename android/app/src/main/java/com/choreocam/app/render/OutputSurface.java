@@ -0,0 +1,95 @@
+package com.choreocam.app.render;
+
+import android.graphics.SurfaceTexture;
+import android.opengl.GLES11Ext;
+import android.opengl.GLES20;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.Surface;
+
+// Decoder output target: frames land in an external GL texture and never touch the Java heap
+public class OutputSurface implements SurfaceTexture.OnFrameAvailableListener {
+
+    private static final long FRAME_TIMEOUT_MS = 2500;
+
+    private final Object frameSyncObject = new Object();
+    private final HandlerThread callbackThread;
+    private final int textureId;
+    private SurfaceTexture surfaceTexture;
+    private Surface surface;
+    private boolean frameAvailable;
+
+    // Must be called with the rendering EGL context current
+    public OutputSurface() {
+        int[] textures = new int[1];
+        GLES20.glGenTextures(1, textures, 0);
+        textureId = textures[0];
+        GLES20.glBindTexture(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, textureId);
+        GLES20.glTexParameteri(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+
+        // Frame callbacks get their own looper so the render thread can block waiting for them
+        callbackThread = new HandlerThread("RenderFrameCallbacks");
+        callbackThread.start();
+
+        surfaceTexture = new SurfaceTexture(textureId);
+        surfaceTexture.setOnFrameAvailableListener(this, new Handler(callbackThread.getLooper()));
+        surface = new Surface(surfaceTexture);
+    }
+
+    public Surface getSurface() {
+        return surface;
+    }
+
+    public int getTextureId() {
+        return textureId;
+    }
+
+    public void getTransformMatrix(float[] matrix) {
+        surfaceTexture.getTransformMatrix(matrix);
+    }
+
+    // Blocks until the decoder has pushed the next frame, then latches it into the texture
+    public void awaitNewImage() {
+        synchronized (frameSyncObject) {
+            long deadline = System.currentTimeMillis() + FRAME_TIMEOUT_MS;
+            while (!frameAvailable) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new RuntimeException("Timed out waiting for decoded frame");
+                }
+                try {
+                    frameSyncObject.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted waiting for decoded frame", e);
+                }
+            }
+            frameAvailable = false;
+        }
+        surfaceTexture.updateTexImage();
+    }
+
+    @Override
+    public void onFrameAvailable(SurfaceTexture st) {
+        synchronized (frameSyncObject) {
+            frameAvailable = true;
+            frameSyncObject.notifyAll();
+        }
+    }
+
+    public void release() {
+        if (surface != null) {
+            surface.release();
+            surface = null;
+        }
+        if (surfaceTexture != null) {
+            surfaceTexture.release();
+            surfaceTexture = null;
+        }
+        GLES20.glDeleteTextures(1, new int[]{textureId}, 0);
+        callbackThread.quitSafely();
+    }
+}
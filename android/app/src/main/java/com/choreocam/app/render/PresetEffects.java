@@ -0,0 +1,229 @@
+package com.choreocam.app.render;
+
+import com.choreocam.app.models.Preset;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.util.Arrays;
+
+// Flattens a preset's transition and effect JSON into the primitive values the shaders consume
+public class PresetEffects {
+
+    public static final int TRANSITION_CUT = 0;
+    public static final int TRANSITION_FADE_BLACK = 1;
+    public static final int TRANSITION_FLASH_WHITE = 2;
+
+    private static final long DEFAULT_TRANSITION_MS = 400;
+
+    private float brightness = 0f;
+    private float contrast = 1f;
+    private float saturation = 1f;
+    private float vignette = 0f;
+
+    private int[] transitionTypes = new int[]{TRANSITION_CUT};
+    private long[] transitionDurationsMs = new long[]{0};
+
+    public static PresetEffects none() {
+        return new PresetEffects();
+    }
+
+    // Rebuilds already-flattened values, e.g. from a binary EDL file, without touching JSON
+    public static PresetEffects of(float brightness, float contrast, float saturation, float vignette,
+                                   int[] transitionTypes, long[] transitionDurationsMs) {
+        PresetEffects effects = new PresetEffects();
+        effects.brightness = brightness;
+        effects.contrast = contrast;
+        effects.saturation = saturation;
+        effects.vignette = vignette;
+        if (transitionTypes.length > 0 && transitionTypes.length == transitionDurationsMs.length) {
+            effects.transitionTypes = transitionTypes;
+            effects.transitionDurationsMs = transitionDurationsMs;
+        }
+        return effects;
+    }
+
+    public static PresetEffects fromPreset(Preset preset) {
+        PresetEffects effects = new PresetEffects();
+        if (preset == null) {
+            return effects;
+        }
+        effects.parseEffects(preset.getEffectsJson());
+        effects.parseTransitions(preset.getTransitionsJson());
+        return effects;
+    }
+
+    private void parseEffects(String json) {
+        JsonArray array = parseArray(json);
+        if (array == null) {
+            return;
+        }
+        for (JsonElement element : array) {
+            if (!element.isJsonObject()) {
+                continue;
+            }
+            JsonObject effect = element.getAsJsonObject();
+            String type = getString(effect, "type");
+            float value = getFloat(effect, "value", getFloat(effect, "intensity", Float.NaN));
+            if (type == null || Float.isNaN(value)) {
+                continue;
+            }
+            switch (type) {
+                case "brightness":
+                    brightness = clamp(value, -1f, 1f);
+                    break;
+                case "contrast":
+                    contrast = clamp(value, 0f, 4f);
+                    break;
+                case "saturation":
+                    saturation = clamp(value, 0f, 4f);
+                    break;
+                case "vignette":
+                    vignette = clamp(value, 0f, 1f);
+                    break;
+                default:
+                    // Unknown effects are ignored so newer presets still render
+                    break;
+            }
+        }
+    }
+
+    private void parseTransitions(String json) {
+        JsonArray array = parseArray(json);
+        if (array == null || array.size() == 0) {
+            return;
+        }
+        int[] types = new int[array.size()];
+        long[] durations = new long[array.size()];
+        int count = 0;
+        for (JsonElement element : array) {
+            String type;
+            long duration = DEFAULT_TRANSITION_MS;
+            if (element.isJsonObject()) {
+                JsonObject transition = element.getAsJsonObject();
+                type = getString(transition, "type");
+                duration = (long) getFloat(transition, "durationMs", DEFAULT_TRANSITION_MS);
+            } else if (element.isJsonPrimitive()) {
+                type = element.getAsString();
+            } else {
+                continue;
+            }
+            types[count] = transitionType(type);
+            durations[count] = types[count] == TRANSITION_CUT ? 0 : Math.max(0, duration);
+            count++;
+        }
+        if (count > 0) {
+            transitionTypes = Arrays.copyOf(types, count);
+            transitionDurationsMs = Arrays.copyOf(durations, count);
+        }
+    }
+
+    private static int transitionType(String type) {
+        if (type == null) {
+            return TRANSITION_CUT;
+        }
+        switch (type) {
+            // Cross-dissolves are rendered as a dip through black so a single decoder suffices
+            case "fade":
+            case "crossfade":
+            case "dissolve":
+            case "dip_to_black":
+                return TRANSITION_FADE_BLACK;
+            case "flash":
+            case "dip_to_white":
+                return TRANSITION_FLASH_WHITE;
+            default:
+                return TRANSITION_CUT;
+        }
+    }
+
+    public int getTransitionCount() {
+        return transitionTypes.length;
+    }
+
+    // Transitions cycle through the preset's list, one per cut
+    public int getTransitionType(int cutIndex) {
+        return transitionTypes[cutIndex % transitionTypes.length];
+    }
+
+    public long getTransitionDurationMs(int cutIndex) {
+        return transitionDurationsMs[cutIndex % transitionDurationsMs.length];
+    }
+
+    // How far a frame positionMs into a segment is faded towards the transition colour (0..1)
+    public float getTransitionAmount(int segmentIndex, int segmentCount, long positionMs, long lengthMs) {
+        float amount = 0f;
+        if (segmentIndex > 0) {
+            long half = Math.min(getTransitionDurationMs(segmentIndex - 1) / 2, lengthMs / 2);
+            if (half > 0 && positionMs < half) {
+                amount = 1f - (float) positionMs / half;
+            }
+        }
+        if (segmentIndex < segmentCount - 1) {
+            long half = Math.min(getTransitionDurationMs(segmentIndex) / 2, lengthMs / 2);
+            long remaining = lengthMs - positionMs;
+            if (half > 0 && remaining < half) {
+                amount = Math.max(amount, 1f - (float) remaining / half);
+            }
+        }
+        return clamp(amount, 0f, 1f);
+    }
+
+    // The colour a segment fades towards at its start (incoming) or end (outgoing)
+    public int getTransitionTypeAt(int segmentIndex, int segmentCount, long positionMs, long lengthMs) {
+        if (segmentIndex < segmentCount - 1 && positionMs >= lengthMs / 2) {
+            return getTransitionType(segmentIndex);
+        }
+        if (segmentIndex > 0) {
+            return getTransitionType(segmentIndex - 1);
+        }
+        return TRANSITION_CUT;
+    }
+
+    public float getBrightness() {
+        return brightness;
+    }
+
+    public float getContrast() {
+        return contrast;
+    }
+
+    public float getSaturation() {
+        return saturation;
+    }
+
+    public float getVignette() {
+        return vignette;
+    }
+
+    // Helper methods
+    private static JsonArray parseArray(String json) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try {
+            JsonElement element = JsonParser.parseString(json);
+            return element.isJsonArray() ? element.getAsJsonArray() : null;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static String getString(JsonObject object, String key) {
+        JsonElement element = object.get(key);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    private static float getFloat(JsonObject object, String key, float defaultValue) {
+        JsonElement element = object.get(key);
+        if (element != null && element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber()) {
+            return element.getAsFloat();
+        }
+        return defaultValue;
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
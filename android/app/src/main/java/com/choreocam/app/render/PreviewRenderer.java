@@ -0,0 +1,147 @@
+package com.choreocam.app.render;
+
+import android.graphics.SurfaceTexture;
+import android.opengl.GLES11Ext;
+import android.opengl.GLES20;
+import android.opengl.GLSurfaceView;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Surface;
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.opengles.GL10;
+
+// GLSurfaceView renderer for live preview: the player decodes into a SurfaceTexture and every frame is
+// drawn through the same TextureRenderer shaders the exporter uses, so the preview matches the output
+public class PreviewRenderer implements GLSurfaceView.Renderer, SurfaceTexture.OnFrameAvailableListener {
+
+    public interface SurfaceListener {
+        // Called on the main thread once the decoder surface exists
+        void onSurfaceReady(Surface surface);
+    }
+
+    private final GLSurfaceView view;
+    private final SurfaceListener listener;
+    private final TextureRenderer renderer = new TextureRenderer();
+    private final float[] stMatrix = new float[16];
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private SurfaceTexture surfaceTexture;
+    private volatile Surface surface;
+    private int textureId;
+    private int sourceWidth;
+    private int sourceHeight;
+    private int sourceRotation;
+
+    // Written by the main thread every vsync, read by the GL thread when drawing
+    private volatile PresetEffects effects = PresetEffects.none();
+    private volatile int segmentIndex;
+    private volatile int segmentCount = 1;
+    private volatile long segmentPositionMs;
+    private volatile long segmentLengthMs;
+
+    public PreviewRenderer(GLSurfaceView view, SurfaceListener listener) {
+        this.view = view;
+        this.listener = listener;
+    }
+
+    public void setEffects(PresetEffects effects) {
+        this.effects = effects != null ? effects : PresetEffects.none();
+    }
+
+    public void setPlaybackPosition(int segmentIndex, int segmentCount, long positionMs, long lengthMs) {
+        this.segmentIndex = segmentIndex;
+        this.segmentCount = segmentCount;
+        this.segmentPositionMs = positionMs;
+        this.segmentLengthMs = lengthMs;
+    }
+
+    public void setSourceSize(int width, int height, int rotationDegrees) {
+        view.queueEvent(() -> {
+            sourceWidth = width;
+            sourceHeight = height;
+            sourceRotation = rotationDegrees;
+            renderer.setSourceGeometry(width, height, rotationDegrees);
+        });
+    }
+
+    @Override
+    public void onSurfaceCreated(GL10 gl, EGLConfig config) {
+        int[] textures = new int[1];
+        GLES20.glGenTextures(1, textures, 0);
+        textureId = textures[0];
+        GLES20.glBindTexture(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, textureId);
+        GLES20.glTexParameteri(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        renderer.init();
+
+        if (surfaceTexture != null) {
+            surfaceTexture.release();
+        }
+        surfaceTexture = new SurfaceTexture(textureId);
+        surfaceTexture.setOnFrameAvailableListener(this);
+        Surface created = new Surface(surfaceTexture);
+        Surface previous = surface;
+        surface = created;
+        mainHandler.post(() -> {
+            listener.onSurfaceReady(created);
+            if (previous != null) {
+                previous.release();
+            }
+        });
+    }
+
+    @Override
+    public void onSurfaceChanged(GL10 gl, int width, int height) {
+        renderer.setViewport(width, height);
+        renderer.setSourceGeometry(sourceWidth, sourceHeight, sourceRotation);
+    }
+
+    @Override
+    public void onDrawFrame(GL10 gl) {
+        if (surfaceTexture == null) {
+            return;
+        }
+        surfaceTexture.updateTexImage();
+        surfaceTexture.getTransformMatrix(stMatrix);
+
+        PresetEffects current = effects;
+        int segment = segmentIndex;
+        int count = segmentCount;
+        long position = segmentPositionMs;
+        long length = segmentLengthMs;
+        renderer.setEffects(current);
+        renderer.draw(
+            textureId,
+            stMatrix,
+            current.getTransitionAmount(segment, count, position, length),
+            current.getTransitionTypeAt(segment, count, position, length)
+        );
+    }
+
+    // Decoded frames arrive on an arbitrary thread; drawing happens on the GL thread
+    @Override
+    public void onFrameAvailable(SurfaceTexture texture) {
+        view.requestRender();
+    }
+
+    // Call from the main thread after the player has let go of the surface
+    public void release() {
+        view.queueEvent(() -> {
+            renderer.release();
+            if (textureId != 0) {
+                GLES20.glDeleteTextures(1, new int[]{textureId}, 0);
+                textureId = 0;
+            }
+            if (surfaceTexture != null) {
+                surfaceTexture.release();
+                surfaceTexture = null;
+            }
+        });
+        if (surface != null) {
+            surface.release();
+            surface = null;
+        }
+    }
+}
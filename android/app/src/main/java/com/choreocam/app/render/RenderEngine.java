@@ -0,0 +1,557 @@
+package com.choreocam.app.render;
+
+import android.content.Context;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.net.Uri;
+import com.choreocam.app.edit.EditDecisionList;
+import com.choreocam.app.edit.SegmentList;
+import com.choreocam.app.models.Clip;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+// Streaming export: MediaExtractor -> decoder -> SurfaceTexture -> GL effects -> encoder surface -> MediaMuxer
+public class RenderEngine {
+
+    public interface ProgressListener {
+        void onProgress(int percent);
+    }
+
+    private static final String VIDEO_MIME = MediaFormat.MIMETYPE_VIDEO_AVC;
+    private static final long TIMEOUT_US = 10000;
+    private static final int DEFAULT_AUDIO_BUFFER_SIZE = 256 * 1024;
+
+    private final Context context;
+    private final RenderSpec spec;
+    private final PresetEffects effects;
+    private final float[] stMatrix = new float[16];
+
+    private MediaCodec encoder;
+    private InputSurface inputSurface;
+    private OutputSurface outputSurface;
+    private TextureRenderer renderer;
+    private MediaMuxer muxer;
+    private MediaCodec.BufferInfo encoderInfo;
+    private int videoTrack = -1;
+    private int audioTrack = -1;
+    private int audioBufferSize = DEFAULT_AUDIO_BUFFER_SIZE;
+    private File transcodedAudio;
+    private boolean muxerStarted;
+    private ProgressListener progressListener;
+    private int lastProgress = -1;
+    private volatile boolean cancelled;
+
+    public RenderEngine(Context context, RenderSpec spec, PresetEffects effects) {
+        this.context = context.getApplicationContext();
+        this.spec = spec;
+        this.effects = effects != null ? effects : PresetEffects.none();
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // A joined chunk that cannot share the output track; rendering it again usually fixes it
+    public static class ChunkMismatchException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int chunk;
+
+        public ChunkMismatchException(int chunk, String message) {
+            super(message);
+            this.chunk = chunk;
+        }
+
+        public int getChunk() {
+            return chunk;
+        }
+    }
+
+    // Renders the edit decision list, or every clip back to back when the project has none yet
+    public void render(List<Clip> clips, SegmentList edl, String audioPath, File outputFile,
+                       ProgressListener listener) throws IOException {
+        progressListener = listener;
+        edl = prepareTimeline(clips, edl);
+        long timelineUs = edl.getDurationMs() * 1000;
+
+        MediaExtractor audioExtractor = null;
+        try {
+            muxer = new MediaMuxer(outputFile.getAbsolutePath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+
+            // All tracks must be added before the muxer starts, so the audio track goes in first
+            audioExtractor = openAudio(audioPath, outputFile, timelineUs);
+
+            setUpVideoPipeline();
+
+            for (int i = 0; i < edl.size(); i++) {
+                Clip clip = clips.get(edl.getClipIndex(i));
+                renderSegment(clip.getUri(), edl.getSourceInMs(i) * 1000, edl.getSourceOutMs(i) * 1000,
+                    i, edl.size(), edl.getTimelineStartMs(i) * 1000, timelineUs);
+            }
+
+            encoder.signalEndOfInputStream();
+            drainEncoder(true);
+
+            if (!muxerStarted) {
+                throw new IOException("Encoder produced no frames");
+            }
+            if (audioExtractor != null) {
+                writeAudio(audioExtractor, timelineUs);
+            }
+            reportProgress(100);
+        } finally {
+            releaseAudio(audioExtractor);
+            releasePipeline();
+        }
+    }
+
+    // The timeline to render: the edit decision list, or every clip back to back when it is empty
+    public SegmentList prepareTimeline(List<Clip> clips, SegmentList edl) throws IOException {
+        if (clips == null || clips.isEmpty()) {
+            throw new IllegalArgumentException("Project has no clips to render");
+        }
+        if (edl == null || edl.isEmpty()) {
+            resolveDurations(clips);
+            edl = EditDecisionList.fromClips(clips);
+        }
+        if (edl.isEmpty()) {
+            throw new IllegalArgumentException("Project timeline is empty");
+        }
+        for (int i = 0; i < edl.size(); i++) {
+            if (edl.getClipIndex(i) >= clips.size()) {
+                throw new IllegalArgumentException("Edit decision list references a removed clip");
+            }
+        }
+        return edl;
+    }
+
+    // Splits a timeline at cuts into runs of whole segments at least targetMs long (the last may be
+    // shorter). Returns each run's first segment index followed by edl.size().
+    public static int[] planChunks(SegmentList edl, long targetMs) {
+        List<Integer> starts = new ArrayList<>();
+        long chunkMs = 0;
+        for (int i = 0; i < edl.size(); i++) {
+            if (i == 0 || chunkMs >= targetMs) {
+                starts.add(i);
+                chunkMs = 0;
+            }
+            chunkMs += edl.getLengthMs(i);
+        }
+        int[] plan = new int[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) {
+            plan[i] = starts.get(i);
+        }
+        plan[starts.size()] = edl.size();
+        return plan;
+    }
+
+    // Encodes segments [fromSegment, toSegment) of a prepared timeline into their own video-only file,
+    // timestamps starting at zero. Progress is reported across the chunk. Independent engines can
+    // encode different chunks at the same time; concatChunks joins the files.
+    public void renderChunk(List<Clip> clips, SegmentList edl, int fromSegment, int toSegment, File chunkFile,
+                            ProgressListener listener) throws IOException {
+        progressListener = listener;
+        lastProgress = -1;
+        long chunkStartUs = edl.getTimelineStartMs(fromSegment) * 1000;
+        long chunkUs = (edl.getTimelineStartMs(toSegment - 1) + edl.getLengthMs(toSegment - 1)) * 1000 - chunkStartUs;
+        try {
+            muxer = new MediaMuxer(chunkFile.getAbsolutePath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+            setUpVideoPipeline();
+            for (int i = fromSegment; i < toSegment; i++) {
+                Clip clip = clips.get(edl.getClipIndex(i));
+                renderSegment(clip.getUri(), edl.getSourceInMs(i) * 1000, edl.getSourceOutMs(i) * 1000,
+                    i, edl.size(), edl.getTimelineStartMs(i) * 1000 - chunkStartUs, chunkUs);
+            }
+            encoder.signalEndOfInputStream();
+            drainEncoder(true);
+            if (!muxerStarted) {
+                throw new IOException("Encoder produced no frames");
+            }
+            reportProgress(100);
+        } finally {
+            releasePipeline();
+        }
+    }
+
+    // Joins chunk files end to end without re-encoding, shifting each to its timeline position, and
+    // adds the music. Every chunk must carry the same codec config as the first, since an MP4 track
+    // has only one; a mismatch is reported so the caller can render that chunk again.
+    public void concatChunks(List<File> chunkFiles, int[] plan, SegmentList edl, String audioPath, File outputFile)
+            throws IOException {
+        long timelineUs = edl.getDurationMs() * 1000;
+        MediaExtractor audioExtractor = null;
+        try {
+            muxer = new MediaMuxer(outputFile.getAbsolutePath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+            audioExtractor = openAudio(audioPath, outputFile, timelineUs);
+
+            MediaFormat videoFormat = null;
+            ByteBuffer buffer = null;
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            for (int i = 0; i < chunkFiles.size(); i++) {
+                if (cancelled) {
+                    throw new CancellationException("Render cancelled");
+                }
+                MediaExtractor extractor = new MediaExtractor();
+                try {
+                    extractor.setDataSource(chunkFiles.get(i).getAbsolutePath());
+                    int trackIndex = selectVideoTrack(extractor);
+                    if (trackIndex < 0) {
+                        throw new ChunkMismatchException(i, "No video in chunk " + i);
+                    }
+                    extractor.selectTrack(trackIndex);
+                    MediaFormat format = extractor.getTrackFormat(trackIndex);
+                    if (videoFormat == null) {
+                        videoFormat = format;
+                        videoTrack = muxer.addTrack(format);
+                        muxer.start();
+                        muxerStarted = true;
+                        int maxInput = format.containsKey(MediaFormat.KEY_MAX_INPUT_SIZE)
+                            ? format.getInteger(MediaFormat.KEY_MAX_INPUT_SIZE) : 0;
+                        // A key frame can never be larger than the raw picture it encodes
+                        buffer = ByteBuffer.allocateDirect(Math.max(maxInput,
+                            spec.getWidth() * spec.getHeight() * 3 / 2));
+                    } else if (!sameCodecConfig(videoFormat, format)) {
+                        throw new ChunkMismatchException(i, "Codec config of chunk " + i + " differs");
+                    }
+
+                    long offsetUs = edl.getTimelineStartMs(plan[i]) * 1000;
+                    while (true) {
+                        int size = extractor.readSampleData(buffer, 0);
+                        if (size < 0) {
+                            break;
+                        }
+                        int flags = (extractor.getSampleFlags() & MediaExtractor.SAMPLE_FLAG_SYNC) != 0
+                            ? MediaCodec.BUFFER_FLAG_KEY_FRAME : 0;
+                        info.set(0, size, offsetUs + extractor.getSampleTime(), flags);
+                        muxer.writeSampleData(videoTrack, buffer, info);
+                        extractor.advance();
+                    }
+                } finally {
+                    extractor.release();
+                }
+            }
+            if (videoFormat == null) {
+                throw new IOException("No chunks to join");
+            }
+            if (audioExtractor != null) {
+                writeAudio(audioExtractor, timelineUs);
+            }
+        } finally {
+            releaseAudio(audioExtractor);
+            releasePipeline();
+        }
+    }
+
+    // Adds the music track to the muxer, transcoding it to AAC first if it cannot be copied as is
+    private MediaExtractor openAudio(String audioPath, File outputFile, long timelineUs) throws IOException {
+        if (audioPath == null || !new File(audioPath).exists()) {
+            return null;
+        }
+        MediaExtractor audioExtractor = new MediaExtractor();
+        audioExtractor.setDataSource(audioPath);
+        int index = AudioTranscoder.selectAudioTrack(audioExtractor);
+        if (index >= 0 && !AudioTranscoder.canPassThrough(audioExtractor.getTrackFormat(index))) {
+            audioExtractor.release();
+            transcodedAudio = new File(outputFile.getParentFile(), outputFile.getName() + ".audio.m4a");
+            AudioTranscoder.transcodeToAac(audioPath, transcodedAudio, timelineUs);
+            audioExtractor = new MediaExtractor();
+            audioExtractor.setDataSource(transcodedAudio.getAbsolutePath());
+            index = AudioTranscoder.selectAudioTrack(audioExtractor);
+        }
+        if (index < 0) {
+            audioExtractor.release();
+            return null;
+        }
+        MediaFormat audioFormat = audioExtractor.getTrackFormat(index);
+        audioExtractor.selectTrack(index);
+        audioTrack = muxer.addTrack(audioFormat);
+        if (audioFormat.containsKey(MediaFormat.KEY_MAX_INPUT_SIZE)) {
+            audioBufferSize = audioFormat.getInteger(MediaFormat.KEY_MAX_INPUT_SIZE);
+        }
+        return audioExtractor;
+    }
+
+    private void releaseAudio(MediaExtractor audioExtractor) {
+        if (audioExtractor != null) {
+            audioExtractor.release();
+        }
+        if (transcodedAudio != null) {
+            transcodedAudio.delete();
+            transcodedAudio = null;
+        }
+    }
+
+    private void setUpVideoPipeline() throws IOException {
+        MediaFormat format = MediaFormat.createVideoFormat(VIDEO_MIME, spec.getWidth(), spec.getHeight());
+        format.setInteger(MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatSurface);
+        format.setInteger(MediaFormat.KEY_BIT_RATE, spec.getBitRate());
+        format.setInteger(MediaFormat.KEY_FRAME_RATE, spec.getFrameRate());
+        format.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, spec.getIFrameIntervalSeconds());
+
+        encoder = MediaCodec.createEncoderByType(VIDEO_MIME);
+        encoder.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+        inputSurface = new InputSurface(encoder.createInputSurface());
+        inputSurface.makeCurrent();
+        encoder.start();
+        encoderInfo = new MediaCodec.BufferInfo();
+
+        renderer = new TextureRenderer();
+        renderer.init();
+        renderer.setEffects(effects);
+        renderer.setViewport(spec.getWidth(), spec.getHeight());
+        outputSurface = new OutputSurface();
+    }
+
+    private void renderSegment(String source, long startUs, long endUs, int segmentIndex, int segmentCount,
+                               long timelineOffsetUs, long timelineUs) throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec decoder = null;
+        try {
+            setDataSource(extractor, source);
+            int trackIndex = selectVideoTrack(extractor);
+            if (trackIndex < 0) {
+                throw new IOException("No video track in " + source);
+            }
+            extractor.selectTrack(trackIndex);
+            MediaFormat format = extractor.getTrackFormat(trackIndex);
+            int rotation = format.containsKey(MediaFormat.KEY_ROTATION) ? format.getInteger(MediaFormat.KEY_ROTATION) : 0;
+            renderer.setSourceGeometry(
+                format.getInteger(MediaFormat.KEY_WIDTH), format.getInteger(MediaFormat.KEY_HEIGHT), rotation);
+
+            long lengthMs = (endUs - startUs) / 1000;
+            extractor.seekTo(startUs, MediaExtractor.SEEK_TO_PREVIOUS_SYNC);
+
+            decoder = MediaCodec.createDecoderByType(format.getString(MediaFormat.KEY_MIME));
+            decoder.configure(format, outputSurface.getSurface(), null, 0);
+            decoder.start();
+
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            long frameIntervalUs = spec.getFrameIntervalUs();
+            long nextFrameUs = startUs;
+            boolean inputDone = false;
+            boolean outputDone = false;
+
+            while (!outputDone) {
+                if (cancelled) {
+                    throw new CancellationException("Render cancelled");
+                }
+
+                if (!inputDone) {
+                    int inputIndex = decoder.dequeueInputBuffer(TIMEOUT_US);
+                    if (inputIndex >= 0) {
+                        ByteBuffer inputBuffer = decoder.getInputBuffer(inputIndex);
+                        int size = extractor.readSampleData(inputBuffer, 0);
+                        long sampleTime = extractor.getSampleTime();
+                        if (size < 0 || sampleTime >= endUs) {
+                            decoder.queueInputBuffer(inputIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            decoder.queueInputBuffer(inputIndex, 0, size, sampleTime, 0);
+                            extractor.advance();
+                        }
+                    }
+                }
+
+                drainEncoder(false);
+
+                int outputIndex = decoder.dequeueOutputBuffer(info, TIMEOUT_US);
+                if (outputIndex < 0) {
+                    continue;
+                }
+                long pts = info.presentationTimeUs;
+                boolean endOfStream = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+                // Frames before the trim point or above the target frame rate are dropped undrawn
+                boolean draw = info.size > 0 && pts >= startUs && pts < endUs
+                    && pts + frameIntervalUs / 4 >= nextFrameUs;
+                decoder.releaseOutputBuffer(outputIndex, draw);
+
+                if (draw) {
+                    nextFrameUs = Math.max(nextFrameUs + frameIntervalUs, pts);
+                    outputSurface.awaitNewImage();
+                    outputSurface.getTransformMatrix(stMatrix);
+                    long positionMs = (pts - startUs) / 1000;
+                    renderer.draw(
+                        outputSurface.getTextureId(),
+                        stMatrix,
+                        effects.getTransitionAmount(segmentIndex, segmentCount, positionMs, lengthMs),
+                        effects.getTransitionTypeAt(segmentIndex, segmentCount, positionMs, lengthMs)
+                    );
+                    long timelineUsAtFrame = timelineOffsetUs + pts - startUs;
+                    inputSurface.setPresentationTime(timelineUsAtFrame * 1000);
+                    inputSurface.swapBuffers();
+                    if (timelineUs > 0) {
+                        // Leave the last percent for the audio pass
+                        reportProgress((int) (timelineUsAtFrame * 99 / timelineUs));
+                    }
+                }
+
+                outputDone = endOfStream || pts >= endUs;
+            }
+        } finally {
+            if (decoder != null) {
+                decoder.stop();
+                decoder.release();
+            }
+            extractor.release();
+        }
+    }
+
+    private void drainEncoder(boolean endOfStream) {
+        while (true) {
+            int index = encoder.dequeueOutputBuffer(encoderInfo, endOfStream ? TIMEOUT_US : 0);
+            if (index == MediaCodec.INFO_TRY_AGAIN_LATER) {
+                if (!endOfStream) {
+                    return;
+                }
+            } else if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                if (muxerStarted) {
+                    throw new IllegalStateException("Encoder format changed twice");
+                }
+                videoTrack = muxer.addTrack(encoder.getOutputFormat());
+                muxer.start();
+                muxerStarted = true;
+            } else if (index >= 0) {
+                ByteBuffer encoded = encoder.getOutputBuffer(index);
+                if ((encoderInfo.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0) {
+                    // Codec config is already part of the track format
+                    encoderInfo.size = 0;
+                }
+                if (encoderInfo.size > 0 && muxerStarted) {
+                    encoded.position(encoderInfo.offset);
+                    encoded.limit(encoderInfo.offset + encoderInfo.size);
+                    muxer.writeSampleData(videoTrack, encoded, encoderInfo);
+                }
+                encoder.releaseOutputBuffer(index, false);
+                if ((encoderInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Audio is copied sample-for-sample; it never goes through a decoder unless it had to be transcoded
+    private void writeAudio(MediaExtractor extractor, long timelineUs) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(audioBufferSize);
+        MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+
+        while (!cancelled) {
+            int size = extractor.readSampleData(buffer, 0);
+            long sampleTime = extractor.getSampleTime();
+            if (size < 0 || sampleTime >= timelineUs) {
+                break;
+            }
+            int flags = (extractor.getSampleFlags() & MediaExtractor.SAMPLE_FLAG_SYNC) != 0
+                ? MediaCodec.BUFFER_FLAG_KEY_FRAME : 0;
+            info.set(0, size, sampleTime, flags);
+            muxer.writeSampleData(audioTrack, buffer, info);
+            extractor.advance();
+        }
+    }
+
+    private void reportProgress(int percent) {
+        if (percent != lastProgress && progressListener != null) {
+            lastProgress = percent;
+            progressListener.onProgress(percent);
+        }
+    }
+
+    private void releasePipeline() {
+        if (outputSurface != null) {
+            outputSurface.release();
+            outputSurface = null;
+        }
+        if (renderer != null) {
+            renderer.release();
+            renderer = null;
+        }
+        if (encoder != null) {
+            try {
+                encoder.stop();
+            } catch (IllegalStateException e) {
+                e.printStackTrace();
+            }
+            encoder.release();
+            encoder = null;
+        }
+        if (inputSurface != null) {
+            inputSurface.release();
+            inputSurface = null;
+        }
+        if (muxer != null) {
+            try {
+                if (muxerStarted) {
+                    muxer.stop();
+                }
+            } catch (IllegalStateException e) {
+                e.printStackTrace();
+            }
+            muxer.release();
+            muxer = null;
+        }
+        muxerStarted = false;
+        videoTrack = -1;
+        audioTrack = -1;
+    }
+
+    // Helper methods
+    // Clips imported without metadata get their duration from the container
+    private void resolveDurations(List<Clip> clips) throws IOException {
+        for (Clip clip : clips) {
+            if (clip.getDurationMs() > 0) {
+                continue;
+            }
+            MediaExtractor extractor = new MediaExtractor();
+            try {
+                setDataSource(extractor, clip.getUri());
+                int trackIndex = selectVideoTrack(extractor);
+                if (trackIndex >= 0) {
+                    MediaFormat format = extractor.getTrackFormat(trackIndex);
+                    if (format.containsKey(MediaFormat.KEY_DURATION)) {
+                        clip.setDurationMs(format.getLong(MediaFormat.KEY_DURATION) / 1000);
+                    }
+                }
+            } finally {
+                extractor.release();
+            }
+        }
+    }
+
+    private void setDataSource(MediaExtractor extractor, String source) throws IOException {
+        if (source == null) {
+            throw new IOException("Clip has no source");
+        }
+        if (source.startsWith("content:") || source.startsWith("file:")) {
+            extractor.setDataSource(context, Uri.parse(source), null);
+        } else {
+            extractor.setDataSource(source);
+        }
+    }
+
+    private static boolean sameCodecConfig(MediaFormat first, MediaFormat other) {
+        for (String key : new String[] {"csd-0", "csd-1", "csd-2"}) {
+            ByteBuffer a = first.containsKey(key) ? first.getByteBuffer(key) : null;
+            ByteBuffer b = other.containsKey(key) ? other.getByteBuffer(key) : null;
+            if (a == null ? b != null : !a.equals(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int selectVideoTrack(MediaExtractor extractor) {
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+            if (mime != null && mime.startsWith("video/")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,89 @@
+package com.choreocam.app.render;
+
+public class RenderSpec {
+
+    public static final int DEFAULT_FRAME_RATE = 30;
+
+    // Editing proxies: short side in pixels, and sources at or below it are edited directly
+    public static final int PROXY_SHORT_SIDE = 540;
+    public static final int PROXY_THRESHOLD_SHORT_SIDE = 720;
+
+    private final int width;
+    private final int height;
+    private final int frameRate;
+    private final int bitRate;
+    private final int iFrameIntervalSeconds;
+
+    public RenderSpec(int width, int height, int frameRate) {
+        // ~0.1 bits per pixel per frame keeps 1080p30 around 6 Mbps
+        this(width, height, frameRate, 10, 1);
+    }
+
+    private RenderSpec(int width, int height, int frameRate, int pixelsPerBit, int iFrameIntervalSeconds) {
+        // AVC encoders require even dimensions, most prefer multiples of 16
+        this.width = width & ~1;
+        this.height = height & ~1;
+        this.frameRate = frameRate;
+        this.bitRate = (int) Math.min(40_000_000L, (long) this.width * this.height * frameRate / pixelsPerBit);
+        this.iFrameIntervalSeconds = iFrameIntervalSeconds;
+    }
+
+    // Small all-intra video for editing: every frame is a key frame, so seeking decodes exactly one
+    // frame. Intra coding needs about twice the bits per pixel to look the same.
+    public static RenderSpec forProxy(int displayWidth, int displayHeight) {
+        int shortSide = Math.min(displayWidth, displayHeight);
+        int longSide = (int) ((long) Math.max(displayWidth, displayHeight) * PROXY_SHORT_SIDE / Math.max(1, shortSide));
+        return displayWidth >= displayHeight
+            ? new RenderSpec(longSide, PROXY_SHORT_SIDE, DEFAULT_FRAME_RATE, 5, 0)
+            : new RenderSpec(PROXY_SHORT_SIDE, longSide, DEFAULT_FRAME_RATE, 5, 0);
+    }
+
+    // Accepts the values stored in Project.resolution: "720p", "1080p", "4k" or "WIDTHxHEIGHT"
+    public static RenderSpec fromResolution(String resolution) {
+        if (resolution != null) {
+            String value = resolution.trim().toLowerCase();
+            int separator = value.indexOf('x');
+            if (separator > 0) {
+                try {
+                    int width = Integer.parseInt(value.substring(0, separator));
+                    int height = Integer.parseInt(value.substring(separator + 1));
+                    return new RenderSpec(width, height, DEFAULT_FRAME_RATE);
+                } catch (NumberFormatException ignored) {
+                    // Fall through to the named presets
+                }
+            }
+            if (value.equals("720p")) {
+                return new RenderSpec(1280, 720, DEFAULT_FRAME_RATE);
+            }
+            if (value.equals("4k") || value.equals("2160p")) {
+                return new RenderSpec(3840, 2160, DEFAULT_FRAME_RATE);
+            }
+        }
+        return new RenderSpec(1920, 1080, DEFAULT_FRAME_RATE);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getFrameRate() {
+        return frameRate;
+    }
+
+    public int getBitRate() {
+        return bitRate;
+    }
+
+    // 0 makes every frame a key frame
+    public int getIFrameIntervalSeconds() {
+        return iFrameIntervalSeconds;
+    }
+
+    public long getFrameIntervalUs() {
+        return 1_000_000L / frameRate;
+    }
+}
@@ -0,0 +1,206 @@
+package com.choreocam.app.render;
+
+import android.opengl.GLES11Ext;
+import android.opengl.GLES20;
+import android.opengl.Matrix;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+// Draws an external OES texture with the preset's colour grading and transition fades applied in one pass
+public class TextureRenderer {
+
+    private static final String VERTEX_SHADER =
+        "uniform mat4 uMVPMatrix;\n" +
+        "uniform mat4 uSTMatrix;\n" +
+        "attribute vec4 aPosition;\n" +
+        "attribute vec4 aTextureCoord;\n" +
+        "varying vec2 vTextureCoord;\n" +
+        "varying vec2 vScreen;\n" +
+        "void main() {\n" +
+        "    gl_Position = uMVPMatrix * aPosition;\n" +
+        "    vTextureCoord = (uSTMatrix * aTextureCoord).xy;\n" +
+        "    vScreen = gl_Position.xy;\n" +
+        "}\n";
+
+    private static final String FRAGMENT_SHADER =
+        "#extension GL_OES_EGL_image_external : require\n" +
+        "precision mediump float;\n" +
+        "varying vec2 vTextureCoord;\n" +
+        "varying vec2 vScreen;\n" +
+        "uniform samplerExternalOES sTexture;\n" +
+        "uniform float uBrightness;\n" +
+        "uniform float uContrast;\n" +
+        "uniform float uSaturation;\n" +
+        "uniform float uVignette;\n" +
+        "uniform float uTransition;\n" +
+        "uniform vec3 uTransitionColor;\n" +
+        "void main() {\n" +
+        "    vec3 color = texture2D(sTexture, vTextureCoord).rgb;\n" +
+        "    color = (color - 0.5) * uContrast + 0.5 + uBrightness;\n" +
+        "    float luma = dot(color, vec3(0.299, 0.587, 0.114));\n" +
+        "    color = mix(vec3(luma), color, uSaturation);\n" +
+        "    float dist = length(vScreen) * 0.7071;\n" +
+        "    color *= 1.0 - uVignette * smoothstep(0.4, 1.0, dist);\n" +
+        "    color = mix(color, uTransitionColor, uTransition);\n" +
+        "    gl_FragColor = vec4(clamp(color, 0.0, 1.0), 1.0);\n" +
+        "}\n";
+
+    private static final float[] QUAD = {
+        // X, Y, U, V
+        -1f, -1f, 0f, 0f,
+         1f, -1f, 1f, 0f,
+        -1f,  1f, 0f, 1f,
+         1f,  1f, 1f, 1f,
+    };
+    private static final int STRIDE_BYTES = 4 * 4;
+
+    private final FloatBuffer quad;
+    private final float[] mvpMatrix = new float[16];
+    private final float[] scratchScale = new float[16];
+    private final float[] scratchRotate = new float[16];
+
+    private PresetEffects effects = PresetEffects.none();
+    private int program;
+    private int aPosition;
+    private int aTextureCoord;
+    private int uMVPMatrix;
+    private int uSTMatrix;
+    private int uBrightness;
+    private int uContrast;
+    private int uSaturation;
+    private int uVignette;
+    private int uTransition;
+    private int uTransitionColor;
+    private int viewportWidth;
+    private int viewportHeight;
+
+    public TextureRenderer() {
+        quad = ByteBuffer.allocateDirect(QUAD.length * 4)
+            .order(ByteOrder.nativeOrder())
+            .asFloatBuffer();
+        quad.put(QUAD).position(0);
+        Matrix.setIdentityM(mvpMatrix, 0);
+    }
+
+    // Must be called with the target EGL context current
+    public void init() {
+        program = createProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        aPosition = GLES20.glGetAttribLocation(program, "aPosition");
+        aTextureCoord = GLES20.glGetAttribLocation(program, "aTextureCoord");
+        uMVPMatrix = GLES20.glGetUniformLocation(program, "uMVPMatrix");
+        uSTMatrix = GLES20.glGetUniformLocation(program, "uSTMatrix");
+        uBrightness = GLES20.glGetUniformLocation(program, "uBrightness");
+        uContrast = GLES20.glGetUniformLocation(program, "uContrast");
+        uSaturation = GLES20.glGetUniformLocation(program, "uSaturation");
+        uVignette = GLES20.glGetUniformLocation(program, "uVignette");
+        uTransition = GLES20.glGetUniformLocation(program, "uTransition");
+        uTransitionColor = GLES20.glGetUniformLocation(program, "uTransitionColor");
+    }
+
+    public void setEffects(PresetEffects effects) {
+        this.effects = effects != null ? effects : PresetEffects.none();
+    }
+
+    public void setViewport(int width, int height) {
+        viewportWidth = width;
+        viewportHeight = height;
+    }
+
+    // Rotates the decoded frame upright and scales it to fill the viewport, cropping the overflow
+    public void setSourceGeometry(int sourceWidth, int sourceHeight, int rotationDegrees) {
+        boolean swapped = rotationDegrees % 180 != 0;
+        float displayWidth = swapped ? sourceHeight : sourceWidth;
+        float displayHeight = swapped ? sourceWidth : sourceHeight;
+        float scaleX = 1f;
+        float scaleY = 1f;
+        if (displayWidth > 0 && displayHeight > 0 && viewportWidth > 0 && viewportHeight > 0) {
+            float sourceAspect = displayWidth / displayHeight;
+            float viewportAspect = (float) viewportWidth / viewportHeight;
+            if (sourceAspect > viewportAspect) {
+                scaleX = sourceAspect / viewportAspect;
+            } else {
+                scaleY = viewportAspect / sourceAspect;
+            }
+        }
+        Matrix.setIdentityM(scratchScale, 0);
+        Matrix.scaleM(scratchScale, 0, scaleX, scaleY, 1f);
+        Matrix.setRotateM(scratchRotate, 0, -rotationDegrees, 0f, 0f, 1f);
+        Matrix.multiplyMM(mvpMatrix, 0, scratchScale, 0, scratchRotate, 0);
+    }
+
+    public void draw(int textureId, float[] stMatrix, float transitionAmount, int transitionType) {
+        GLES20.glViewport(0, 0, viewportWidth, viewportHeight);
+        GLES20.glClearColor(0f, 0f, 0f, 1f);
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+
+        GLES20.glUseProgram(program);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GLES20.glBindTexture(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, textureId);
+
+        quad.position(0);
+        GLES20.glVertexAttribPointer(aPosition, 2, GLES20.GL_FLOAT, false, STRIDE_BYTES, quad);
+        GLES20.glEnableVertexAttribArray(aPosition);
+        quad.position(2);
+        GLES20.glVertexAttribPointer(aTextureCoord, 2, GLES20.GL_FLOAT, false, STRIDE_BYTES, quad);
+        GLES20.glEnableVertexAttribArray(aTextureCoord);
+
+        GLES20.glUniformMatrix4fv(uMVPMatrix, 1, false, mvpMatrix, 0);
+        GLES20.glUniformMatrix4fv(uSTMatrix, 1, false, stMatrix, 0);
+        GLES20.glUniform1f(uBrightness, effects.getBrightness());
+        GLES20.glUniform1f(uContrast, effects.getContrast());
+        GLES20.glUniform1f(uSaturation, effects.getSaturation());
+        GLES20.glUniform1f(uVignette, effects.getVignette());
+
+        float color = transitionType == PresetEffects.TRANSITION_FLASH_WHITE ? 1f : 0f;
+        GLES20.glUniform1f(uTransition, transitionType == PresetEffects.TRANSITION_CUT ? 0f : transitionAmount);
+        GLES20.glUniform3f(uTransitionColor, color, color, color);
+
+        GLES20.glDrawArrays(GLES20.GL_TRIANGLE_STRIP, 0, 4);
+
+        GLES20.glDisableVertexAttribArray(aPosition);
+        GLES20.glDisableVertexAttribArray(aTextureCoord);
+        GLES20.glBindTexture(GLES11Ext.GL_TEXTURE_EXTERNAL_OES, 0);
+    }
+
+    public void release() {
+        if (program != 0) {
+            GLES20.glDeleteProgram(program);
+            program = 0;
+        }
+    }
+
+    // Helper methods
+    private static int createProgram(String vertexSource, String fragmentSource) {
+        int vertexShader = loadShader(GLES20.GL_VERTEX_SHADER, vertexSource);
+        int fragmentShader = loadShader(GLES20.GL_FRAGMENT_SHADER, fragmentSource);
+        int program = GLES20.glCreateProgram();
+        GLES20.glAttachShader(program, vertexShader);
+        GLES20.glAttachShader(program, fragmentShader);
+        GLES20.glLinkProgram(program);
+        int[] linkStatus = new int[1];
+        GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, linkStatus, 0);
+        if (linkStatus[0] != GLES20.GL_TRUE) {
+            String log = GLES20.glGetProgramInfoLog(program);
+            GLES20.glDeleteProgram(program);
+            throw new RuntimeException("Could not link program: " + log);
+        }
+        GLES20.glDeleteShader(vertexShader);
+        GLES20.glDeleteShader(fragmentShader);
+        return program;
+    }
+
+    private static int loadShader(int type, String source) {
+        int shader = GLES20.glCreateShader(type);
+        GLES20.glShaderSource(shader, source);
+        GLES20.glCompileShader(shader);
+        int[] compiled = new int[1];
+        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, compiled, 0);
+        if (compiled[0] == 0) {
+            String log = GLES20.glGetShaderInfoLog(shader);
+            GLES20.glDeleteShader(shader);
+            throw new RuntimeException("Could not compile shader " + type + ": " + log);
+        }
+        return shader;
+    }
+}
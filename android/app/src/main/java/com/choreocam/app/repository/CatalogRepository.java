@@ -0,0 +1,215 @@
+package com.choreocam.app.repository;
+
+import androidx.lifecycle.LiveData;
+import com.choreocam.app.ChoreoCamApplication;
+import com.choreocam.app.api.ApiClient;
+import com.choreocam.app.api.models.MusicResponse;
+import com.choreocam.app.api.models.PresetResponse;
+import com.choreocam.app.concurrent.PriorityExecutor;
+import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.models.MusicTrack;
+import com.choreocam.app.models.Preset;
+import retrofit2.Response;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Serves the preset and music catalogs from Room and revalidates them in the background once stale
+public class CatalogRepository {
+
+    private static volatile CatalogRepository instance;
+
+    private final AppDatabase database;
+    private final long maxAgeMs;
+    private final PriorityExecutor refreshExecutor;
+    private final AtomicBoolean refreshingPresets = new AtomicBoolean();
+    private final AtomicBoolean refreshingMusic = new AtomicBoolean();
+
+    private CatalogRepository(AppDatabase database, PriorityExecutor refreshExecutor, long maxAgeMs) {
+        this.database = database;
+        this.refreshExecutor = refreshExecutor;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    public static CatalogRepository getInstance() {
+        if (instance == null) {
+            synchronized (CatalogRepository.class) {
+                if (instance == null) {
+                    instance = new CatalogRepository(
+                        ChoreoCamApplication.getDatabase(),
+                        ChoreoCamApplication.getExecutors().network(),
+                        ChoreoCamApplication.getConfigManager().getCatalogMaxAgeMinutes() * 60_000L
+                    );
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Emits the cached rows right away; Room re-emits if the revalidation changes anything
+    public LiveData<List<Preset>> getPresets() {
+        refreshPresets(false);
+        return database.presetDao().getAllPresets();
+    }
+
+    public LiveData<List<MusicTrack>> getMusicTracks() {
+        refreshMusicTracks(false);
+        return database.musicTrackDao().getAllTracks();
+    }
+
+    public void refreshPresets(boolean force) {
+        if (!refreshingPresets.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.submit(PriorityExecutor.PRIORITY_LOW, () -> {
+            try {
+                if (force || isStale(database.presetDao().getLatestCachedAt())) {
+                    revalidatePresets();
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                refreshingPresets.set(false);
+            }
+        });
+    }
+
+    public void refreshMusicTracks(boolean force) {
+        if (!refreshingMusic.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.submit(PriorityExecutor.PRIORITY_LOW, () -> {
+            try {
+                if (force || isStale(database.musicTrackDao().getLatestCachedAt())) {
+                    revalidateMusicTracks();
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                refreshingMusic.set(false);
+            }
+        });
+    }
+
+    private boolean isStale(long latestCachedAt) {
+        return System.currentTimeMillis() - latestCachedAt > maxAgeMs;
+    }
+
+    private void revalidatePresets() throws IOException {
+        Response<PresetResponse> response = ApiClient.getApiService().getPresets().execute();
+        if (!response.isSuccessful() || response.body() == null || response.body().getPresets() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        Map<String, Preset> local = new HashMap<>();
+        for (Preset preset : database.presetDao().getAllPresetsSync()) {
+            local.put(preset.getPresetId(), preset);
+        }
+
+        List<Preset> inserted = new ArrayList<>();
+        List<Preset> updated = new ArrayList<>();
+        for (Preset remote : response.body().getPresets()) {
+            if (remote.getPresetId() == null) {
+                continue;
+            }
+            Preset existing = local.remove(remote.getPresetId());
+            remote.setCachedAt(now);
+            if (existing == null) {
+                // Server ids are not local row ids
+                remote.setId(0);
+                inserted.add(remote);
+            } else if (!sameContent(existing, remote)) {
+                remote.setId(existing.getId());
+                updated.add(remote);
+            }
+        }
+
+        List<Long> removedIds = new ArrayList<>();
+        for (Preset gone : local.values()) {
+            removedIds.add(gone.getId());
+        }
+        database.presetDao().applyCatalogDiff(inserted, updated, removedIds, now);
+    }
+
+    private void revalidateMusicTracks() throws IOException {
+        Response<MusicResponse> response = ApiClient.getApiService().getMusicTracks().execute();
+        if (!response.isSuccessful() || response.body() == null || response.body().getTracks() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        Map<String, MusicTrack> local = new HashMap<>();
+        for (MusicTrack track : database.musicTrackDao().getAllTracksSync()) {
+            local.put(track.getTrackId(), track);
+        }
+
+        List<MusicTrack> inserted = new ArrayList<>();
+        List<MusicTrack> updated = new ArrayList<>();
+        for (MusicTrack remote : response.body().getTracks()) {
+            if (remote.getTrackId() == null) {
+                continue;
+            }
+            MusicTrack existing = local.remove(remote.getTrackId());
+            remote.setCachedAt(now);
+            if (existing == null) {
+                remote.setId(0);
+                inserted.add(remote);
+                continue;
+            }
+
+            // Downloads and on-device beat analysis only exist locally
+            remote.setId(existing.getId());
+            remote.setLocalFilePath(existing.getLocalFilePath());
+            remote.setLastUsedAt(existing.getLastUsedAt());
+            if (isEmpty(remote.getCuePointsJson())) {
+                remote.setCuePointsJson(existing.getCuePointsJson());
+                if (remote.getBpm() <= 0) {
+                    remote.setBpm(existing.getBpm());
+                }
+            }
+            if (!sameContent(existing, remote)) {
+                updated.add(remote);
+            }
+        }
+
+        // Tracks the user downloaded stay usable even once the catalog drops them
+        List<Long> removedIds = new ArrayList<>();
+        for (MusicTrack gone : local.values()) {
+            if (gone.getLocalFilePath() == null) {
+                removedIds.add(gone.getId());
+            }
+        }
+        database.musicTrackDao().applyCatalogDiff(inserted, updated, removedIds, now);
+    }
+
+    private static boolean sameContent(Preset a, Preset b) {
+        return a.isPro() == b.isPro()
+            && Objects.equals(a.getName(), b.getName())
+            && Objects.equals(a.getDescription(), b.getDescription())
+            && Objects.equals(a.getThumbnailUrl(), b.getThumbnailUrl())
+            && Objects.equals(a.getCategory(), b.getCategory())
+            && Objects.equals(a.getTransitionsJson(), b.getTransitionsJson())
+            && Objects.equals(a.getEffectsJson(), b.getEffectsJson())
+            && Objects.equals(a.getCaptionStyleJson(), b.getCaptionStyleJson());
+    }
+
+    private static boolean sameContent(MusicTrack a, MusicTrack b) {
+        return a.isPro() == b.isPro()
+            && a.getBpm() == b.getBpm()
+            && a.getDurationMs() == b.getDurationMs()
+            && Objects.equals(a.getTitle(), b.getTitle())
+            && Objects.equals(a.getArtist(), b.getArtist())
+            && Objects.equals(a.getGenre(), b.getGenre())
+            && Objects.equals(a.getFileUrl(), b.getFileUrl())
+            && Objects.equals(a.getCuePointsJson(), b.getCuePointsJson());
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
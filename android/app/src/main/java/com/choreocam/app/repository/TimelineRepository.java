@@ -0,0 +1,88 @@
+package com.choreocam.app.repository;
+
+import android.content.Context;
+import com.choreocam.app.ChoreoCamApplication;
+import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.edit.EdlFile;
+import com.choreocam.app.edit.SegmentList;
+import com.choreocam.app.models.Preset;
+import com.choreocam.app.models.Project;
+import com.choreocam.app.render.PresetEffects;
+import java.io.File;
+import java.io.IOException;
+
+// Keeps each project's timeline as a binary EDL on local storage; the JSON column stays the sync format
+public class TimelineRepository {
+
+    private static volatile TimelineRepository instance;
+
+    private final AppDatabase database;
+    private final File edlDir;
+
+    private TimelineRepository(Context context, AppDatabase database) {
+        this.database = database;
+        this.edlDir = new File(context.getFilesDir(), "edl");
+    }
+
+    public static TimelineRepository getInstance() {
+        if (instance == null) {
+            synchronized (TimelineRepository.class) {
+                if (instance == null) {
+                    instance = new TimelineRepository(
+                        ChoreoCamApplication.getAppContext(),
+                        ChoreoCamApplication.getDatabase()
+                    );
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Maps the project's EDL, converting from the JSON columns the first time; null if that fails.
+    // Must be called off the main thread.
+    public EdlFile load(Project project) {
+        Preset preset = project.getChosenPresetId() > 0
+            ? database.presetDao().getPresetByIdSync(project.getChosenPresetId()) : null;
+        int presetStamp = EdlFile.presetStamp(preset);
+        File file = fileFor(project);
+        try {
+            if (project.getEdlPath() != null && file.exists()) {
+                EdlFile edl = EdlFile.open(file);
+                if (edl.getPresetStamp() == presetStamp) {
+                    return edl;
+                }
+                // Segments are still current; only the flattened preset block is rewritten
+                EdlFile.write(file, edl, PresetEffects.fromPreset(preset), presetStamp);
+            } else {
+                EdlFile.convert(project.getEditDecisionListJson(), preset, file);
+                setEdlPath(project, file);
+            }
+            return EdlFile.open(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            file.delete();
+            setEdlPath(project, null);
+            return null;
+        }
+    }
+
+    // Stores a freshly planned timeline; the caller still owns the JSON column for sync
+    public EdlFile save(Project project, SegmentList segments) throws IOException {
+        Preset preset = project.getChosenPresetId() > 0
+            ? database.presetDao().getPresetByIdSync(project.getChosenPresetId()) : null;
+        File file = fileFor(project);
+        EdlFile.write(file, segments, PresetEffects.fromPreset(preset), EdlFile.presetStamp(preset));
+        setEdlPath(project, file);
+        return EdlFile.open(file);
+    }
+
+    private File fileFor(Project project) {
+        return new File(edlDir, "project_" + project.getId() + ".edl");
+    }
+
+    private void setEdlPath(Project project, File file) {
+        String path = file != null ? file.getAbsolutePath() : null;
+        project.setEdlPath(path);
+        database.projectDao().updateEdlPath(project.getId(), path);
+    }
+}
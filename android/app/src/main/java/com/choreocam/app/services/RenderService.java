@@ -4,33 +4,491 @@ import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.Service;
+import android.content.Context;
 import android.content.Intent;
+import android.content.pm.ServiceInfo;
 import android.os.Build;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 import androidx.core.app.NotificationCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+import com.choreocam.app.ChoreoCamApplication;
 import com.choreocam.app.R;
+import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.database.dao.RenderJobDao;
+import com.choreocam.app.edit.EdlFile;
+import com.choreocam.app.edit.EditDecisionList;
+import com.choreocam.app.edit.SegmentList;
+import com.choreocam.app.media.MusicDownloadManager;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.MusicTrack;
+import com.choreocam.app.models.Preset;
+import com.choreocam.app.models.Project;
+import com.choreocam.app.models.RenderJob;
+import com.choreocam.app.render.EncoderGate;
+import com.choreocam.app.render.PresetEffects;
+import com.choreocam.app.render.RenderEngine;
+import com.choreocam.app.render.RenderSpec;
+import com.choreocam.app.repository.TimelineRepository;
+import com.choreocam.app.workers.ExportUploadWorker;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+// Works through the render_jobs queue, highest priority first. The timeline is split at cuts into
+// chunks of a few seconds, each encoded to its own checkpoint file by as many encoders as the device can
+// run at once; a render the system kills resumes with the missing chunks, and the finished chunks are
+// joined without re-encoding.
 public class RenderService extends Service {
 
+    public static final String EXTRA_PROJECT_ID = "project_id";
+    public static final String EXTRA_PRIORITY = "priority";
+
     private static final String CHANNEL_ID = "render_channel";
     private static final int NOTIFICATION_ID = 1;
+    private static final int RESULT_NOTIFICATION_ID = 2;
+    // Runs that end in an error before a job is failed; runs cut short by the system do not count
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long KEEP_FINISHED_JOBS_MS = TimeUnit.DAYS.toMillis(7);
+    // Long enough that encoder setup is a small part of each chunk, short enough to keep every encoder
+    // busy and to lose little work when the process is killed
+    private static final long CHUNK_TARGET_MS = 10_000;
+
+    // A single queue thread: two exports would only compete for the same encoders. Chunks of the
+    // running job are spread over EncoderGate's permits, which proxy transcodes share.
+    private final ExecutorService renderExecutor = Executors.newSingleThreadExecutor();
+    // Requests are written to the queue here, in start order, while the render thread may be busy with
+    // a job; that job sees them before its next chunk
+    private final ExecutorService queueExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Set<RenderEngine> activeEngines = ConcurrentHashMap.newKeySet();
+    private NotificationManager notificationManager;
+    private AppDatabase database;
+    private RenderJobDao jobDao;
+    private volatile boolean destroyed;
+    private boolean recovered; // queue thread only
 
     @Override
     public void onCreate() {
         super.onCreate();
+        notificationManager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+        database = ChoreoCamApplication.getDatabase();
+        jobDao = database.renderJobDao();
         createNotificationChannel();
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        startForeground(NOTIFICATION_ID, createNotification());
+        ServiceCompat.startForeground(this, NOTIFICATION_ID, createNotification(0),
+            ServiceInfo.FOREGROUND_SERVICE_TYPE_DATA_SYNC);
 
-        // Render logic would go here
-        // This is a placeholder service
+        long projectId = intent != null ? intent.getLongExtra(EXTRA_PROJECT_ID, -1) : -1;
+        int priority = intent != null
+            ? intent.getIntExtra(EXTRA_PRIORITY, RenderJob.RANK_NORMAL) : RenderJob.RANK_NORMAL;
+        queueExecutor.execute(() -> {
+            if (!recovered) {
+                recovered = true;
+                jobDao.recoverInterrupted();
+                jobDao.deleteFinishedBefore(System.currentTimeMillis() - KEEP_FINISHED_JOBS_MS);
+                deleteOrphanCheckpoints();
+            }
+            if (projectId >= 0) {
+                enqueue(projectId, priority);
+            }
+            try {
+                renderExecutor.execute(() -> {
+                    drainQueue();
+                    // Ignored if a newer start command arrived meanwhile; its own task stops the service
+                    mainHandler.post(() -> stopSelf(startId));
+                });
+            } catch (RejectedExecutionException e) {
+                // Destroyed meanwhile; the job is in the queue for the next start
+            }
+        });
 
+        // The queue lives in Room, so a restart with no intent simply resumes it
         return START_STICKY;
     }
 
+    // Queues an export of the project; priority is one of RenderJob.RANK_*
+    public static void start(Context context, long projectId, int priority) {
+        Intent intent = new Intent(context, RenderService.class);
+        intent.putExtra(EXTRA_PROJECT_ID, projectId);
+        intent.putExtra(EXTRA_PRIORITY, priority);
+        ContextCompat.startForegroundService(context, intent);
+    }
+
+    private void enqueue(long projectId, int priority) {
+        jobDao.enqueue(projectId, priority);
+        Project project = database.projectDao().getProjectByIdSync(projectId);
+        if (project != null && !"rendering".equals(project.getStatus())) {
+            project.setStatus("rendering");
+            project.markDirty(Project.FIELD_STATUS);
+            database.projectDao().update(project);
+        }
+    }
+
+    private void drainQueue() {
+        RenderJob job;
+        while (!destroyed && (job = jobDao.getNextQueuedJob()) != null) {
+            runJob(job);
+        }
+    }
+
+    // Leaves the job completed, failed or queued again, or running if the service is being stopped
+    private void runJob(RenderJob job) {
+        Project project = database.projectDao().getProjectByIdSync(job.getProjectId());
+        if (project == null) {
+            job.setStatus(RenderJob.STATUS_FAILED);
+            saveJob(job);
+            return;
+        }
+        job.setStatus(RenderJob.STATUS_RUNNING);
+        saveJob(job);
+        notificationManager.notify(NOTIFICATION_ID, createNotification(job.getProgress()));
+
+        File checkpointDir = new File(getFilesDir(), "render/job_" + job.getId());
+        File outputFile = null;
+        boolean success = false;
+        try {
+            List<Clip> clips = database.clipDao().getClipsForProject(project.getId());
+            SegmentList edl;
+            PresetEffects effects;
+            EdlFile edlFile = TimelineRepository.getInstance().load(project);
+            if (edlFile != null) {
+                edl = edlFile;
+                effects = edlFile.getEffects();
+            } else {
+                Preset preset = project.getChosenPresetId() > 0
+                    ? database.presetDao().getPresetByIdSync(project.getChosenPresetId()) : null;
+                edl = EditDecisionList.fromJson(project.getEditDecisionListJson());
+                effects = PresetEffects.fromPreset(preset);
+            }
+            RenderSpec spec = RenderSpec.fromResolution(project.getResolution());
+            SegmentList timeline = new RenderEngine(this, spec, effects).prepareTimeline(clips, edl);
+            int[] plan = RenderEngine.planChunks(timeline, CHUNK_TARGET_MS);
+
+            // Checkpoints rendered from other inputs would splice the old edit into the new one
+            String timelineHash = timelineHash(clips, timeline, plan, spec, effects);
+            if (!timelineHash.equals(job.getTimelineHash())) {
+                deleteCheckpoints(checkpointDir);
+                job.setTimelineHash(timelineHash);
+                job.setProgress(0);
+            }
+            job.setSegmentCount(plan.length - 1);
+            saveJob(job);
+            if (!checkpointDir.exists() && !checkpointDir.mkdirs()) {
+                throw new IOException("Cannot create " + checkpointDir);
+            }
+
+            if (!renderChunks(job, clips, timeline, plan, spec, effects, checkpointDir)) {
+                if (jobDao.hasQueuedJobForProject(job.getProjectId())) {
+                    dropSuperseded(job, checkpointDir);
+                    return;
+                }
+                // A more urgent job is waiting; this one resumes from its checkpoints afterwards
+                job.setStatus(RenderJob.STATUS_QUEUED);
+                saveJob(job);
+                return;
+            }
+
+            MusicTrack track = project.getMusicId() > 0
+                ? database.musicTrackDao().getTrackByIdSync(project.getMusicId()) : null;
+            File exportDir = new File(getExternalFilesDir(null), "exports");
+            if (!exportDir.exists()) {
+                exportDir.mkdirs();
+            }
+            outputFile = new File(exportDir, "export_" + System.currentTimeMillis() + ".mp4");
+            List<File> chunks = new ArrayList<>(plan.length - 1);
+            for (int i = 0; i < plan.length - 1; i++) {
+                chunks.add(chunkFile(checkpointDir, i));
+            }
+            RenderEngine joiner = new RenderEngine(this, spec, effects);
+            activeEngines.add(joiner);
+            try {
+                joiner.concatChunks(chunks, plan, timeline,
+                    track != null ? MusicDownloadManager.getInstance().getLocalFile(track) : null, outputFile);
+            } finally {
+                activeEngines.remove(joiner);
+            }
+            success = true;
+        } catch (CancellationException | InterruptedException e) {
+            // The service is stopping; the job stays running and is queued again on the next start
+            if (outputFile != null) {
+                outputFile.delete();
+            }
+            return;
+        } catch (Exception e) {
+            e.printStackTrace();
+            if (outputFile != null) {
+                outputFile.delete();
+            }
+            if (e instanceof RenderEngine.ChunkMismatchException) {
+                // Only that chunk is rendered again; the other checkpoints are still good
+                chunkFile(checkpointDir, ((RenderEngine.ChunkMismatchException) e).getChunk()).delete();
+            }
+        }
+
+        if (jobDao.hasQueuedJobForProject(job.getProjectId())) {
+            // Ended just as the project was exported again; the queued job renders the newer edits
+            if (outputFile != null) {
+                outputFile.delete();
+            }
+            dropSuperseded(job, checkpointDir);
+            return;
+        }
+
+        if (!success) {
+            job.setAttempts(job.getAttempts() + 1);
+            if (job.getAttempts() < MAX_ATTEMPTS) {
+                job.setStatus(RenderJob.STATUS_QUEUED);
+                saveJob(job);
+                return;
+            }
+        }
+
+        job.setStatus(success ? RenderJob.STATUS_COMPLETED : RenderJob.STATUS_FAILED);
+        if (success) {
+            job.setProgress(100);
+        }
+        saveJob(job);
+        deleteCheckpoints(checkpointDir);
+
+        // Re-read, since the user may have edited the project while it rendered
+        project = database.projectDao().getProjectByIdSync(job.getProjectId());
+        if (project == null) {
+            if (outputFile != null) {
+                outputFile.delete();
+            }
+            return;
+        }
+        if (success) {
+            project.setStatus("completed");
+            project.setOutputFilePath(outputFile.getAbsolutePath());
+            // A new export has not been uploaded yet, whatever happened to the previous one
+            project.setUploadUrl(null);
+            project.setUploadedAt(0);
+        } else {
+            project.setStatus("failed");
+        }
+        project.markDirty(Project.FIELD_STATUS | Project.FIELD_OUTPUT);
+        database.projectDao().update(project);
+
+        if (success && ChoreoCamApplication.getConfigManager().isAutoUploadExportsEnabled()) {
+            ExportUploadWorker.enqueue(this, project.getId());
+        }
+
+        showResultNotification(success);
+    }
+
+    // Encodes every chunk without a checkpoint, as many at once as EncoderGate allows; false if the job
+    // gave way to a higher priority one
+    private boolean renderChunks(RenderJob job, List<Clip> clips, SegmentList timeline, int[] plan, RenderSpec spec,
+                                 PresetEffects effects, File checkpointDir) throws Exception {
+        ChunkProgress progress = new ChunkProgress(job, plan.length - 1, timeline.getDurationMs());
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < plan.length - 1; i++) {
+            if (chunkFile(checkpointDir, i).exists()) {
+                progress.restore(i, chunkMs(timeline, plan, i));
+            } else {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return true;
+        }
+
+        // Once set, chunks not yet started are skipped; those already encoding still finish as checkpoints
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicBoolean preempted = new AtomicBoolean();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(EncoderGate.getCapacity(), missing.size()));
+        CompletionService<Void> completion = new ExecutorCompletionService<>(pool);
+        for (int chunk : missing) {
+            completion.submit(() -> {
+                if (stop.get()) {
+                    return null;
+                }
+                if (jobDao.hasQueuedJobToYieldTo(job.getPriority(), job.getProjectId())) {
+                    preempted.set(true);
+                    stop.set(true);
+                    return null;
+                }
+                renderChunk(clips, timeline, plan, chunk, spec, effects, checkpointDir, progress);
+                return null;
+            });
+        }
+
+        Exception failure = null;
+        try {
+            for (int i = 0; i < missing.size(); i++) {
+                try {
+                    completion.take().get();
+                } catch (ExecutionException e) {
+                    stop.set(true);
+                    if (failure == null) {
+                        failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return !preempted.get();
+    }
+
+    private void renderChunk(List<Clip> clips, SegmentList timeline, int[] plan, int chunk, RenderSpec spec,
+                             PresetEffects effects, File checkpointDir, ChunkProgress progress)
+            throws IOException, InterruptedException {
+        File chunkFile = chunkFile(checkpointDir, chunk);
+        File temp = new File(checkpointDir, chunkFile.getName() + ".tmp");
+        long lengthMs = chunkMs(timeline, plan, chunk);
+        RenderEngine engine = new RenderEngine(this, spec, effects);
+        EncoderGate.acquire();
+        activeEngines.add(engine);
+        try {
+            if (destroyed) {
+                throw new CancellationException("Render service stopped");
+            }
+            engine.renderChunk(clips, timeline, plan[chunk], plan[chunk + 1], temp,
+                percent -> progress.update(chunk, lengthMs * percent / 100));
+        } catch (IOException | RuntimeException e) {
+            temp.delete();
+            throw e;
+        } finally {
+            activeEngines.remove(engine);
+            EncoderGate.release();
+        }
+        // Renamed only once complete, so an existing chunk file is always a whole one
+        if (!temp.renameTo(chunkFile)) {
+            throw new IOException("Cannot save checkpoint " + chunkFile);
+        }
+        progress.finish(chunk, lengthMs);
+    }
+
+    // Leaves the last percent for joining the chunks and adding the music
+    private void reportProgress(RenderJob job, int percent, int segmentsDone) {
+        if (percent == job.getProgress() && segmentsDone == job.getSegmentsDone()) {
+            return;
+        }
+        job.setProgress(percent);
+        job.setSegmentsDone(segmentsDone);
+        jobDao.updateProgress(job.getId(), percent, segmentsDone, System.currentTimeMillis());
+        notificationManager.notify(NOTIFICATION_ID, createNotification(percent));
+    }
+
+    // The project stays "rendering" for the job that replaced this one
+    private void dropSuperseded(RenderJob job, File checkpointDir) {
+        jobDao.delete(job);
+        deleteCheckpoints(checkpointDir);
+    }
+
+    // Checkpoints of jobs that were dropped without running again
+    private void deleteOrphanCheckpoints() {
+        File[] dirs = new File(getFilesDir(), "render").listFiles();
+        if (dirs == null) {
+            return;
+        }
+        Set<String> live = new HashSet<>();
+        for (long id : jobDao.getJobIds()) {
+            live.add("job_" + id);
+        }
+        for (File dir : dirs) {
+            if (!live.contains(dir.getName())) {
+                deleteCheckpoints(dir);
+            }
+        }
+    }
+
+    private void saveJob(RenderJob job) {
+        job.setUpdatedAt(System.currentTimeMillis());
+        jobDao.update(job);
+    }
+
+    private static File chunkFile(File checkpointDir, int chunk) {
+        return new File(checkpointDir, "chunk_" + chunk + ".mp4");
+    }
+
+    private static long chunkMs(SegmentList timeline, int[] plan, int chunk) {
+        long endMs = chunk + 1 < plan.length - 1
+            ? timeline.getTimelineStartMs(plan[chunk + 1]) : timeline.getDurationMs();
+        return endMs - timeline.getTimelineStartMs(plan[chunk]);
+    }
+
+    private static void deleteCheckpoints(File checkpointDir) {
+        File[] files = checkpointDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        checkpointDir.delete();
+    }
+
+    // Everything the encoded video depends on; the music is only added when chunks are joined
+    // The effect values themselves, not the preset id, since a catalog refresh can change a preset's look
+    private static String timelineHash(List<Clip> clips, SegmentList timeline, int[] plan, RenderSpec spec,
+                                       PresetEffects effects) {
+        StringBuilder inputs = new StringBuilder();
+        inputs.append(spec.getWidth()).append('x').append(spec.getHeight()).append('@').append(spec.getFrameRate())
+            .append(";bitrate=").append(spec.getBitRate())
+            .append(";gop=").append(spec.getIFrameIntervalSeconds())
+            .append(";effects=").append(effects.getBrightness()).append(',').append(effects.getContrast())
+            .append(',').append(effects.getSaturation()).append(',').append(effects.getVignette());
+        for (int i = 0; i < effects.getTransitionCount(); i++) {
+            inputs.append(";transition=").append(effects.getTransitionType(i))
+                .append('/').append(effects.getTransitionDurationMs(i));
+        }
+        for (Clip clip : clips) {
+            inputs.append(";clip=").append(clip.getUri());
+        }
+        for (int i = 0; i < timeline.size(); i++) {
+            inputs.append(String.format(Locale.US, ";%d:%d-%d@%d", timeline.getClipIndex(i),
+                timeline.getSourceInMs(i), timeline.getSourceOutMs(i), timeline.getTimelineStartMs(i)));
+        }
+        inputs.append(";chunks=").append(Arrays.toString(plan));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(inputs.toString().getBytes(StandardCharsets.UTF_8));
+            return String.format(Locale.US, "%040x", new BigInteger(1, hash));
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(inputs.toString().hashCode());
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        destroyed = true;
+        for (RenderEngine engine : activeEngines) {
+            engine.cancel();
+        }
+        queueExecutor.shutdownNow();
+        renderExecutor.shutdownNow();
+        super.onDestroy();
+    }
+
     @Override
     public IBinder onBind(Intent intent) {
         return null;
@@ -50,11 +508,65 @@ public class RenderService extends Service {
         }
     }
 
-    private Notification createNotification() {
+    private Notification createNotification(int progress) {
         return new NotificationCompat.Builder(this, CHANNEL_ID)
             .setContentTitle("ChoreoCam")
             .setContentText("Rendering your video...")
             .setSmallIcon(R.drawable.ic_launcher)
+            .setProgress(100, progress, progress == 0)
+            .setOnlyAlertOnce(true)
+            .setOngoing(true)
+            .build();
+    }
+
+    private void showResultNotification(boolean success) {
+        Notification notification = new NotificationCompat.Builder(this, CHANNEL_ID)
+            .setContentTitle("ChoreoCam")
+            .setContentText(success ? getString(R.string.export_complete) : getString(R.string.error_generic))
+            .setSmallIcon(R.drawable.ic_launcher)
+            .setAutoCancel(true)
             .build();
+        if (notificationManager != null) {
+            notificationManager.notify(RESULT_NOTIFICATION_ID, notification);
+        }
+    }
+
+    // Job progress summed over chunks that encode at the same time
+    private final class ChunkProgress {
+        private final RenderJob job;
+        private final long[] doneMs;
+        private final long totalMs;
+        private int finished;
+
+        ChunkProgress(RenderJob job, int chunkCount, long totalMs) {
+            this.job = job;
+            this.doneMs = new long[chunkCount];
+            this.totalMs = Math.max(1, totalMs);
+        }
+
+        // A checkpoint left by an earlier run; counted without reporting
+        synchronized void restore(int chunk, long ms) {
+            doneMs[chunk] = ms;
+            finished++;
+        }
+
+        synchronized void update(int chunk, long ms) {
+            doneMs[chunk] = ms;
+            report();
+        }
+
+        synchronized void finish(int chunk, long ms) {
+            doneMs[chunk] = ms;
+            finished++;
+            report();
+        }
+
+        private void report() {
+            long sum = 0;
+            for (long ms : doneMs) {
+                sum += ms;
+            }
+            reportProgress(job, (int) (sum * 99 / totalMs), finished);
+        }
     }
 }
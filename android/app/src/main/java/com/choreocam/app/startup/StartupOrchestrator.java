@@ -0,0 +1,285 @@
+package com.choreocam.app.startup;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import com.choreocam.app.concurrent.PriorityExecutor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// Runs app initializers as a dependency graph: each starts as soon as everything it depends on has
+// finished, independent ones in parallel on the background pool. Signals are nodes completed from
+// outside, such as FIRST_DRAW, so work can be held back until the first frame is on screen.
+public class StartupOrchestrator {
+
+    public static final String FIRST_DRAW = "first_draw";
+
+    private final PriorityExecutor background;
+    private final Executor mainThread;
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private boolean started;
+
+    public StartupOrchestrator(PriorityExecutor background, Executor mainThread) {
+        this.background = background;
+        this.mainThread = mainThread;
+    }
+
+    public StartupOrchestrator add(String name, Runnable task, String... dependencies) {
+        return addNode(name, task, false, dependencies);
+    }
+
+    // For initializers that touch views or other main-thread-only state
+    public StartupOrchestrator addOnMainThread(String name, Runnable task, String... dependencies) {
+        return addNode(name, task, true, dependencies);
+    }
+
+    public StartupOrchestrator addSignal(String name) {
+        return addNode(name, null, false);
+    }
+
+    private synchronized StartupOrchestrator addNode(String name, Runnable task, boolean onMainThread,
+                                                     String... dependencies) {
+        if (started) {
+            throw new IllegalStateException("Startup graph already running: " + name);
+        }
+        if (nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate initializer: " + name);
+        }
+        nodes.put(name, new Node(name, task, onMainThread, dependencies));
+        return this;
+    }
+
+    public void start() {
+        List<Node> ready = new ArrayList<>();
+        synchronized (this) {
+            if (started) {
+                return;
+            }
+            for (Node node : nodes.values()) {
+                for (String dependency : node.dependencies) {
+                    Node parent = nodes.get(dependency);
+                    if (parent == null) {
+                        throw new IllegalStateException(node.name + " depends on unknown " + dependency);
+                    }
+                    parent.dependents.add(node);
+                    if (!parent.complete) {
+                        // A signal may already have fired before the graph started
+                        node.remaining++;
+                    }
+                }
+            }
+            checkAcyclic();
+            started = true;
+            for (Node node : nodes.values()) {
+                if (node.remaining == 0 && node.task != null) {
+                    ready.add(node);
+                }
+            }
+        }
+        for (Node node : ready) {
+            dispatch(node);
+        }
+    }
+
+    // Completes a signal node; repeated calls are ignored
+    public void signal(String name) {
+        Node node;
+        synchronized (this) {
+            node = nodes.get(name);
+            if (node == null || node.task != null) {
+                throw new IllegalArgumentException("Not a signal: " + name);
+            }
+        }
+        finish(node);
+    }
+
+    public synchronized boolean isComplete(String name) {
+        Node node = nodes.get(name);
+        return node != null && node.complete;
+    }
+
+    // Runs the callback on the executor once the named initializer has finished, immediately if it already has
+    public void whenComplete(String name, Executor executor, Runnable callback) {
+        synchronized (this) {
+            Node node = nodes.get(name);
+            if (node == null) {
+                throw new IllegalArgumentException("Unknown initializer: " + name);
+            }
+            if (!node.complete) {
+                node.callbacks.add(() -> executor.execute(callback));
+                return;
+            }
+        }
+        executor.execute(callback);
+    }
+
+    // Completes the signal after the first frame of the first activity has been drawn
+    public void signalOnFirstDraw(Application application, String name) {
+        application.registerActivityLifecycleCallbacks(new FirstDrawCallbacks(application, name));
+    }
+
+    private void dispatch(Node node) {
+        Runnable run = () -> {
+            // Shows up as a named slice in system traces and macrobenchmark captures
+            Trace.beginSection("startup:" + node.name);
+            try {
+                node.task.run();
+            } catch (Exception e) {
+                // A failed initializer must not strand everything after it
+                e.printStackTrace();
+            } finally {
+                Trace.endSection();
+                finish(node);
+            }
+        };
+        if (node.onMainThread) {
+            mainThread.execute(run);
+        } else {
+            background.submit(PriorityExecutor.PRIORITY_HIGH, run);
+        }
+    }
+
+    private void finish(Node node) {
+        List<Node> ready = new ArrayList<>();
+        List<Runnable> callbacks;
+        synchronized (this) {
+            if (node.complete) {
+                return;
+            }
+            node.complete = true;
+            callbacks = new ArrayList<>(node.callbacks);
+            node.callbacks.clear();
+            if (started) {
+                for (Node dependent : node.dependents) {
+                    if (--dependent.remaining == 0 && dependent.task != null) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+        }
+        for (Node dependent : ready) {
+            dispatch(dependent);
+        }
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    // Kahn's algorithm over a copy of the in-degrees; anything left unvisited sits on a cycle
+    private void checkAcyclic() {
+        Map<Node, Integer> inDegree = new LinkedHashMap<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        for (Node node : nodes.values()) {
+            inDegree.put(node, node.dependencies.length);
+            if (node.dependencies.length == 0) {
+                queue.add(node);
+            }
+        }
+        int visited = 0;
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            visited++;
+            for (Node dependent : node.dependents) {
+                int degree = inDegree.get(dependent) - 1;
+                inDegree.put(dependent, degree);
+                if (degree == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (visited != nodes.size()) {
+            throw new IllegalStateException("Startup graph has a dependency cycle");
+        }
+    }
+
+    private static class Node {
+        final String name;
+        final Runnable task;
+        final boolean onMainThread;
+        final String[] dependencies;
+        final List<Node> dependents = new ArrayList<>();
+        final List<Runnable> callbacks = new ArrayList<>();
+        int remaining;
+        boolean complete;
+
+        Node(String name, Runnable task, boolean onMainThread, String[] dependencies) {
+            this.name = name;
+            this.task = task;
+            this.onMainThread = onMainThread;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private class FirstDrawCallbacks implements Application.ActivityLifecycleCallbacks {
+        private final Application application;
+        private final String signalName;
+        private final Handler mainHandler = new Handler(Looper.getMainLooper());
+        private boolean drawn;
+
+        FirstDrawCallbacks(Application application, String signalName) {
+            this.application = application;
+            this.signalName = signalName;
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+            if (drawn) {
+                return;
+            }
+            View decorView = activity.getWindow().getDecorView();
+            ViewTreeObserver.OnDrawListener listener = new ViewTreeObserver.OnDrawListener() {
+                @Override
+                public void onDraw() {
+                    if (drawn) {
+                        return;
+                    }
+                    drawn = true;
+                    ViewTreeObserver.OnDrawListener self = this;
+                    // Listeners cannot be removed from inside onDraw, and posting also lets the frame
+                    // reach the display before deferred work competes for the CPU
+                    mainHandler.post(() -> {
+                        if (decorView.getViewTreeObserver().isAlive()) {
+                            decorView.getViewTreeObserver().removeOnDrawListener(self);
+                        }
+                        application.unregisterActivityLifecycleCallbacks(FirstDrawCallbacks.this);
+                        signal(signalName);
+                    });
+                }
+            };
+            decorView.getViewTreeObserver().addOnDrawListener(listener);
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+        }
+    }
+}
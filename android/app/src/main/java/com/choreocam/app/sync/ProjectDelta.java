@@ -0,0 +1,163 @@
+package com.choreocam.app.sync;
+
+import com.choreocam.app.api.models.ProjectChange;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.Project;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.List;
+import java.util.Objects;
+
+// Maps Project columns to and from the field-level changes exchanged with /sync
+public class ProjectDelta {
+
+    static final String TITLE = "title";
+    static final String DESCRIPTION = "description";
+    static final String CLIPS = "clipsMetaJson";
+    static final String EDIT_DECISIONS = "editDecisionListJson";
+    static final String PRESET = "chosenPresetId";
+    static final String MUSIC = "musicId";
+    static final String STATUS = "status";
+    static final String OUTPUT = "outputFilePath";
+    static final String DURATION = "duration";
+    static final String RESOLUTION = "resolution";
+
+    // Only the columns flagged in dirtyFields are included; clips must be passed when FIELD_CLIPS is set
+    public static ProjectChange build(Project project, List<Clip> clips) {
+        int dirty = project.getDirtyFields();
+        JsonObject fields = new JsonObject();
+        if ((dirty & Project.FIELD_TITLE) != 0) {
+            fields.addProperty(TITLE, nonNull(project.getTitle()));
+        }
+        if ((dirty & Project.FIELD_DESCRIPTION) != 0) {
+            fields.addProperty(DESCRIPTION, nonNull(project.getDescription()));
+        }
+        if ((dirty & Project.FIELD_CLIPS) != 0) {
+            fields.addProperty(CLIPS, clips != null ? Clip.toJson(clips) : "");
+        }
+        if ((dirty & Project.FIELD_EDIT_DECISIONS) != 0) {
+            fields.addProperty(EDIT_DECISIONS, nonNull(project.getEditDecisionListJson()));
+        }
+        if ((dirty & Project.FIELD_PRESET) != 0) {
+            fields.addProperty(PRESET, project.getChosenPresetId());
+        }
+        if ((dirty & Project.FIELD_MUSIC) != 0) {
+            fields.addProperty(MUSIC, project.getMusicId());
+        }
+        if ((dirty & Project.FIELD_STATUS) != 0) {
+            fields.addProperty(STATUS, nonNull(project.getStatus()));
+        }
+        if ((dirty & Project.FIELD_OUTPUT) != 0) {
+            fields.addProperty(OUTPUT, nonNull(project.getOutputFilePath()));
+        }
+        if ((dirty & Project.FIELD_DURATION) != 0) {
+            fields.addProperty(DURATION, project.getDuration());
+        }
+        if ((dirty & Project.FIELD_RESOLUTION) != 0) {
+            fields.addProperty(RESOLUTION, nonNull(project.getResolution()));
+        }
+        return new ProjectChange(project.getProjectId(), project.getUpdatedAt(), fields);
+    }
+
+    // Applies remote fields except those with unsynced local edits, which win and are pushed next time.
+    // Remote clips are left in clipsMetaJson for the caller to move into the clips table.
+    // Returns true if anything changed.
+    public static boolean apply(ProjectChange change, Project project) {
+        JsonObject fields = change.getFields();
+        if (fields == null) {
+            return false;
+        }
+        int skip = project.getDirtyFields();
+        boolean changed = false;
+        for (String name : fields.keySet()) {
+            JsonElement value = fields.get(name);
+            if (value == null || value.isJsonNull()) {
+                continue;
+            }
+            switch (name) {
+                case TITLE:
+                    if ((skip & Project.FIELD_TITLE) == 0) {
+                        project.setTitle(nullIfEmpty(value.getAsString()));
+                        changed = true;
+                    }
+                    break;
+                case DESCRIPTION:
+                    if ((skip & Project.FIELD_DESCRIPTION) == 0) {
+                        project.setDescription(nullIfEmpty(value.getAsString()));
+                        changed = true;
+                    }
+                    break;
+                case CLIPS:
+                    if ((skip & Project.FIELD_CLIPS) == 0) {
+                        project.setClipsMetaJson(nullIfEmpty(value.getAsString()));
+                        changed = true;
+                    }
+                    break;
+                case EDIT_DECISIONS:
+                    String editDecisions = nullIfEmpty(value.getAsString());
+                    // An unchanged list keeps the binary EDL built from it
+                    if ((skip & Project.FIELD_EDIT_DECISIONS) == 0
+                            && !Objects.equals(editDecisions, project.getEditDecisionListJson())) {
+                        project.setEditDecisionListJson(editDecisions);
+                        // The binary EDL is rebuilt from the new JSON on next load
+                        project.setEdlPath(null);
+                        changed = true;
+                    }
+                    break;
+                case PRESET:
+                    if ((skip & Project.FIELD_PRESET) == 0) {
+                        project.setChosenPresetId(value.getAsLong());
+                        changed = true;
+                    }
+                    break;
+                case MUSIC:
+                    if ((skip & Project.FIELD_MUSIC) == 0) {
+                        project.setMusicId(value.getAsLong());
+                        changed = true;
+                    }
+                    break;
+                case STATUS:
+                    if ((skip & Project.FIELD_STATUS) == 0) {
+                        project.setStatus(nullIfEmpty(value.getAsString()));
+                        changed = true;
+                    }
+                    break;
+                case OUTPUT:
+                    if ((skip & Project.FIELD_OUTPUT) == 0) {
+                        project.setOutputFilePath(nullIfEmpty(value.getAsString()));
+                        changed = true;
+                    }
+                    break;
+                case DURATION:
+                    if ((skip & Project.FIELD_DURATION) == 0) {
+                        project.setDuration(value.getAsLong());
+                        changed = true;
+                    }
+                    break;
+                case RESOLUTION:
+                    if ((skip & Project.FIELD_RESOLUTION) == 0) {
+                        project.setResolution(nullIfEmpty(value.getAsString()));
+                        changed = true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        // Capped at the local clock so a server running ahead can't leave the row looking newer than later edits
+        long updatedAt = Math.min(change.getUpdatedAt(), System.currentTimeMillis());
+        if (changed && updatedAt > project.getUpdatedAt()) {
+            project.setUpdatedAt(updatedAt);
+        }
+        return changed;
+    }
+
+    // Gson drops JSON nulls, so a cleared column travels as an empty string
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String nullIfEmpty(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
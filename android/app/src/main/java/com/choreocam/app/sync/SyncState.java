@@ -0,0 +1,36 @@
+package com.choreocam.app.sync;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import java.util.UUID;
+
+// Server cursor and device identity for delta sync
+public class SyncState {
+
+    private static final String PREFS_NAME = "sync_prefs";
+    private static final String SERVER_CURSOR = "server_cursor";
+    private static final String DEVICE_ID = "device_id";
+
+    private final SharedPreferences prefs;
+
+    public SyncState(Context context) {
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public long getServerCursor() {
+        return prefs.getLong(SERVER_CURSOR, 0);
+    }
+
+    public void setServerCursor(long cursor) {
+        prefs.edit().putLong(SERVER_CURSOR, cursor).apply();
+    }
+
+    public String getDeviceId() {
+        String deviceId = prefs.getString(DEVICE_ID, null);
+        if (deviceId == null) {
+            deviceId = UUID.randomUUID().toString();
+            prefs.edit().putString(DEVICE_ID, deviceId).apply();
+        }
+        return deviceId;
+    }
+}
@@ -0,0 +1,164 @@
+package com.choreocam.app.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.util.Objects;
+
+// Immutable, fully parsed app.config.json; every value is resolved with its default once, at load time
+public final class AppConfig {
+
+    // Ads
+    public final boolean adsEnabled;
+    public final String adMobAppId;
+    public final String bannerAdUnitId;
+    public final String interstitialAdUnitId;
+    public final int interstitialFrequencyMinutes;
+    public final boolean showBannerOnAllScreens;
+    public final boolean adTestMode;
+
+    // Backend
+    public final String backendBaseUrl;
+    public final String apiVersion;
+    public final int timeoutSeconds;
+    public final boolean fallbackToLocal;
+    public final boolean gzipRequests;
+    public final int httpCacheSizeMb;
+
+    // Sync
+    public final boolean autoSyncEnabled;
+    public final int syncIntervalMinutes;
+    public final int retryAttempts;
+    public final int retryDelaySeconds;
+    public final int syncPageSize;
+
+    // Catalog
+    public final int catalogMaxAgeMinutes;
+
+    // Media
+    public final int thumbnailCacheMb;
+
+    // Downloads
+    public final int maxConcurrentDownloads;
+    public final int downloadChunkKb;
+    public final int musicCacheMb;
+
+    // Uploads
+    public final boolean autoUploadExports;
+    public final int uploadChunkKb;
+
+    // Render
+    public final int maxParallelEncodes;
+
+    // IAP
+    public final boolean iapEnabled;
+    public final String proMonthlySku;
+    public final String proYearlySku;
+    public final String premiumMusicPackSku;
+
+    private AppConfig(JsonObject root) {
+        JsonObject ads = section(root, "ads");
+        adsEnabled = getBoolean(ads, "enabled", true);
+        adMobAppId = getString(ads, "admob_app_id", "");
+        bannerAdUnitId = getString(ads, "banner_ad_unit_id", "");
+        interstitialAdUnitId = getString(ads, "interstitial_ad_unit_id", "");
+        interstitialFrequencyMinutes = getInt(ads, "interstitial_frequency_minutes", 5);
+        showBannerOnAllScreens = getBoolean(ads, "show_banner_on_all_screens", true);
+        adTestMode = getBoolean(ads, "test_mode", true);
+
+        JsonObject backend = section(root, "backend");
+        backendBaseUrl = getString(backend, "base_url", "https://api.choreocam.com");
+        apiVersion = getString(backend, "api_version", "v1");
+        timeoutSeconds = getInt(backend, "timeout_seconds", 30);
+        fallbackToLocal = getBoolean(backend, "fallback_to_local", true);
+        gzipRequests = getBoolean(backend, "gzip_requests", true);
+        httpCacheSizeMb = getInt(backend, "http_cache_size_mb", 10);
+
+        JsonObject sync = section(root, "sync");
+        autoSyncEnabled = getBoolean(sync, "auto_sync_enabled", true);
+        syncIntervalMinutes = getInt(sync, "sync_interval_minutes", 15);
+        retryAttempts = getInt(sync, "retry_attempts", 3);
+        retryDelaySeconds = getInt(sync, "retry_delay_seconds", 5);
+        syncPageSize = getInt(sync, "page_size", 50);
+
+        catalogMaxAgeMinutes = getInt(section(root, "catalog"), "max_age_minutes", 60);
+
+        thumbnailCacheMb = getInt(section(root, "media"), "thumbnail_cache_mb", 64);
+
+        JsonObject downloads = section(root, "downloads");
+        maxConcurrentDownloads = getInt(downloads, "max_concurrent", 2);
+        downloadChunkKb = getInt(downloads, "chunk_kb", 1024);
+        musicCacheMb = getInt(downloads, "music_cache_mb", 512);
+
+        JsonObject uploads = section(root, "uploads");
+        autoUploadExports = getBoolean(uploads, "auto_upload_exports", true);
+        uploadChunkKb = getInt(uploads, "chunk_kb", 4096);
+
+        maxParallelEncodes = getInt(section(root, "render"), "max_parallel_encodes", 3);
+
+        JsonObject iap = section(root, "iap");
+        iapEnabled = getBoolean(iap, "enabled", true);
+        proMonthlySku = getString(iap, "pro_monthly_sku", "choreocam_pro_monthly");
+        proYearlySku = getString(iap, "pro_yearly_sku", "choreocam_pro_yearly");
+        premiumMusicPackSku = getString(iap, "premium_music_pack_sku", "choreocam_premium_music");
+    }
+
+    public static AppConfig defaults() {
+        return new AppConfig(new JsonObject());
+    }
+
+    public static AppConfig from(JsonObject root) {
+        return new AppConfig(root != null ? root : new JsonObject());
+    }
+
+    // Whether API clients built from either snapshot would be configured the same
+    public boolean sameBackend(AppConfig other) {
+        return other != null
+            && Objects.equals(backendBaseUrl, other.backendBaseUrl)
+            && Objects.equals(apiVersion, other.apiVersion)
+            && timeoutSeconds == other.timeoutSeconds
+            && gzipRequests == other.gzipRequests
+            && httpCacheSizeMb == other.httpCacheSizeMb;
+    }
+
+    // Helper methods
+    private static JsonObject section(JsonObject root, String name) {
+        JsonElement element = root.get(name);
+        return element != null && element.isJsonObject() ? element.getAsJsonObject() : new JsonObject();
+    }
+
+    private static String getString(JsonObject section, String key, String defaultValue) {
+        JsonElement element = section.get(key);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : defaultValue;
+    }
+
+    private static int getInt(JsonObject section, String key, int defaultValue) {
+        JsonElement element = section.get(key);
+        if (element != null && element.isJsonPrimitive()) {
+            try {
+                return element.getAsInt();
+            } catch (NumberFormatException e) {
+                e.printStackTrace();
+            }
+        }
+        return defaultValue;
+    }
+
+    private static boolean getBoolean(JsonObject section, String key, boolean defaultValue) {
+        JsonElement element = section.get(key);
+        if (element == null || !element.isJsonPrimitive()) {
+            return defaultValue;
+        }
+        if (element.getAsJsonPrimitive().isBoolean()) {
+            return element.getAsBoolean();
+        }
+        // Older config files quote their flags
+        String value = element.getAsString();
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        return defaultValue;
+    }
+}
@@ -1,190 +1,285 @@
 package com.choreocam.app.utils;
 
 import android.content.Context;
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import android.os.Build;
+import android.os.FileObserver;
+import android.os.Looper;
+import androidx.annotation.RequiresApi;
+import com.choreocam.app.ChoreoCamApplication;
+import com.choreocam.app.concurrent.PriorityExecutor;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
+import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 
 public class ConfigManager {
 
-    private JsonObject config;
-    private Context context;
+    private static final String CONFIG_FILE_NAME = "app.config.json";
+
+    public interface OnConfigChangedListener {
+        // Called on a background thread after the first load or a hot reload swapped in a new snapshot
+        void onConfigChanged(AppConfig previous, AppConfig current);
+    }
+
+    private final Context context;
+    private final CountDownLatch initialLoad = new CountDownLatch(1);
+    private final List<OnConfigChangedListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile AppConfig config = AppConfig.defaults();
+    // Held so the observer is not garbage collected, which would silently stop it
+    private FileObserver configObserver;
 
     public ConfigManager(Context context) {
-        this.context = context;
-        loadConfig();
+        this.context = context.getApplicationContext();
     }
 
-    private void loadConfig() {
+    // Run once from a background thread at startup; background getters only block if they win the race
+    // with it. Listeners hear about it too, since the main thread may already have used the defaults.
+    public void load() {
+        AppConfig previous = config;
+        AppConfig current = previous;
         try {
-            // Try to load from external storage first (for easy configuration)
-            File externalConfigFile = new File(context.getExternalFilesDir(null), "app.config.json");
+            current = loadConfig();
+            config = current;
+        } finally {
+            initialLoad.countDown();
+        }
+        for (OnConfigChangedListener listener : listeners) {
+            listener.onConfigChanged(previous, current);
+        }
+        watchExternalConfig();
+    }
 
-            String jsonString;
-            if (externalConfigFile.exists()) {
-                jsonString = readFromFile(externalConfigFile);
-            } else {
+    private AppConfig loadConfig() {
+        // Try to load from external storage first (for easy configuration)
+        File externalConfigFile = getExternalConfigFile();
+        try (InputStream inputStream = externalConfigFile != null && externalConfigFile.exists()
+                ? new FileInputStream(externalConfigFile)
                 // Fallback to assets
-                jsonString = readFromAssets("app.config.json");
-            }
-
-            Gson gson = new Gson();
-            config = gson.fromJson(jsonString, JsonObject.class);
+                : context.getAssets().open(CONFIG_FILE_NAME);
+             Reader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            JsonElement root = JsonParser.parseReader(reader);
+            return AppConfig.from(root.isJsonObject() ? root.getAsJsonObject() : null);
         } catch (Exception e) {
             e.printStackTrace();
-            // Initialize with default empty config
-            config = new JsonObject();
+            // Initialize with default config
+            return AppConfig.defaults();
         }
     }
 
-    private String readFromFile(File file) throws IOException {
-        StringBuilder stringBuilder = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line);
+    private File getExternalConfigFile() {
+        File dir = context.getExternalFilesDir(null);
+        return dir != null ? new File(dir, CONFIG_FILE_NAME) : null;
+    }
+
+    // Picks up edits to the external config without restarting the app
+    private void watchExternalConfig() {
+        File externalConfigFile = getExternalConfigFile();
+        if (externalConfigFile == null) {
+            return;
+        }
+        File dir = externalConfigFile.getParentFile();
+        int mask = FileObserver.CLOSE_WRITE | FileObserver.MOVED_TO | FileObserver.DELETE;
+        // The File constructor only exists from API 29; older releases take the path
+        configObserver = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+            ? new ConfigFileObserver(dir, mask)
+            : new ConfigFileObserver(dir.getPath(), mask);
+        configObserver.startWatching();
+    }
+
+    private final class ConfigFileObserver extends FileObserver {
+
+        @RequiresApi(Build.VERSION_CODES.Q)
+        ConfigFileObserver(File dir, int mask) {
+            super(dir, mask);
+        }
+
+        @SuppressWarnings("deprecation")
+        ConfigFileObserver(String path, int mask) {
+            super(path, mask);
+        }
+
+        @Override
+        public void onEvent(int event, String path) {
+            if (CONFIG_FILE_NAME.equals(path)) {
+                ChoreoCamApplication.getExecutors().diskIO().submit(PriorityExecutor.PRIORITY_NORMAL,
+                    ConfigManager.this::reload);
             }
         }
-        return stringBuilder.toString();
     }
 
-    private String readFromAssets(String fileName) throws IOException {
-        StringBuilder stringBuilder = new StringBuilder();
-        try (InputStream inputStream = context.getAssets().open(fileName);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line);
+    // Reading inside the lock keeps two reloads from swapping their snapshots in out of order
+    public void reload() {
+        AppConfig current;
+        AppConfig previous;
+        synchronized (this) {
+            current = loadConfig();
+            previous = config;
+            config = current;
+        }
+        for (OnConfigChangedListener listener : listeners) {
+            listener.onConfigChanged(previous, current);
+        }
+    }
+
+    // The whole snapshot, so related values are read consistently even across a reload. Background
+    // callers wait for the first load; the main thread never blocks and sees defaults until it lands.
+    public AppConfig getConfig() {
+        if (initialLoad.getCount() > 0 && Looper.myLooper() != Looper.getMainLooper()) {
+            try {
+                initialLoad.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
-        return stringBuilder.toString();
+        return config;
+    }
+
+    public void addListener(OnConfigChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(OnConfigChangedListener listener) {
+        listeners.remove(listener);
     }
 
     // Ads Configuration
     public boolean isAdsEnabled() {
-        return getBoolean("ads", "enabled", true);
+        return getConfig().adsEnabled;
     }
 
     public String getAdMobAppId() {
-        return getString("ads", "admob_app_id", "");
+        return getConfig().adMobAppId;
     }
 
     public String getBannerAdUnitId() {
-        return getString("ads", "banner_ad_unit_id", "");
+        return getConfig().bannerAdUnitId;
     }
 
     public String getInterstitialAdUnitId() {
-        return getString("ads", "interstitial_ad_unit_id", "");
+        return getConfig().interstitialAdUnitId;
     }
 
     public int getInterstitialFrequencyMinutes() {
-        return getInt("ads", "interstitial_frequency_minutes", 5);
+        return getConfig().interstitialFrequencyMinutes;
     }
 
     public boolean showBannerOnAllScreens() {
-        return getBoolean("ads", "show_banner_on_all_screens", true);
+        return getConfig().showBannerOnAllScreens;
     }
 
     public boolean isAdTestMode() {
-        return getBoolean("ads", "test_mode", true);
+        return getConfig().adTestMode;
     }
 
     // Backend Configuration
     public String getBackendBaseUrl() {
-        return getString("backend", "base_url", "https://api.choreocam.com");
+        return getConfig().backendBaseUrl;
     }
 
     public String getApiVersion() {
-        return getString("backend", "api_version", "v1");
+        return getConfig().apiVersion;
     }
 
     public int getTimeoutSeconds() {
-        return getInt("backend", "timeout_seconds", 30);
+        return getConfig().timeoutSeconds;
     }
 
     public boolean shouldFallbackToLocal() {
-        return getBoolean("backend", "fallback_to_local", true);
+        return getConfig().fallbackToLocal;
+    }
+
+    public boolean isRequestCompressionEnabled() {
+        return getConfig().gzipRequests;
+    }
+
+    public int getHttpCacheSizeMb() {
+        return getConfig().httpCacheSizeMb;
     }
 
     // Sync Configuration
     public boolean isAutoSyncEnabled() {
-        return getBoolean("sync", "auto_sync_enabled", true);
+        return getConfig().autoSyncEnabled;
     }
 
     public int getSyncIntervalMinutes() {
-        return getInt("sync", "sync_interval_minutes", 15);
+        return getConfig().syncIntervalMinutes;
     }
 
     public int getRetryAttempts() {
-        return getInt("sync", "retry_attempts", 3);
+        return getConfig().retryAttempts;
     }
 
     public int getRetryDelaySeconds() {
-        return getInt("sync", "retry_delay_seconds", 5);
+        return getConfig().retryDelaySeconds;
     }
 
-    // IAP Configuration
-    public boolean isIAPEnabled() {
-        return getBoolean("iap", "enabled", true);
+    // Projects uploaded per sync request; each page is committed on its own
+    public int getSyncPageSize() {
+        return getConfig().syncPageSize;
     }
 
-    public String getProMonthlySku() {
-        return getString("iap", "pro_monthly_sku", "choreocam_pro_monthly");
+    // Catalog Configuration
+    public int getCatalogMaxAgeMinutes() {
+        return getConfig().catalogMaxAgeMinutes;
     }
 
-    public String getProYearlySku() {
-        return getString("iap", "pro_yearly_sku", "choreocam_pro_yearly");
+    // Media Configuration
+    public int getThumbnailDiskCacheMb() {
+        return getConfig().thumbnailCacheMb;
     }
 
-    public String getPremiumMusicPackSku() {
-        return getString("iap", "premium_music_pack_sku", "choreocam_premium_music");
+    // Downloads Configuration
+    public int getMaxConcurrentDownloads() {
+        return getConfig().maxConcurrentDownloads;
     }
 
-    // Helper methods
-    private String getString(String section, String key, String defaultValue) {
-        try {
-            if (config.has(section)) {
-                JsonObject sectionObj = config.getAsJsonObject(section);
-                if (sectionObj.has(key)) {
-                    return sectionObj.get(key).getAsString();
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return defaultValue;
+    // Size of each Range request; a dropped connection costs at most the unflushed part of one chunk
+    public int getDownloadChunkKb() {
+        return getConfig().downloadChunkKb;
     }
 
-    private int getInt(String section, String key, int defaultValue) {
-        try {
-            if (config.has(section)) {
-                JsonObject sectionObj = config.getAsJsonObject(section);
-                if (sectionObj.has(key)) {
-                    return sectionObj.get(key).getAsInt();
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return defaultValue;
+    public int getMusicCacheMb() {
+        return getConfig().musicCacheMb;
     }
 
-    private boolean getBoolean(String section, String key, boolean defaultValue) {
-        try {
-            if (config.has(section)) {
-                JsonObject sectionObj = config.getAsJsonObject(section);
-                if (sectionObj.has(key)) {
-                    return sectionObj.get(key).getAsBoolean();
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return defaultValue;
+    // Uploads Configuration
+    public boolean isAutoUploadExportsEnabled() {
+        return getConfig().autoUploadExports;
+    }
+
+    // Size of each PATCH; only this much of the export is mapped at a time
+    public int getUploadChunkKb() {
+        return getConfig().uploadChunkKb;
+    }
+
+    // Render Configuration
+    // Upper bound on simultaneous video encodes; the device's own codec instance limit may be lower
+    public int getMaxParallelEncodes() {
+        return getConfig().maxParallelEncodes;
+    }
+
+    // IAP Configuration
+    public boolean isIAPEnabled() {
+        return getConfig().iapEnabled;
+    }
+
+    public String getProMonthlySku() {
+        return getConfig().proMonthlySku;
+    }
+
+    public String getProYearlySku() {
+        return getConfig().proYearlySku;
+    }
+
+    public String getPremiumMusicPackSku() {
+        return getConfig().premiumMusicPackSku;
     }
 }
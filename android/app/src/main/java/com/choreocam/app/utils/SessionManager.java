@@ -0,0 +1,68 @@
+package com.choreocam.app.utils;
+
+import androidx.room.InvalidationTracker;
+import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.models.User;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the signed-in user in memory; Room's invalidation tracker drops it whenever the users table changes
+public class SessionManager {
+
+    private final AppDatabase database;
+    private final Object lock = new Object();
+    // Bumped on every invalidation so a load that raced with a write never caches the stale row
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile User currentUser;
+    private volatile boolean loaded;
+
+    public SessionManager(AppDatabase database) {
+        this.database = database;
+        database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("users") {
+            @Override
+            public void onInvalidated(Set<String> tables) {
+                invalidate();
+            }
+        });
+    }
+
+    // Reads the database only on the first call after a change; must not be called on the main thread.
+    // The returned user is shared, so write changes through UserDao rather than mutating it.
+    public User getCurrentUser() {
+        if (loaded) {
+            return currentUser;
+        }
+        synchronized (lock) {
+            if (loaded) {
+                return currentUser;
+            }
+            long loadGeneration = generation.get();
+            User user = database.userDao().getCurrentUser();
+            if (loadGeneration == generation.get()) {
+                currentUser = user;
+                loaded = true;
+            }
+            return user;
+        }
+    }
+
+    // Never touches disk; null until the session has been loaded once
+    public User peekCurrentUser() {
+        return loaded ? currentUser : null;
+    }
+
+    public String getAuthToken() {
+        User user = getCurrentUser();
+        return user != null ? user.getAuthToken() : null;
+    }
+
+    // Room reports changes asynchronously, so writers call this to be visible to their own next read
+    public void invalidate() {
+        generation.incrementAndGet();
+        synchronized (lock) {
+            loaded = false;
+            currentUser = null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.choreocam.app.workers;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.choreocam.app.ChoreoCamApplication;
+import com.choreocam.app.api.TusUploadClient;
+import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.models.Project;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Uploads a project's rendered export in resumable chunks. The upload URL is stored on the project and
+// the server tracks the offset, so a dropped connection or a killed process continues from the last
+// byte the server stored instead of from zero.
+public class ExportUploadWorker extends Worker {
+
+    public static final String KEY_PROJECT_ID = "project_id";
+    public static final String KEY_UPLOADED_BYTES = "uploaded_bytes";
+    public static final String KEY_TOTAL_BYTES = "total_bytes";
+
+    // Failed chunks in a row before the run gives up and WorkManager backs off
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private final AppDatabase database;
+
+    public ExportUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+        this.database = ChoreoCamApplication.getDatabase();
+    }
+
+    // Replaces any upload still running for the project, since it belongs to an older export
+    public static void enqueue(Context context, long projectId) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ExportUploadWorker.class)
+            .setInputData(new Data.Builder().putLong(KEY_PROJECT_ID, projectId).build())
+            .setConstraints(new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build())
+            .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+            .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+            "export_upload_" + projectId,
+            ExistingWorkPolicy.REPLACE,
+            request
+        );
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Project project = database.projectDao().getProjectByIdSync(getInputData().getLong(KEY_PROJECT_ID, -1));
+        if (project == null || project.getOutputFilePath() == null || project.getUploadedAt() > 0) {
+            return Result.success();
+        }
+        File export = new File(project.getOutputFilePath());
+        if (!export.exists()) {
+            return Result.failure();
+        }
+
+        try {
+            upload(project, export);
+            return isStopped() ? Result.retry() : Result.success();
+        } catch (IOException e) {
+            e.printStackTrace();
+            // Whatever the server stored is kept; the next attempt starts from its offset
+            return Result.retry();
+        }
+    }
+
+    private void upload(Project project, File export) throws IOException {
+        TusUploadClient client = new TusUploadClient();
+        long length = export.length();
+        long chunkBytes = Math.max(256, ChoreoCamApplication.getConfigManager().getUploadChunkKb()) * 1024L;
+        String path = project.getOutputFilePath();
+
+        String uploadUrl = project.getUploadUrl();
+        long offset = uploadUrl != null ? client.getOffset(uploadUrl, length) : TusUploadClient.UNKNOWN_UPLOAD;
+        if (offset == TusUploadClient.UNKNOWN_UPLOAD) {
+            Map<String, String> metadata = new LinkedHashMap<>();
+            if (project.getProjectId() != null) {
+                metadata.put("projectId", project.getProjectId());
+            }
+            metadata.put("filename", export.getName());
+            uploadUrl = client.create(length, metadata);
+            offset = 0;
+            // Stored before any byte is sent, so a restart resumes this upload instead of creating another
+            if (database.projectDao().updateUpload(project.getId(), path, uploadUrl, 0) == 0) {
+                // The project has a newer export by now; its own worker uploads that one
+                return;
+            }
+        }
+
+        int failures = 0;
+        try (FileChannel channel = FileChannel.open(export.toPath(), StandardOpenOption.READ)) {
+            while (offset < length && !isStopped()) {
+                setProgressAsync(new Data.Builder()
+                    .putLong(KEY_UPLOADED_BYTES, offset)
+                    .putLong(KEY_TOTAL_BYTES, length)
+                    .build());
+                try {
+                    offset = client.append(uploadUrl, channel, offset, Math.min(chunkBytes, length - offset));
+                    failures = 0;
+                } catch (IOException e) {
+                    if (++failures >= MAX_CHUNK_ATTEMPTS) {
+                        throw e;
+                    }
+                    e.printStackTrace();
+                    // Part of the chunk may have arrived; continue from what the server actually has
+                    offset = client.getOffset(uploadUrl, length);
+                    if (offset == TusUploadClient.UNKNOWN_UPLOAD) {
+                        database.projectDao().updateUpload(project.getId(), path, null, 0);
+                        throw new IOException("Upload disappeared from the server", e);
+                    }
+                }
+            }
+        }
+
+        if (offset >= length) {
+            database.projectDao().updateUpload(project.getId(), path, uploadUrl, System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.choreocam.app.workers;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+import com.choreocam.app.ChoreoCamApplication;
+import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.media.ProxyGenerator;
+import com.choreocam.app.models.Clip;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+// Builds editing proxies for a project's clips in timeline order. Each finished proxy is recorded on
+// its clip right away, so a stopped run only repeats the clip it was working on.
+public class ProxyWorker extends Worker {
+
+    public static final String KEY_PROJECT_ID = "project_id";
+
+    private final AppDatabase database;
+    private final ProxyGenerator generator;
+
+    public ProxyWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+        this.database = ChoreoCamApplication.getDatabase();
+        this.generator = new ProxyGenerator(context, database.clipDao());
+    }
+
+    // A run already queued or working for the project picks up every clip that still lacks a proxy
+    public static void enqueue(Context context, long projectId) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ProxyWorker.class)
+            .setInputData(new Data.Builder().putLong(KEY_PROJECT_ID, projectId).build())
+            .setConstraints(new Constraints.Builder()
+                .setRequiresStorageNotLow(true)
+                .setRequiresBatteryNotLow(true)
+                .build())
+            .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(
+            "proxy_" + projectId,
+            ExistingWorkPolicy.KEEP,
+            request
+        );
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        List<Clip> clips = database.clipDao().getClipsForProject(getInputData().getLong(KEY_PROJECT_ID, -1));
+        for (Clip clip : clips) {
+            if (isStopped()) {
+                return Result.retry();
+            }
+            try {
+                generator.ensureProxy(clip);
+            } catch (CancellationException e) {
+                return Result.retry();
+            } catch (IOException | RuntimeException e) {
+                // The clip keeps playing from its original; one bad source must not block the rest
+                e.printStackTrace();
+            }
+        }
+        generator.deleteUnused();
+        return Result.success();
+    }
+
+    @Override
+    public void onStopped() {
+        generator.cancel();
+        super.onStopped();
+    }
+}
@@ -6,21 +6,38 @@ import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 import com.choreocam.app.ChoreoCamApplication;
 import com.choreocam.app.api.ApiClient;
+import com.choreocam.app.api.models.ProjectChange;
 import com.choreocam.app.api.models.SyncRequest;
 import com.choreocam.app.api.models.SyncResponse;
 import com.choreocam.app.database.AppDatabase;
+import com.choreocam.app.models.Clip;
 import com.choreocam.app.models.Project;
 import com.choreocam.app.models.User;
+import com.choreocam.app.sync.ProjectDelta;
+import com.choreocam.app.sync.SyncState;
 import retrofit2.Response;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 public class SyncWorker extends Worker {
 
+    // Keeps every IN (...) list well below SQLite's 999 bound-variable limit
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final AppDatabase database;
+    private final SyncState syncState;
 
     public SyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
         this.database = ChoreoCamApplication.getDatabase();
+        this.syncState = new SyncState(context);
     }
 
     @NonNull
@@ -32,49 +49,61 @@ public class SyncWorker extends Worker {
                 return Result.retry();
             }
 
-            // Get users and projects that need syncing
-            List<User> usersToSync = database.userDao().getUsersNeedingSync();
-            List<Project> projectsToSync = database.projectDao().getProjectsNeedingSync();
-
-            if (usersToSync.isEmpty() && projectsToSync.isEmpty()) {
+            // The server only syncs a signed-in account; local edits stay dirty until there is one
+            if (ChoreoCamApplication.getSessionManager().getAuthToken() == null) {
                 return Result.success();
             }
 
-            // Prepare sync request
-            SyncRequest request = new SyncRequest();
-            if (!usersToSync.isEmpty()) {
-                request.setUser(usersToSync.get(0));
+            // An empty database (fresh install or schema reset) pulls everything again
+            if (database.projectDao().getProjectCount() == 0) {
+                syncState.setServerCursor(0);
             }
-            request.setProjects(projectsToSync);
-            request.setLastSyncTimestamp(System.currentTimeMillis());
-
-            // Execute sync
-            Response<SyncResponse> response = ApiClient.getApiService()
-                .syncData(request)
-                .execute();
-
-            if (response.isSuccessful() && response.body() != null) {
-                SyncResponse syncResponse = response.body();
-
-                if (syncResponse.isSuccess()) {
-                    // Mark items as synced
-                    for (User user : usersToSync) {
-                        user.setNeedsSync(false);
-                        user.setLastSyncedAt(System.currentTimeMillis());
-                        database.userDao().update(user);
-                    }
 
-                    for (Project project : projectsToSync) {
-                        project.setNeedsSync(false);
-                        database.projectDao().update(project);
+            // Upload the backlog and pull remote edits in bounded pages; every page that succeeds stays
+            // committed. Each pull page is read against the same cursor, which only moves once the last
+            // one is in, so a run cut short pulls again from where it started.
+            int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE,
+                ChoreoCamApplication.getConfigManager().getSyncPageSize()));
+            List<User> usersToSync = database.userDao().getUsersNeedingSync();
+            long cursor = syncState.getServerCursor();
+            long afterId = 0;
+            boolean pushDone = false;
+            String pullAfter = null;
+            boolean pullDone = false;
+            // Lets later pages tell the server which of this device's fields it has just pushed
+            long walkStartedAt = 0;
+            while (!pushDone || !pullDone) {
+                // Rows edited after this point keep their dirty state when the page is committed
+                long readAt = System.currentTimeMillis();
+                List<Project> page = pushDone ? Collections.emptyList()
+                    : database.projectDao().getProjectsNeedingSyncPage(afterId, pageSize);
+                SyncResponse response = syncPage(usersToSync, page, readAt, cursor,
+                    pullDone ? 0 : pageSize, pullAfter, walkStartedAt);
+                if (response == null) {
+                    // If sync failed, retry with exponential backoff
+                    return Result.retry();
+                }
+                // The user only rides along with the first page
+                usersToSync = Collections.emptyList();
+                if (walkStartedAt == 0) {
+                    walkStartedAt = response.getServerTimestamp();
+                }
+                if (page.size() < pageSize) {
+                    pushDone = true;
+                } else {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+                if (!pullDone) {
+                    if (response.isHasMore() && response.getNextPullCursor() != null) {
+                        pullAfter = response.getNextPullCursor();
+                    } else {
+                        pullDone = true;
+                        // The server's clock, never the device's, decides what has been seen
+                        syncState.setServerCursor(response.getServerTimestamp());
                     }
-
-                    return Result.success();
                 }
             }
-
-            // If sync failed, retry with exponential backoff
-            return Result.retry();
+            return Result.success();
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -82,4 +111,141 @@ public class SyncWorker extends Worker {
             return Result.retry();
         }
     }
+
+    // Pushes one page, pulls up to pullLimit remote edits since the cursor and commits both; an empty
+    // page only pulls. Null if the request failed.
+    private SyncResponse syncPage(List<User> usersToSync, List<Project> projectsToSync, long readAt, long cursor,
+                                  int pullLimit, String pullAfter, long walkStartedAt) throws IOException {
+        // Only the changed columns of each dirty project are sent
+        List<ProjectChange> changes = new ArrayList<>(projectsToSync.size());
+        List<Long> projectIds = new ArrayList<>(projectsToSync.size());
+        List<Project> missingIds = new ArrayList<>();
+        for (Project project : projectsToSync) {
+            if (project.getProjectId() == null) {
+                project.setProjectId(UUID.randomUUID().toString());
+                project.setDirtyFields(Project.FIELD_ALL);
+                missingIds.add(project);
+            }
+            List<Clip> clips = (project.getDirtyFields() & Project.FIELD_CLIPS) != 0
+                ? database.clipDao().getClipsForProject(project.getId()) : null;
+            changes.add(ProjectDelta.build(project, clips));
+            projectIds.add(project.getId());
+        }
+        if (!missingIds.isEmpty()) {
+            database.projectDao().updateAll(missingIds);
+        }
+
+        // Prepare sync request
+        SyncRequest request = new SyncRequest();
+        if (!usersToSync.isEmpty()) {
+            request.setUser(usersToSync.get(0));
+        }
+        request.setChanges(changes);
+        request.setDeviceId(syncState.getDeviceId());
+        request.setLastSyncTimestamp(cursor);
+        request.setPullLimit(pullLimit);
+        request.setPullAfter(pullAfter);
+        request.setWalkStartedAt(walkStartedAt);
+
+        // Execute sync
+        Response<SyncResponse> response = ApiClient.getApiService()
+            .syncData(request)
+            .execute();
+
+        if (!response.isSuccessful() || response.body() == null || !response.body().isSuccess()) {
+            return null;
+        }
+        SyncResponse syncResponse = response.body();
+
+        // All bookkeeping for the page is one transaction, whatever its size
+        database.runInTransaction(() -> {
+            if (!usersToSync.isEmpty()) {
+                List<Long> userIds = new ArrayList<>(usersToSync.size());
+                for (User user : usersToSync) {
+                    userIds.add(user.getId());
+                }
+                database.userDao().markUsersSynced(userIds, syncResponse.getServerTimestamp());
+            }
+
+            List<Project> inserted = new ArrayList<>();
+            List<Project> updated = new ArrayList<>();
+            collectRemoteChanges(syncResponse.getChanges(), new HashSet<>(projectIds), readAt, inserted, updated);
+
+            // Pulled clip lists go to the clips table, not back into the project row
+            Map<Project, String> remoteClips = new HashMap<>();
+            takeRemoteClips(inserted, remoteClips);
+            takeRemoteClips(updated, remoteClips);
+
+            database.projectDao().commitSyncPage(projectIds, readAt, inserted, updated);
+            for (Map.Entry<Project, String> entry : remoteClips.entrySet()) {
+                long projectId = entry.getKey().getId();
+                List<Clip> pulled = Clip.parseList(entry.getValue());
+                // A list matching the local one keeps its rows, and with them the local-only proxies
+                if (!Clip.toJson(pulled).equals(Clip.toJson(database.clipDao().getClipsForProject(projectId)))) {
+                    database.clipDao().replaceClips(projectId, pulled);
+                }
+            }
+        });
+        return syncResponse;
+    }
+
+    private static void takeRemoteClips(List<Project> projects, Map<Project, String> remoteClips) {
+        for (Project project : projects) {
+            if (project.getClipsMetaJson() != null) {
+                remoteClips.put(project, project.getClipsMetaJson());
+                project.setClipsMetaJson(null);
+            }
+        }
+    }
+
+    private void collectRemoteChanges(List<ProjectChange> remoteChanges, Set<Long> pushedIds, long readAt,
+                                      List<Project> inserted, List<Project> updated) {
+        if (remoteChanges == null || remoteChanges.isEmpty()) {
+            return;
+        }
+
+        // Look the local rows up in bulk, staying under SQLite's bound-variable limit
+        Map<String, Project> existing = new HashMap<>();
+        for (int start = 0; start < remoteChanges.size(); start += MAX_PAGE_SIZE) {
+            List<String> keys = new ArrayList<>();
+            for (ProjectChange change : remoteChanges.subList(start, Math.min(remoteChanges.size(), start + MAX_PAGE_SIZE))) {
+                if (change.getProjectId() != null) {
+                    keys.add(change.getProjectId());
+                }
+            }
+            for (Project project : database.projectDao().getProjectsByProjectIds(keys)) {
+                existing.put(project.getProjectId(), project);
+            }
+        }
+
+        User currentUser = ChoreoCamApplication.getSessionManager().getCurrentUser();
+        for (ProjectChange change : remoteChanges) {
+            if (change.getProjectId() == null) {
+                continue;
+            }
+            Project project = existing.get(change.getProjectId());
+            if (project == null) {
+                // Created on another device
+                project = new Project();
+                project.setProjectId(change.getProjectId());
+                project.setNeedsSync(false);
+                project.setDirtyFields(0);
+                if (currentUser != null) {
+                    project.setUserId(currentUser.getId());
+                }
+                ProjectDelta.apply(change, project);
+                existing.put(change.getProjectId(), project);
+                inserted.add(project);
+            } else if (project.getId() != 0) {
+                // Mirror markProjectsSynced so writing the row back doesn't restore the pushed dirty state
+                if (pushedIds.contains(project.getId()) && project.getUpdatedAt() < readAt) {
+                    project.setDirtyFields(0);
+                    project.setNeedsSync(false);
+                }
+                if (ProjectDelta.apply(change, project)) {
+                    updated.add(project);
+                }
+            }
+        }
+    }
 }
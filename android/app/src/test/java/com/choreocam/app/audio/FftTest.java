@@ -0,0 +1,81 @@
+package com.choreocam.app.audio;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class FftTest {
+
+    private static final float TOLERANCE = 1e-3f;
+
+    @Test
+    public void impulseHasAFlatSpectrum() {
+        Fft fft = new Fft(64);
+        float[] real = new float[64];
+        float[] imag = new float[64];
+        real[0] = 1f;
+        fft.transform(real, imag);
+
+        for (int k = 0; k < 64; k++) {
+            assertEquals(1f, real[k], TOLERANCE);
+            assertEquals(0f, imag[k], TOLERANCE);
+        }
+    }
+
+    @Test
+    public void cosineLandsInItsBin() {
+        int size = 256;
+        int bin = 10;
+        Fft fft = new Fft(size);
+        float[] real = new float[size];
+        float[] imag = new float[size];
+        for (int i = 0; i < size; i++) {
+            real[i] = (float) Math.cos(2 * Math.PI * bin * i / size);
+        }
+        fft.transform(real, imag);
+
+        for (int k = 0; k < size; k++) {
+            float magnitude = (float) Math.hypot(real[k], imag[k]);
+            float expected = k == bin || k == size - bin ? size / 2f : 0f;
+            assertEquals("bin " + k, expected, magnitude, 0.01f);
+        }
+    }
+
+    @Test
+    public void matchesTheDirectTransform() {
+        int size = 32;
+        Random random = new Random(7);
+        float[] real = new float[size];
+        float[] imag = new float[size];
+        for (int i = 0; i < size; i++) {
+            real[i] = random.nextFloat() * 2 - 1;
+            imag[i] = random.nextFloat() * 2 - 1;
+        }
+        double[] expectedReal = new double[size];
+        double[] expectedImag = new double[size];
+        for (int k = 0; k < size; k++) {
+            for (int n = 0; n < size; n++) {
+                double angle = -2 * Math.PI * k * n / size;
+                expectedReal[k] += real[n] * Math.cos(angle) - imag[n] * Math.sin(angle);
+                expectedImag[k] += real[n] * Math.sin(angle) + imag[n] * Math.cos(angle);
+            }
+        }
+        new Fft(size).transform(real, imag);
+
+        for (int k = 0; k < size; k++) {
+            assertEquals(expectedReal[k], real[k], TOLERANCE);
+            assertEquals(expectedImag[k], imag[k], TOLERANCE);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsSizesThatAreNotPowersOfTwo() {
+        new Fft(1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTinySizes() {
+        new Fft(1);
+    }
+}
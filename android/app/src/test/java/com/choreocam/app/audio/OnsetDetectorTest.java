@@ -0,0 +1,101 @@
+package com.choreocam.app.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ShortBuffer;
+import java.util.Random;
+import org.junit.Test;
+
+public class OnsetDetectorTest {
+
+    private static final int SAMPLE_RATE = 44100;
+
+    @Test
+    public void findsTheTempoOfAClickTrack() {
+        OnsetDetector detector = new OnsetDetector(SAMPLE_RATE);
+        float[] track = clickTrack(120, 20);
+        detector.process(track, 0, track.length);
+        BeatAnalysis analysis = detector.finish();
+
+        assertEquals(120, analysis.getBpm(), 2);
+        long[] beats = analysis.getBeatsMs();
+        assertTrue(beats.length >= 35);
+        for (int i = 1; i < beats.length; i++) {
+            assertEquals("beat " + i, 500, beats[i] - beats[i - 1], 30);
+        }
+    }
+
+    @Test
+    public void beatsFollowTheClicks() {
+        OnsetDetector detector = new OnsetDetector(SAMPLE_RATE);
+        float[] track = clickTrack(100, 20);
+        detector.process(track, 0, track.length);
+        BeatAnalysis analysis = detector.finish();
+
+        assertEquals(100, analysis.getBpm(), 2);
+        for (long beat : analysis.getBeatsMs()) {
+            // Within a couple of analysis hops of a click at 250ms + n * 600ms
+            long offset = Math.floorMod(beat - 250, 600);
+            assertTrue("beat at " + beat, Math.min(offset, 600 - offset) <= 60);
+        }
+    }
+
+    @Test
+    public void downmixesInterleavedPcm() {
+        float[] mono = clickTrack(120, 20);
+        short[] stereo = new short[mono.length * 2];
+        for (int i = 0; i < mono.length; i++) {
+            short sample = (short) Math.round(mono[i] * 16000);
+            stereo[2 * i] = sample;
+            stereo[2 * i + 1] = sample;
+        }
+        OnsetDetector detector = new OnsetDetector(SAMPLE_RATE);
+        // Fed in decoder-sized chunks
+        for (int offset = 0; offset < stereo.length; offset += 4096) {
+            detector.processPcm16(ShortBuffer.wrap(stereo, offset, Math.min(4096, stereo.length - offset)), 2);
+        }
+
+        assertEquals(120, detector.finish().getBpm(), 2);
+    }
+
+    @Test
+    public void tooShortForATempo() {
+        OnsetDetector detector = new OnsetDetector(SAMPLE_RATE);
+        float[] track = clickTrack(120, 1);
+        detector.process(track, 0, track.length);
+        BeatAnalysis analysis = detector.finish();
+
+        assertEquals(0, analysis.getBpm());
+        assertEquals(0, analysis.getBeatsMs().length);
+    }
+
+    @Test
+    public void resetForgetsEarlierAudio() {
+        OnsetDetector detector = new OnsetDetector(SAMPLE_RATE);
+        float[] track = clickTrack(120, 20);
+        detector.process(track, 0, track.length);
+        detector.reset();
+        detector.process(track, 0, SAMPLE_RATE);
+
+        assertEquals(0, detector.finish().getBpm());
+    }
+
+    // Short decaying noise bursts over quiet noise, the first at 250ms
+    private static float[] clickTrack(int bpm, int seconds) {
+        Random random = new Random(42);
+        float[] samples = new float[SAMPLE_RATE * seconds];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (random.nextFloat() * 2 - 1) * 0.01f;
+        }
+        int interval = SAMPLE_RATE * 60 / bpm;
+        int clickLength = SAMPLE_RATE / 50;
+        for (int start = SAMPLE_RATE / 4; start < samples.length; start += interval) {
+            for (int i = 0; i < clickLength && start + i < samples.length; i++) {
+                float envelope = 1f - (float) i / clickLength;
+                samples[start + i] += (random.nextFloat() * 2 - 1) * 0.8f * envelope;
+            }
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,209 @@
+package com.choreocam.app.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PriorityExecutorTest {
+
+    private PriorityExecutor executor;
+    private CountDownLatch gate;
+    private final List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() throws InterruptedException {
+        executor = new PriorityExecutor("test", 1, 0);
+        // Hold the only thread so everything submitted next waits in the queue
+        gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(PriorityExecutor.PRIORITY_LOW, () -> {
+            started.countDown();
+            await(gate);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        gate.countDown();
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void higherPriorityRunsFirst() throws Exception {
+        executor.submit(PriorityExecutor.PRIORITY_LOW, record("low"));
+        executor.submit(PriorityExecutor.PRIORITY_NORMAL, record("normal"));
+        executor.submit(PriorityExecutor.PRIORITY_HIGH, record("high"));
+
+        drain();
+        assertEquals(Arrays.asList("high", "normal", "low"), order);
+    }
+
+    @Test
+    public void equalPrioritiesRunInSubmissionOrder() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            executor.submit(PriorityExecutor.PRIORITY_NORMAL, record("n" + i));
+            executor.submit(PriorityExecutor.PRIORITY_HIGH, record("h" + i));
+        }
+
+        drain();
+        assertEquals(Arrays.asList("h0", "h1", "h2", "h3", "h4", "n0", "n1", "n2", "n3", "n4"), order);
+    }
+
+    @Test
+    public void plainExecuteAndSubmitRunAtNormalPriority() throws Exception {
+        executor.submit(PriorityExecutor.PRIORITY_LOW, record("low"));
+        executor.execute(record("execute"));
+        executor.submit(record("submit"));
+        executor.submit(PriorityExecutor.PRIORITY_HIGH, record("high"));
+
+        drain();
+        assertEquals(Arrays.asList("high", "execute", "submit", "low"), order);
+    }
+
+    @Test
+    public void callableResultIsReturned() throws Exception {
+        Future<Integer> future = executor.submit(PriorityExecutor.PRIORITY_HIGH, () -> 6 * 7);
+        gate.countDown();
+
+        assertEquals(Integer.valueOf(42), future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancelledTaskNeverRuns() throws Exception {
+        Future<?> cancelled = executor.submit(PriorityExecutor.PRIORITY_HIGH, record("cancelled"));
+        executor.submit(PriorityExecutor.PRIORITY_NORMAL, record("kept"));
+        assertTrue(cancelled.cancel(false));
+
+        drain();
+        assertEquals(Collections.singletonList("kept"), order);
+        assertTrue(cancelled.isCancelled());
+    }
+
+    @Test
+    public void destroyedOwnerDropsQueuedWork() throws Exception {
+        FakeLifecycle lifecycle = new FakeLifecycle(Lifecycle.State.RESUMED);
+        Future<?> future = executor.submit(() -> lifecycle, PriorityExecutor.PRIORITY_HIGH, record("owned"));
+        executor.submit(PriorityExecutor.PRIORITY_NORMAL, record("other"));
+        assertEquals(1, lifecycle.observers.size());
+
+        lifecycle.destroy();
+
+        assertTrue(future.isCancelled());
+        assertFalse(executor.getQueue().contains(future));
+        assertEquals(1, executor.getStats().cancelledTasks);
+        drain();
+        assertEquals(Collections.singletonList("other"), order);
+    }
+
+    @Test
+    public void alreadyDestroyedOwnerNeverQueues() throws Exception {
+        FakeLifecycle lifecycle = new FakeLifecycle(Lifecycle.State.DESTROYED);
+        Future<?> future = executor.submit(() -> lifecycle, record("owned"));
+
+        assertTrue(future.isCancelled());
+        assertTrue(lifecycle.observers.isEmpty());
+        assertEquals(0, executor.getQueue().size());
+    }
+
+    @Test
+    public void runningTaskIsNotInterruptedByItsOwner() throws Exception {
+        FakeLifecycle lifecycle = new FakeLifecycle(Lifecycle.State.RESUMED);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        Future<?> future = executor.submit(() -> lifecycle, PriorityExecutor.PRIORITY_HIGH, () -> {
+            running.countDown();
+            await(release);
+            finished.set(!Thread.currentThread().isInterrupted());
+        });
+        gate.countDown();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        lifecycle.destroy();
+        release.countDown();
+        future.get(5, TimeUnit.SECONDS);
+
+        assertFalse(future.isCancelled());
+        assertTrue(finished.get());
+    }
+
+    @Test
+    public void statsTrackTheQueue() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            executor.submit(PriorityExecutor.PRIORITY_NORMAL, record("n" + i));
+        }
+        assertEquals(3, executor.getStats().queueDepth);
+        assertTrue(executor.getStats().peakQueueDepth >= 3);
+
+        drain();
+        assertEquals(0, executor.getStats().queueDepth);
+    }
+
+    private Runnable record(String name) {
+        return () -> order.add(name);
+    }
+
+    // Opens the gate and waits for everything queued before this call to finish
+    private void drain() throws Exception {
+        Future<?> last = executor.submit(Integer.MAX_VALUE, () -> { });
+        gate.countDown();
+        last.get(5, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class FakeLifecycle extends Lifecycle {
+        final List<LifecycleEventObserver> observers = new ArrayList<>();
+        private State state;
+
+        FakeLifecycle(State state) {
+            this.state = state;
+        }
+
+        void destroy() {
+            state = State.DESTROYED;
+            for (LifecycleEventObserver observer : new ArrayList<>(observers)) {
+                observer.onStateChanged(() -> this, Event.ON_DESTROY);
+            }
+        }
+
+        @Override
+        public void addObserver(LifecycleObserver observer) {
+            observers.add((LifecycleEventObserver) observer);
+        }
+
+        @Override
+        public void removeObserver(LifecycleObserver observer) {
+            observers.remove(observer);
+        }
+
+        @Override
+        public State getCurrentState() {
+            return state;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.choreocam.app.edit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.choreocam.app.models.Clip;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class AutoEditPlannerTest {
+
+    private final AutoEditPlanner planner = new AutoEditPlanner();
+
+    @Test
+    public void cutsLandOnBeats() {
+        BeatTimeline beats = grid(500, 10000);
+        EditDecisionList edl = planner.plan(clips(3000, 3000, 3000), beats);
+
+        assertTrue(edl.size() > 1);
+        for (int i = 0; i < edl.size() - 1; i++) {
+            long cut = edl.getTimelineStartMs(i) + edl.getLengthMs(i);
+            assertEquals("cut " + i + " is off the 500ms grid", 0, cut % 500);
+        }
+        assertContiguous(edl);
+    }
+
+    @Test
+    public void stopsAtTheEndOfTheSong() {
+        EditDecisionList edl = planner.plan(clips(5000, 5000), grid(500, 4000));
+
+        assertEquals(4000, edl.getDurationMs());
+        assertContiguous(edl);
+    }
+
+    @Test
+    public void endsWhenTheFootageRunsOut() {
+        long[] durations = {1200, 1800};
+        EditDecisionList edl = planner.plan(clips(durations), grid(500, 60000));
+
+        assertTrue(edl.getDurationMs() <= 3000);
+        for (int i = 0; i < edl.size(); i++) {
+            assertTrue(edl.getSourceOutMs(i) <= durations[edl.getClipIndex(i)]);
+        }
+        assertNoFootageRepeats(edl);
+        assertContiguous(edl);
+    }
+
+    @Test
+    public void shortRemaindersAreNotReplayedFromTheStart() {
+        // Beat-aligned cuts leave 200ms and 300ms of the clips unused, too little for another segment
+        EditDecisionList edl = planner.plan(clips(1200, 1800), grid(500, 60000));
+
+        assertEquals(2, edl.size());
+        assertEquals(0, edl.getSourceInMs(0));
+        assertEquals(1000, edl.getSourceOutMs(0));
+        assertEquals(0, edl.getSourceInMs(1));
+        assertEquals(1500, edl.getSourceOutMs(1));
+        assertEquals(2500, edl.getDurationMs());
+    }
+
+    @Test
+    public void longClipsAreUsedUpBeforeStopping() {
+        EditDecisionList edl = planner.plan(clips(1200, 6000), grid(500, 60000));
+
+        long used = 0;
+        for (int i = 0; i < edl.size(); i++) {
+            if (edl.getClipIndex(i) == 1) {
+                used += edl.getLengthMs(i);
+            }
+        }
+        assertTrue(6000 - used < AutoEditPlanner.DEFAULT_MIN_SEGMENT_MS);
+        assertNoFootageRepeats(edl);
+    }
+
+    @Test
+    public void segmentsStayInsideTheirTrim() {
+        Clip trimmed = clip(10000);
+        trimmed.setTrimStartMs(2000);
+        trimmed.setTrimEndMs(6000);
+        EditDecisionList edl = planner.plan(Collections.singletonList(trimmed), grid(500, 60000));
+
+        assertEquals(4000, edl.getDurationMs());
+        for (int i = 0; i < edl.size(); i++) {
+            assertTrue(edl.getSourceInMs(i) >= 2000);
+            assertTrue(edl.getSourceOutMs(i) <= 6000);
+        }
+    }
+
+    @Test
+    public void skipsClipsShorterThanASegment() {
+        EditDecisionList edl = planner.plan(clips(3000, 100, 3000), grid(500, 6000));
+
+        for (int i = 0; i < edl.size(); i++) {
+            assertTrue(edl.getClipIndex(i) != 1);
+        }
+        assertEquals(6000, edl.getDurationMs());
+    }
+
+    @Test
+    public void withoutBeatsEachClipRunsOut() {
+        EditDecisionList edl = planner.plan(clips(1500, 2500), new BeatTimeline(new long[0], 0, 0));
+
+        assertEquals(2, edl.size());
+        assertEquals(1500, edl.getLengthMs(0));
+        assertEquals(2500, edl.getLengthMs(1));
+    }
+
+    @Test
+    public void nothingToPlan() {
+        assertEquals(0, planner.plan(new ArrayList<>(), grid(500, 4000)).size());
+        assertEquals(0, planner.plan(clips(100, 200), grid(500, 4000)).size());
+    }
+
+    @Test
+    public void reusesTheOutputList() {
+        EditDecisionList out = new EditDecisionList();
+        long[] starts = {0, 0};
+        long[] lengths = {3000, 3000};
+        int first = planner.plan(grid(500, 4000), starts, lengths, 2, out);
+        int second = planner.plan(grid(500, 4000), starts, lengths, 2, out);
+
+        assertEquals(first, second);
+        assertEquals(second, out.size());
+    }
+
+    private static void assertNoFootageRepeats(EditDecisionList edl) {
+        for (int i = 0; i < edl.size(); i++) {
+            for (int j = i + 1; j < edl.size(); j++) {
+                if (edl.getClipIndex(i) == edl.getClipIndex(j)) {
+                    assertTrue("segments " + i + " and " + j + " overlap",
+                        edl.getSourceOutMs(i) <= edl.getSourceInMs(j) || edl.getSourceOutMs(j) <= edl.getSourceInMs(i));
+                }
+            }
+        }
+    }
+
+    private static void assertContiguous(EditDecisionList edl) {
+        long position = 0;
+        for (int i = 0; i < edl.size(); i++) {
+            assertEquals(position, edl.getTimelineStartMs(i));
+            assertTrue(edl.getLengthMs(i) > 0);
+            position += edl.getLengthMs(i);
+        }
+        assertEquals(position, edl.getDurationMs());
+    }
+
+    private static BeatTimeline grid(long intervalMs, long durationMs) {
+        long[] beats = new long[(int) (durationMs / intervalMs) + 1];
+        for (int i = 0; i < beats.length; i++) {
+            beats[i] = i * intervalMs;
+        }
+        return new BeatTimeline(beats, beats.length, durationMs);
+    }
+
+    private static List<Clip> clips(long... durationsMs) {
+        List<Clip> clips = new ArrayList<>();
+        for (long duration : durationsMs) {
+            clips.add(clip(duration));
+        }
+        return clips;
+    }
+
+    private static Clip clip(long durationMs) {
+        Clip clip = new Clip();
+        clip.setUri("content://clip/" + durationMs);
+        clip.setDurationMs(durationMs);
+        return clip;
+    }
+}
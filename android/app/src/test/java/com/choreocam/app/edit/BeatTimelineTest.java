@@ -0,0 +1,110 @@
+package com.choreocam.app.edit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.choreocam.app.models.MusicTrack;
+import org.junit.Test;
+
+public class BeatTimelineTest {
+
+    @Test
+    public void parsesMillisecondArrays() {
+        assertArrayEquals(new long[] {120, 620, 1120}, BeatTimeline.parseCuePoints("[120, 620, 1120]"));
+    }
+
+    @Test
+    public void parsesCueObjects() {
+        assertArrayEquals(new long[] {250, 500, 1500},
+            BeatTimeline.parseCuePoints("[{\"timeMs\": 250}, {\"time\": 0.5, \"label\": \"drop\"}, {\"time\": 1.5}]"));
+    }
+
+    @Test
+    public void sortsOutOfOrderCues() {
+        assertArrayEquals(new long[] {100, 200, 300}, BeatTimeline.parseCuePoints("[300, 100, 200]"));
+    }
+
+    @Test
+    public void growsPastTheInitialBuffer() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            json.append(i > 0 ? "," : "").append(i * 10);
+        }
+        long[] beats = BeatTimeline.parseCuePoints(json.append(']').toString());
+
+        assertEquals(200, beats.length);
+        assertEquals(1990, beats[199]);
+    }
+
+    @Test
+    public void ignoresMalformedInput() {
+        assertEquals(0, BeatTimeline.parseCuePoints(null).length);
+        assertEquals(0, BeatTimeline.parseCuePoints("").length);
+        assertEquals(0, BeatTimeline.parseCuePoints("{\"beats\": [1, 2]}").length);
+        assertEquals(0, BeatTimeline.parseCuePoints("[1, 2").length);
+        assertArrayEquals(new long[] {5}, BeatTimeline.parseCuePoints("[\"x\", -4, 5, null]"));
+    }
+
+    @Test
+    public void gridFromBpmIncludesTheEnd() {
+        assertArrayEquals(new long[] {0, 500, 1000, 1500, 2000}, BeatTimeline.gridFromBpm(120, 2000));
+        assertEquals(0, BeatTimeline.gridFromBpm(0, 2000).length);
+        assertEquals(0, BeatTimeline.gridFromBpm(120, 0).length);
+    }
+
+    @Test
+    public void firstBeatAfterIsStrict() {
+        BeatTimeline beats = new BeatTimeline(new long[] {0, 500, 1000}, 3, 1500);
+
+        assertEquals(0, beats.firstBeatAfter(-1));
+        assertEquals(1, beats.firstBeatAfter(0));
+        assertEquals(1, beats.firstBeatAfter(499));
+        assertEquals(2, beats.firstBeatAfter(500));
+        assertEquals(3, beats.firstBeatAfter(1000));
+    }
+
+    @Test
+    public void countLimitsTheBackingArray() {
+        BeatTimeline beats = new BeatTimeline(new long[] {0, 500, 1000, 0, 0}, 3, 1500);
+
+        assertEquals(3, beats.getCount());
+        assertEquals(3, beats.firstBeatAfter(5000));
+    }
+
+    @Test
+    public void trackPrefersCuePoints() {
+        MusicTrack track = new MusicTrack();
+        track.setBpm(120);
+        track.setDurationMs(3000);
+        track.setCuePointsJson("[100, 900]");
+        BeatTimeline beats = BeatTimeline.forTrack(track);
+
+        assertEquals(2, beats.getCount());
+        assertEquals(900, beats.getBeatMs(1));
+        assertEquals(3000, beats.getDurationMs());
+    }
+
+    @Test
+    public void trackFallsBackToItsBpm() {
+        MusicTrack track = new MusicTrack();
+        track.setBpm(60);
+        track.setDurationMs(3000);
+        BeatTimeline beats = BeatTimeline.forTrack(track);
+
+        assertEquals(4, beats.getCount());
+        assertEquals(3000, beats.getBeatMs(3));
+    }
+
+    @Test
+    public void missingTrackHasNoBeats() {
+        assertTrue(BeatTimeline.forTrack(null).isEmpty());
+    }
+
+    @Test
+    public void toJsonRoundTrips() {
+        long[] beats = {0, 480, 960};
+        assertArrayEquals(beats, BeatTimeline.parseCuePoints(BeatTimeline.toJson(beats, 3)));
+        assertEquals("[]", BeatTimeline.toJson(beats, 0));
+    }
+}
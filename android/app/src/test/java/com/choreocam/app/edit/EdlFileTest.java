@@ -0,0 +1,165 @@
+package com.choreocam.app.edit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.choreocam.app.render.PresetEffects;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EdlFileTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("edl").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void writeThenOpenRoundTrips() throws IOException {
+        EditDecisionList edl = new EditDecisionList();
+        edl.add(0, 0, 1500, 0);
+        edl.add(2, 400, 900, 1500);
+        edl.add(1, 10000, 12250, 2000);
+        PresetEffects effects = PresetEffects.of(0.1f, 1.2f, 0.8f, 0.3f,
+            new int[] {PresetEffects.TRANSITION_FADE_BLACK, PresetEffects.TRANSITION_FLASH_WHITE}, new long[] {250, 120});
+        File file = new File(dir, "project_1.edl");
+        EdlFile.write(file, edl, effects, 1234);
+
+        EdlFile read = EdlFile.open(file);
+        assertEquals(3, read.size());
+        for (int i = 0; i < edl.size(); i++) {
+            assertEquals(edl.getClipIndex(i), read.getClipIndex(i));
+            assertEquals(edl.getSourceInMs(i), read.getSourceInMs(i));
+            assertEquals(edl.getSourceOutMs(i), read.getSourceOutMs(i));
+            assertEquals(edl.getTimelineStartMs(i), read.getTimelineStartMs(i));
+            assertEquals(edl.getLengthMs(i), read.getLengthMs(i));
+        }
+        assertEquals(4250, read.getDurationMs());
+        assertEquals(1234, read.getPresetStamp());
+
+        PresetEffects readEffects = read.getEffects();
+        assertEquals(0.1f, readEffects.getBrightness(), 0f);
+        assertEquals(1.2f, readEffects.getContrast(), 0f);
+        assertEquals(0.8f, readEffects.getSaturation(), 0f);
+        assertEquals(0.3f, readEffects.getVignette(), 0f);
+        assertEquals(2, readEffects.getTransitionCount());
+        assertEquals(PresetEffects.TRANSITION_FLASH_WHITE, readEffects.getTransitionType(1));
+        assertEquals(120, readEffects.getTransitionDurationMs(1));
+    }
+
+    @Test
+    public void rewriteReplacesTheFileAndLeavesNoTemp() throws IOException {
+        File file = new File(dir, "project_1.edl");
+        EditDecisionList first = new EditDecisionList();
+        first.add(0, 0, 1000, 0);
+        EdlFile.write(file, first, null, 1);
+        EditDecisionList second = new EditDecisionList();
+        second.add(1, 0, 500, 0);
+        second.add(0, 0, 700, 500);
+        EdlFile.write(file, second, null, 2);
+
+        EdlFile read = EdlFile.open(file);
+        assertEquals(2, read.size());
+        assertEquals(2, read.getPresetStamp());
+        assertEquals(1, dir.listFiles().length);
+    }
+
+    @Test
+    public void emptyListRoundTrips() throws IOException {
+        File file = new File(dir, "empty.edl");
+        EdlFile.write(file, new EditDecisionList(), PresetEffects.none(), 0);
+
+        EdlFile read = EdlFile.open(file);
+        assertTrue(read.isEmpty());
+        assertEquals(0, read.getDurationMs());
+    }
+
+    @Test
+    public void convertsTheJsonFormat() throws IOException {
+        EditDecisionList edl = new EditDecisionList();
+        edl.add(1, 200, 1200, 0);
+        edl.add(0, 0, 800, 1000);
+        File file = new File(dir, "converted.edl");
+        EdlFile.convert(edl.toJson(), null, file);
+
+        EdlFile read = EdlFile.open(file);
+        assertEquals(2, read.size());
+        assertEquals(200, read.getSourceInMs(0));
+        assertEquals(1000, read.getTimelineStartMs(1));
+        assertEquals(0, read.getPresetStamp());
+    }
+
+    @Test
+    public void readerSkipsALongerHeader() throws IOException {
+        EditDecisionList edl = new EditDecisionList();
+        edl.add(3, 100, 600, 0);
+        ByteBuffer encoded = EdlFile.encode(edl, null, 9);
+        int extra = 16;
+        ByteBuffer grown = ByteBuffer.allocate(encoded.limit() + extra).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < EdlFile.HEADER_SIZE; i++) {
+            grown.put(encoded.get(i));
+        }
+        grown.position(EdlFile.HEADER_SIZE + extra);
+        for (int i = EdlFile.HEADER_SIZE; i < encoded.limit(); i++) {
+            grown.put(encoded.get(i));
+        }
+        grown.putShort(6, (short) (EdlFile.HEADER_SIZE + extra));
+        grown.flip();
+
+        EdlFile read = EdlFile.wrap(grown);
+        assertEquals(3, read.getClipIndex(0));
+        assertEquals(500, read.getLengthMs(0));
+    }
+
+    @Test
+    public void rejectsForeignAndTruncatedFiles() {
+        ByteBuffer foreign = ByteBuffer.allocate(EdlFile.HEADER_SIZE);
+        assertRejected(foreign);
+
+        EditDecisionList edl = new EditDecisionList();
+        edl.add(0, 0, 1000, 0);
+        ByteBuffer encoded = EdlFile.encode(edl, null, 0);
+        encoded.limit(encoded.limit() - 1);
+        assertRejected(encoded.slice());
+
+        ByteBuffer newer = EdlFile.encode(edl, null, 0).order(ByteOrder.LITTLE_ENDIAN);
+        newer.putShort(4, (short) (EdlFile.VERSION + 1));
+        assertRejected(newer);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void segmentIndexIsChecked() throws IOException {
+        EditDecisionList edl = new EditDecisionList();
+        edl.add(0, 0, 1000, 0);
+        EdlFile.wrap(EdlFile.encode(edl, null, 0)).getSourceInMs(1);
+    }
+
+    private static void assertRejected(ByteBuffer buffer) {
+        try {
+            EdlFile.wrap(buffer);
+            fail("Accepted an invalid EDL");
+        } catch (IOException expected) {
+            // Rejected as it should be
+        }
+    }
+}
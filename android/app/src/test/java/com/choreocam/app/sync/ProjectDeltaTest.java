@@ -0,0 +1,151 @@
+package com.choreocam.app.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.choreocam.app.api.models.ProjectChange;
+import com.choreocam.app.models.Project;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+public class ProjectDeltaTest {
+
+    @Test
+    public void appliesCleanFields() {
+        Project project = project(0);
+        JsonObject fields = new JsonObject();
+        fields.addProperty(ProjectDelta.TITLE, "Remote title");
+        fields.addProperty(ProjectDelta.MUSIC, 42L);
+        fields.addProperty(ProjectDelta.DESCRIPTION, "");
+
+        assertTrue(ProjectDelta.apply(new ProjectChange("p1", 2000, fields), project));
+        assertEquals("Remote title", project.getTitle());
+        assertEquals(42, project.getMusicId());
+        // A cleared column travels as an empty string
+        assertNull(project.getDescription());
+        assertEquals(2000, project.getUpdatedAt());
+    }
+
+    @Test
+    public void keepsFieldsWithUnsyncedLocalEdits() {
+        Project project = project(Project.FIELD_TITLE | Project.FIELD_EDIT_DECISIONS);
+        JsonObject fields = new JsonObject();
+        fields.addProperty(ProjectDelta.TITLE, "Remote title");
+        fields.addProperty(ProjectDelta.EDIT_DECISIONS, "[]");
+        fields.addProperty(ProjectDelta.STATUS, "rendered");
+
+        assertTrue(ProjectDelta.apply(new ProjectChange("p1", 2000, fields), project));
+        assertEquals("Local title", project.getTitle());
+        assertEquals("[{\"clip\":0,\"in\":0,\"out\":1000,\"at\":0}]", project.getEditDecisionListJson());
+        assertEquals("/edl/p1.edl", project.getEdlPath());
+        assertEquals("rendered", project.getStatus());
+        // Local edits still have to be pushed
+        assertEquals(Project.FIELD_TITLE | Project.FIELD_EDIT_DECISIONS, project.getDirtyFields());
+    }
+
+    @Test
+    public void reportsNoChangeWhenEveryFieldIsDirty() {
+        Project project = project(Project.FIELD_ALL);
+        JsonObject fields = new JsonObject();
+        fields.addProperty(ProjectDelta.TITLE, "Remote title");
+        fields.addProperty(ProjectDelta.DURATION, 9000L);
+
+        assertFalse(ProjectDelta.apply(new ProjectChange("p1", 5000, fields), project));
+        assertEquals(1000, project.getUpdatedAt());
+    }
+
+    @Test
+    public void newEditDecisionsDropTheBinaryEdl() {
+        Project project = project(0);
+        JsonObject fields = new JsonObject();
+        fields.addProperty(ProjectDelta.EDIT_DECISIONS, "[{\"clip\":1,\"in\":0,\"out\":500,\"at\":0}]");
+
+        assertTrue(ProjectDelta.apply(new ProjectChange("p1", 2000, fields), project));
+        assertEquals("[{\"clip\":1,\"in\":0,\"out\":500,\"at\":0}]", project.getEditDecisionListJson());
+        assertNull(project.getEdlPath());
+    }
+
+    @Test
+    public void echoedEditDecisionsKeepTheBinaryEdl() {
+        Project project = project(0);
+        JsonObject fields = new JsonObject();
+        fields.addProperty(ProjectDelta.EDIT_DECISIONS, project.getEditDecisionListJson());
+
+        assertFalse(ProjectDelta.apply(new ProjectChange("p1", 2000, fields), project));
+        assertEquals("/edl/p1.edl", project.getEdlPath());
+        assertEquals(1000, project.getUpdatedAt());
+    }
+
+    @Test
+    public void remoteClipsAreLeftForTheCaller() {
+        Project project = project(0);
+        JsonObject fields = new JsonObject();
+        fields.addProperty(ProjectDelta.CLIPS, "[{\"uri\":\"content://a\"}]");
+
+        assertTrue(ProjectDelta.apply(new ProjectChange("p1", 2000, fields), project));
+        assertEquals("[{\"uri\":\"content://a\"}]", project.getClipsMetaJson());
+    }
+
+    @Test
+    public void updatedAtNeverMovesBackOrAheadOfTheClock() {
+        Project project = project(0);
+        JsonObject fields = new JsonObject();
+        fields.addProperty(ProjectDelta.TITLE, "Older");
+        ProjectDelta.apply(new ProjectChange("p1", 500, fields), project);
+        assertEquals(1000, project.getUpdatedAt());
+
+        long before = System.currentTimeMillis();
+        ProjectDelta.apply(new ProjectChange("p1", Long.MAX_VALUE, fields), project);
+        assertTrue(project.getUpdatedAt() >= before);
+        assertTrue(project.getUpdatedAt() <= System.currentTimeMillis());
+    }
+
+    @Test
+    public void ignoresNullsAndUnknownFields() {
+        Project project = project(0);
+        JsonObject fields = new JsonObject();
+        fields.add(ProjectDelta.TITLE, null);
+        fields.addProperty("somethingNew", "value");
+
+        assertFalse(ProjectDelta.apply(new ProjectChange("p1", 2000, fields), project));
+        assertEquals("Local title", project.getTitle());
+        assertFalse(ProjectDelta.apply(new ProjectChange("p1", 2000, null), project));
+    }
+
+    @Test
+    public void buildSendsOnlyDirtyFields() {
+        Project project = project(Project.FIELD_TITLE | Project.FIELD_DESCRIPTION);
+        ProjectChange change = ProjectDelta.build(project, null);
+
+        assertEquals("p1", change.getProjectId());
+        assertEquals(1000, change.getUpdatedAt());
+        assertEquals(2, change.getFields().size());
+        assertEquals("Local title", change.getFields().get(ProjectDelta.TITLE).getAsString());
+        assertEquals("", change.getFields().get(ProjectDelta.DESCRIPTION).getAsString());
+    }
+
+    @Test
+    public void buildThenApplyCarriesTheDirtyFields() {
+        Project local = project(Project.FIELD_TITLE | Project.FIELD_EDIT_DECISIONS);
+        Project remote = project(0);
+        remote.setTitle("Stale");
+        remote.setEditDecisionListJson(null);
+
+        assertTrue(ProjectDelta.apply(ProjectDelta.build(local, null), remote));
+        assertEquals("Local title", remote.getTitle());
+        assertEquals(local.getEditDecisionListJson(), remote.getEditDecisionListJson());
+    }
+
+    private static Project project(int dirtyFields) {
+        Project project = new Project();
+        project.setProjectId("p1");
+        project.setTitle("Local title");
+        project.setEditDecisionListJson("[{\"clip\":0,\"in\":0,\"out\":1000,\"at\":0}]");
+        project.setEdlPath("/edl/p1.edl");
+        project.setUpdatedAt(1000);
+        project.setDirtyFields(dirtyFields);
+        return project;
+    }
+}
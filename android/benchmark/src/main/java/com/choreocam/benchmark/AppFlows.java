@@ -0,0 +1,94 @@
+package com.choreocam.benchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+// UI journeys shared by the benchmarks and the baseline profile generator, so the profile covers
+// exactly the paths that are measured
+final class AppFlows {
+
+    static final String PACKAGE_NAME = "com.choreocam.app";
+
+    private static final long TIMEOUT_MS = 5_000;
+    // Enough rows that a few flings never reach the end of the list
+    private static final int SEED_PROJECTS = 40;
+    private static final int MIN_VISIBLE_ROWS = 6;
+
+    private static boolean seeded;
+
+    private AppFlows() {
+    }
+
+    // The editor button asks for media access first; granting it up front keeps the dialog out of the trace.
+    // Grants that do not apply to the device's API level just fail quietly.
+    static void grantMediaPermissions(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        try {
+            device.executeShellCommand("pm grant " + PACKAGE_NAME + " android.permission.READ_MEDIA_VIDEO");
+            device.executeShellCommand("pm grant " + PACKAGE_NAME + " android.permission.READ_MEDIA_AUDIO");
+            device.executeShellCommand("pm grant " + PACKAGE_NAME + " android.permission.READ_EXTERNAL_STORAGE");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    static void openEditor(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        find(device, "createProjectBtn").click();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "autoEditBtn")), TIMEOUT_MS);
+        device.waitForIdle();
+    }
+
+    static void openProjectList(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        find(device, "myProjectsBtn").click();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "recyclerView")), TIMEOUT_MS);
+        device.waitForIdle();
+    }
+
+    static void scrollProjectList(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = find(device, "recyclerView");
+        // Keeps the fling clear of the system gesture areas at the screen edges
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < 3; i++) {
+            list.fling(Direction.DOWN);
+            device.waitForIdle();
+        }
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+
+    // A fresh install has no projects, and every editor opened without a project id creates one.
+    // Starts and ends on MainActivity.
+    static void ensureProjects(MacrobenchmarkScope scope) {
+        if (seeded) {
+            return;
+        }
+        UiDevice device = scope.getDevice();
+        openProjectList(scope);
+        int visibleRows = find(device, "recyclerView").getChildCount();
+        device.pressBack();
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "createProjectBtn")), TIMEOUT_MS);
+        if (visibleRows < MIN_VISIBLE_ROWS) {
+            for (int i = 0; i < SEED_PROJECTS; i++) {
+                openEditor(scope);
+                device.pressBack();
+                device.wait(Until.hasObject(By.res(PACKAGE_NAME, "createProjectBtn")), TIMEOUT_MS);
+            }
+        }
+        seeded = true;
+    }
+
+    private static UiObject2 find(UiDevice device, String resourceId) {
+        UiObject2 view = device.wait(Until.findObject(By.res(PACKAGE_NAME, resourceId)), TIMEOUT_MS);
+        if (view == null) {
+            throw new IllegalStateException("View not found: " + resourceId);
+        }
+        return view;
+    }
+}
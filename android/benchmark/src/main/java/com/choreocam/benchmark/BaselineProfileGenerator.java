@@ -0,0 +1,36 @@
+package com.choreocam.benchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+// Records the classes and methods used by the benchmarked journeys. Needs an emulator or device on
+// API 33+ (or rooted); copy the generated file over app/src/main/baseline-prof.txt as described in
+// the README.
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(AppFlows.PACKAGE_NAME, scope -> {
+            AppFlows.grantMediaPermissions(scope);
+            scope.pressHome();
+            scope.startActivityAndWait();
+
+            AppFlows.ensureProjects(scope);
+            AppFlows.openProjectList(scope);
+            AppFlows.scrollProjectList(scope);
+            scope.getDevice().pressBack();
+
+            AppFlows.openEditor(scope);
+            scope.getDevice().pressBack();
+            return Unit.INSTANCE;
+        });
+    }
+}
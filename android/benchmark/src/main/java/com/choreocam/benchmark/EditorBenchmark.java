@@ -0,0 +1,55 @@
+package com.choreocam.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Arrays;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+// Opening ProjectEditorActivity from the home screen in a fresh process, where code that is not AOT
+// compiled costs the most: the framework's activityStart slice plus frame timing while it loads
+@RunWith(AndroidJUnit4.class)
+public class EditorBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void openEditorNoCompilation() {
+        openEditor(new CompilationMode.None());
+    }
+
+    @Test
+    public void openEditorBaselineProfile() {
+        openEditor(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void openEditor(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+            AppFlows.PACKAGE_NAME,
+            Arrays.asList(new TraceSectionMetric("activityStart"), new FrameTimingMetric()),
+            compilationMode,
+            StartupMode.COLD,
+            ITERATIONS,
+            scope -> {
+                AppFlows.grantMediaPermissions(scope);
+                scope.pressHome();
+                scope.startActivityAndWait();
+                return Unit.INSTANCE;
+            },
+            scope -> {
+                AppFlows.openEditor(scope);
+                return Unit.INSTANCE;
+            }
+        );
+    }
+}
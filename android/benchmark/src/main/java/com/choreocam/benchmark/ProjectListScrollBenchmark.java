@@ -0,0 +1,54 @@
+package com.choreocam.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Collections;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+// Frame durations and jank while flinging through the paged project list
+@RunWith(AndroidJUnit4.class)
+public class ProjectListScrollBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void scrollNoCompilation() {
+        scroll(new CompilationMode.None());
+    }
+
+    @Test
+    public void scrollBaselineProfile() {
+        scroll(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    private void scroll(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+            AppFlows.PACKAGE_NAME,
+            Collections.singletonList(new FrameTimingMetric()),
+            compilationMode,
+            StartupMode.WARM,
+            ITERATIONS,
+            scope -> {
+                AppFlows.grantMediaPermissions(scope);
+                scope.startActivityAndWait();
+                AppFlows.ensureProjects(scope);
+                AppFlows.openProjectList(scope);
+                return Unit.INSTANCE;
+            },
+            scope -> {
+                AppFlows.scrollProjectList(scope);
+                return Unit.INSTANCE;
+            }
+        );
+    }
+}
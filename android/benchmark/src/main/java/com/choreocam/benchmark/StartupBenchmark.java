@@ -0,0 +1,68 @@
+package com.choreocam.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Arrays;
+import kotlin.Unit;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+// Cold start into MainActivity. Reports time to initial display, and time to full display from
+// MainActivity's reportFullyDrawn() once the user's Pro state is applied.
+// Run with ./gradlew :benchmark:connectedBenchmarkAndroidTest on a physical device.
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    // Worst case: a fresh install before any profile-guided compilation
+    @Test
+    public void startupNoCompilation() {
+        startup(new CompilationMode.None());
+    }
+
+    // What users get from the Play Store: the shipped baseline profile compiled at install
+    @Test
+    public void startupBaselineProfile() {
+        startup(new CompilationMode.Partial(BaselineProfileMode.Require));
+    }
+
+    // Best case: everything AOT compiled
+    @Test
+    public void startupFullCompilation() {
+        startup(new CompilationMode.Full());
+    }
+
+    private void startup(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+            AppFlows.PACKAGE_NAME,
+            Arrays.asList(
+                new StartupTimingMetric(),
+                // Background initializers from the startup graph in ChoreoCamApplication
+                new TraceSectionMetric("startup:config"),
+                new TraceSectionMetric("startup:database"),
+                new TraceSectionMetric("startup:session")
+            ),
+            compilationMode,
+            StartupMode.COLD,
+            ITERATIONS,
+            scope -> {
+                scope.pressHome();
+                return Unit.INSTANCE;
+            },
+            scope -> {
+                scope.startActivityAndWait();
+                return Unit.INSTANCE;
+            }
+        );
+    }
+}
@@ -0,0 +1,81 @@
+#!/bin/bash
+
+# Regenerates app/schemas with Room's own schema export, one file per database version.
+# Each version is built from the last commit that still had it, in a throwaway git worktree,
+# so the old schemas are exactly what Room created on devices running that version.
+#
+#   ./export-room-schemas.sh            build every version and copy its schema into app/schemas
+#   ./export-room-schemas.sh --dry-run  only list the commit each version is built from
+#
+# Needs the Android SDK (local.properties or ANDROID_HOME); GRADLE overrides the gradle command.
+
+set -e
+
+ANDROID_DIR="$(cd "$(dirname "$0")" && pwd)"
+REPO_DIR="$(git -C "$ANDROID_DIR" rev-parse --show-toplevel)"
+DB_SOURCE="android/app/src/main/java/com/choreocam/app/database/AppDatabase.java"
+SCHEMA_DIR="app/schemas/com.choreocam.app.database.AppDatabase"
+GRADLE="${GRADLE:-gradle}"
+
+db_version() {
+    git -C "$REPO_DIR" show "$1:$DB_SOURCE" | grep -o 'version = [0-9]*' | grep -o '[0-9]*'
+}
+
+# The commit that raised the database to each version, oldest first
+declare -A BUMPED_AT
+previous=""
+for commit in $(git -C "$REPO_DIR" log --reverse --format=%H HEAD -- "$DB_SOURCE"); do
+    version=$(db_version "$commit")
+    if [ "$version" != "$previous" ]; then
+        BUMPED_AT[$version]=$commit
+        previous=$version
+    fi
+done
+current=$(db_version HEAD)
+
+# A version's tree is the one just before the next bump; the current version is HEAD
+tree_for() {
+    local next=$(($1 + 1))
+    if [ "$1" -eq "$current" ]; then
+        git -C "$REPO_DIR" rev-parse HEAD
+    elif [ -n "${BUMPED_AT[$next]}" ]; then
+        git -C "$REPO_DIR" rev-parse "${BUMPED_AT[$next]}^"
+    else
+        echo "Error: no commit raises the database to version $next" >&2
+        exit 1
+    fi
+}
+
+if [ "$1" = "--dry-run" ]; then
+    for version in $(seq 1 "$current"); do
+        commit=$(tree_for "$version")
+        echo "$version $(git -C "$REPO_DIR" log -1 --format='%h %s' "$commit")"
+    done
+    exit 0
+fi
+
+WORK_DIR="$(mktemp -d)"
+trap 'rm -rf "$WORK_DIR"; git -C "$REPO_DIR" worktree prune' EXIT
+
+mkdir -p "$ANDROID_DIR/$SCHEMA_DIR"
+for version in $(seq 1 "$current"); do
+    commit=$(tree_for "$version")
+    tree="$WORK_DIR/v$version"
+    echo "Exporting schema $version from $(git -C "$REPO_DIR" log -1 --format='%h %s' "$commit")"
+    git -C "$REPO_DIR" worktree add --detach --quiet "$tree" "$commit"
+    if [ -f "$ANDROID_DIR/local.properties" ]; then
+        cp "$ANDROID_DIR/local.properties" "$tree/android/"
+    fi
+    # Room writes the file while compiling; a stale copy in the tree must not survive
+    rm -f "$tree/android/$SCHEMA_DIR/$version.json"
+    "$GRADLE" -p "$tree/android" --quiet :app:compileDebugJavaWithJavac
+    if [ ! -f "$tree/android/$SCHEMA_DIR/$version.json" ]; then
+        echo "Error: building $commit did not export schema $version" >&2
+        exit 1
+    fi
+    cp "$tree/android/$SCHEMA_DIR/$version.json" "$ANDROID_DIR/$SCHEMA_DIR/$version.json"
+    git -C "$REPO_DIR" worktree remove --force "$tree"
+done
+
+echo ""
+echo "Exported schemas 1-$current into $SCHEMA_DIR"
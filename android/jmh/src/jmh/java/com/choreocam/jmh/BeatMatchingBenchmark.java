@@ -0,0 +1,67 @@
+package com.choreocam.jmh;
+
+import com.choreocam.app.edit.AutoEditPlanner;
+import com.choreocam.app.edit.BeatTimeline;
+import com.choreocam.app.edit.EditDecisionList;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.MusicTrack;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Auto-edit planning over a ten-minute track; the reused-list variant should report ~0 B/op
+@State(Scope.Benchmark)
+public class BeatMatchingBenchmark {
+
+    private static final long TRACK_MS = 10 * 60_000;
+
+    @Param({"20", "200"})
+    public int clipCount;
+
+    @Param({"96", "174"})
+    public int bpm;
+
+    private List<Clip> clips;
+    private MusicTrack track;
+    private BeatTimeline beats;
+    private long[] startsMs;
+    private long[] lengthsMs;
+    private AutoEditPlanner planner;
+    private EditDecisionList reused;
+
+    @Setup
+    public void setUp() {
+        clips = Fixtures.clips(clipCount);
+        track = Fixtures.track(bpm, TRACK_MS);
+        beats = BeatTimeline.forTrack(track);
+        startsMs = new long[clipCount];
+        lengthsMs = new long[clipCount];
+        for (int i = 0; i < clipCount; i++) {
+            startsMs[i] = clips.get(i).getTrimStartMs();
+            lengthsMs[i] = clips.get(i).getUsableDurationMs();
+        }
+        planner = new AutoEditPlanner();
+        reused = new EditDecisionList();
+        // Grow the reused list once so steady-state runs measure matching, not array growth
+        planner.plan(beats, startsMs, lengthsMs, clipCount, reused);
+    }
+
+    @Benchmark
+    public int planIntoReusedList() {
+        return planner.plan(beats, startsMs, lengthsMs, clipCount, reused);
+    }
+
+    @Benchmark
+    public EditDecisionList planFromClips() {
+        return planner.plan(clips, beats);
+    }
+
+    // Cue point parsing plus the timeline build, as done before every auto-edit
+    @Benchmark
+    public BeatTimeline beatTimelineForTrack() {
+        return BeatTimeline.forTrack(track);
+    }
+}
@@ -0,0 +1,202 @@
+package com.choreocam.jmh;
+
+import com.choreocam.app.edit.EditDecisionList;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.MusicTrack;
+import com.choreocam.app.models.Preset;
+import com.choreocam.app.models.Project;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// Deterministic data sized like the heaviest real projects and catalogs, so runs are comparable
+final class Fixtures {
+
+    static final int SAMPLE_RATE = 44100;
+
+    private static final long SEED = 20240601L;
+    private static final String[] TRANSITIONS = {"cut", "fade", "flash", "dissolve"};
+    private static final String[] GENRES = {"pop", "hip-hop", "edm", "latin", "k-pop", "house"};
+
+    private Fixtures() {
+    }
+
+    static Random random() {
+        return new Random(SEED);
+    }
+
+    // Beat times with a little human timing jitter, in the object form the analyzer uploads
+    static String cuePointsJson(int bpm, long durationMs) {
+        Random random = random();
+        double intervalMs = 60000.0 / bpm;
+        StringBuilder json = new StringBuilder();
+        json.append('[');
+        int count = (int) (durationMs / intervalMs);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            long time = Math.round(i * intervalMs) + random.nextInt(11) - 5;
+            json.append("{\"timeMs\":").append(Math.max(0, time))
+                .append(",\"strength\":").append(String.format(Locale.US, "%.2f", random.nextFloat()))
+                .append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    static List<Clip> clips(int count) {
+        Random random = random();
+        List<Clip> clips = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Clip clip = new Clip();
+            clip.setPosition(i);
+            clip.setUri("content://media/external/video/media/" + (100000 + i));
+            clip.setDurationMs(2_000 + random.nextInt(58_000));
+            clip.setTrimStartMs(random.nextInt(1_000));
+            clips.add(clip);
+        }
+        return clips;
+    }
+
+    static MusicTrack track(int bpm, long durationMs) {
+        MusicTrack track = new MusicTrack();
+        track.setTrackId("track-" + bpm);
+        track.setTitle("Benchmark " + bpm);
+        track.setBpm(bpm);
+        track.setDurationMs(durationMs);
+        track.setCuePointsJson(cuePointsJson(bpm, durationMs));
+        return track;
+    }
+
+    static EditDecisionList editDecisionList(int segments, int clipCount) {
+        Random random = random();
+        EditDecisionList edl = new EditDecisionList(segments);
+        long at = 0;
+        for (int i = 0; i < segments; i++) {
+            long in = random.nextInt(20_000);
+            long length = 250 + random.nextInt(3_000);
+            edl.add(i % clipCount, in, in + length, at);
+            at += length;
+        }
+        return edl;
+    }
+
+    static Preset preset(int index, int transitions) {
+        Random random = new Random(SEED + index);
+        JsonArray transitionArray = new JsonArray();
+        for (int i = 0; i < transitions; i++) {
+            JsonObject transition = new JsonObject();
+            transition.addProperty("type", TRANSITIONS[random.nextInt(TRANSITIONS.length)]);
+            transition.addProperty("durationMs", 100 + random.nextInt(400));
+            transitionArray.add(transition);
+        }
+        JsonArray effects = new JsonArray();
+        effects.add(effect("brightness", random.nextFloat() * 0.4f - 0.2f));
+        effects.add(effect("contrast", 0.8f + random.nextFloat() * 0.6f));
+        effects.add(effect("saturation", 0.5f + random.nextFloat()));
+        effects.add(effect("vignette", random.nextFloat() * 0.5f));
+
+        Preset preset = new Preset();
+        preset.setPresetId("preset-" + index);
+        preset.setName("Preset " + index);
+        preset.setDescription("Synthetic preset for benchmarking");
+        preset.setCategory(GENRES[index % GENRES.length]);
+        preset.setThumbnailUrl("https://cdn.example.com/presets/" + index + ".jpg");
+        preset.setTransitionsJson(transitionArray.toString());
+        preset.setEffectsJson(effects.toString());
+        return preset;
+    }
+
+    private static JsonObject effect(String type, float value) {
+        JsonObject effect = new JsonObject();
+        effect.addProperty("type", type);
+        effect.addProperty("value", value);
+        return effect;
+    }
+
+    // A /presets or /music response body as the server sends it
+    static String presetCatalogJson(int count) {
+        JsonArray presets = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            Preset preset = preset(i, 32);
+            JsonObject item = new JsonObject();
+            item.addProperty("presetId", preset.getPresetId());
+            item.addProperty("name", preset.getName());
+            item.addProperty("description", preset.getDescription());
+            item.addProperty("thumbnailUrl", preset.getThumbnailUrl());
+            item.addProperty("category", preset.getCategory());
+            item.addProperty("isPro", i % 3 == 0);
+            item.addProperty("transitionsJson", preset.getTransitionsJson());
+            item.addProperty("effectsJson", preset.getEffectsJson());
+            presets.add(item);
+        }
+        JsonObject response = new JsonObject();
+        response.addProperty("success", true);
+        response.add("presets", presets);
+        return response.toString();
+    }
+
+    static String musicCatalogJson(int count) {
+        Random random = random();
+        JsonArray tracks = new JsonArray();
+        for (int i = 0; i < count; i++) {
+            int bpm = 80 + random.nextInt(80);
+            long duration = 120_000 + random.nextInt(120_000);
+            JsonObject item = new JsonObject();
+            item.addProperty("trackId", "track-" + i);
+            item.addProperty("title", "Track " + i);
+            item.addProperty("artist", "Artist " + (i % 50));
+            item.addProperty("genre", GENRES[i % GENRES.length]);
+            item.addProperty("bpm", bpm);
+            item.addProperty("durationMs", duration);
+            item.addProperty("fileUrl", "https://cdn.example.com/music/" + i + ".m4a");
+            item.addProperty("isPro", i % 4 == 0);
+            item.addProperty("cuePointsJson", cuePointsJson(bpm, duration));
+            tracks.add(item);
+        }
+        JsonObject response = new JsonObject();
+        response.addProperty("success", true);
+        response.add("tracks", tracks);
+        return response.toString();
+    }
+
+    // Projects with every column dirty, as after a first sync or a long offline session
+    static List<Project> dirtyProjects(int count, int clipsPerProject, int segmentsPerProject) {
+        List<Project> projects = new ArrayList<>(count);
+        String edlJson = editDecisionList(segmentsPerProject, clipsPerProject).toJson();
+        for (int i = 0; i < count; i++) {
+            Project project = new Project();
+            project.setProjectId("project-" + i);
+            project.setTitle("Dance practice " + i);
+            project.setDescription("Rehearsal footage for the spring showcase");
+            project.setEditDecisionListJson(edlJson);
+            project.setChosenPresetId(1 + i % 20);
+            project.setMusicId(1 + i % 100);
+            project.setResolution("1080p");
+            project.setDuration(180_000);
+            project.setDirtyFields(Project.FIELD_ALL);
+            projects.add(project);
+        }
+        return projects;
+    }
+
+    // Four-on-the-floor clicks over a low hum, as 16-bit style mono floats
+    static float[] clickTrack(int bpm, int seconds) {
+        Random random = random();
+        float[] samples = new float[SAMPLE_RATE * seconds];
+        int beatInterval = SAMPLE_RATE * 60 / bpm;
+        int clickLength = SAMPLE_RATE / 100;
+        for (int i = 0; i < samples.length; i++) {
+            float hum = 0.05f * (float) Math.sin(2 * Math.PI * 110 * i / SAMPLE_RATE);
+            float noise = (random.nextFloat() - 0.5f) * 0.02f;
+            int sinceBeat = i % beatInterval;
+            float click = sinceBeat < clickLength ? 0.8f * (1f - (float) sinceBeat / clickLength)
+                * (random.nextFloat() * 2f - 1f) : 0f;
+            samples[i] = hum + noise + click;
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,95 @@
+package com.choreocam.jmh;
+
+import com.choreocam.app.api.models.MusicResponse;
+import com.choreocam.app.api.models.PresetResponse;
+import com.choreocam.app.edit.BeatTimeline;
+import com.choreocam.app.edit.EdlFile;
+import com.choreocam.app.edit.EditDecisionList;
+import com.choreocam.app.edit.SegmentList;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.Preset;
+import com.choreocam.app.render.PresetEffects;
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// The JSON columns and catalog responses parsed on the way into the editor and the catalog screens
+@State(Scope.Benchmark)
+public class JsonParsingBenchmark {
+
+    private static final int CLIPS = 200;
+    private static final int SEGMENTS = 2_000;
+    private static final int PRESETS = 200;
+    private static final int TRACKS = 500;
+
+    private final Gson gson = new Gson();
+
+    private String cuePointsJson;
+    private String clipsMetaJson;
+    private String editDecisionListJson;
+    private ByteBuffer edlBinary;
+    private String presetCatalogJson;
+    private String musicCatalogJson;
+    private Preset preset;
+
+    @Setup
+    public void setUp() {
+        cuePointsJson = Fixtures.cuePointsJson(128, 10 * 60_000);
+        clipsMetaJson = Clip.toJson(Fixtures.clips(CLIPS));
+        EditDecisionList edl = Fixtures.editDecisionList(SEGMENTS, CLIPS);
+        editDecisionListJson = edl.toJson();
+        preset = Fixtures.preset(0, 64);
+        edlBinary = EdlFile.encode(edl, PresetEffects.fromPreset(preset), EdlFile.presetStamp(preset));
+        presetCatalogJson = Fixtures.presetCatalogJson(PRESETS);
+        musicCatalogJson = Fixtures.musicCatalogJson(TRACKS);
+    }
+
+    @Benchmark
+    public long[] cuePoints() {
+        return BeatTimeline.parseCuePoints(cuePointsJson);
+    }
+
+    @Benchmark
+    public List<Clip> clipsMeta() {
+        return Clip.parseList(clipsMetaJson);
+    }
+
+    // Both read every segment so the binary path is compared on a full walk, not just the open
+    @Benchmark
+    public long editDecisionListFromJson() {
+        return sumLengths(EditDecisionList.fromJson(editDecisionListJson));
+    }
+
+    @Benchmark
+    public long editDecisionListFromBinary() throws IOException {
+        return sumLengths(EdlFile.wrap(edlBinary.duplicate()));
+    }
+
+    @Benchmark
+    public PresetEffects presetEffects() {
+        return PresetEffects.fromPreset(preset);
+    }
+
+    @Benchmark
+    public PresetResponse presetCatalog() {
+        return gson.fromJson(presetCatalogJson, PresetResponse.class);
+    }
+
+    @Benchmark
+    public MusicResponse musicCatalog() {
+        return gson.fromJson(musicCatalogJson, MusicResponse.class);
+    }
+
+    private static long sumLengths(SegmentList segments) {
+        long total = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            total += segments.getLengthMs(i) + segments.getClipIndex(i);
+        }
+        return total;
+    }
+}
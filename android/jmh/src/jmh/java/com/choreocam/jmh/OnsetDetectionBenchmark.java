@@ -0,0 +1,32 @@
+package com.choreocam.jmh;
+
+import com.choreocam.app.audio.BeatAnalysis;
+import com.choreocam.app.audio.OnsetDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// On-device beat analysis of thirty seconds of decoded audio, minus the decoder itself
+@State(Scope.Benchmark)
+public class OnsetDetectionBenchmark {
+
+    private static final int SECONDS = 30;
+    private static final int BPM = 128;
+
+    private float[] samples;
+    private OnsetDetector detector;
+
+    @Setup
+    public void setUp() {
+        samples = Fixtures.clickTrack(BPM, SECONDS);
+        detector = new OnsetDetector(Fixtures.SAMPLE_RATE);
+    }
+
+    @Benchmark
+    public BeatAnalysis analyze() {
+        detector.reset();
+        detector.process(samples, 0, samples.length);
+        return detector.finish();
+    }
+}
@@ -0,0 +1,75 @@
+package com.choreocam.jmh;
+
+import com.choreocam.app.api.models.ProjectChange;
+import com.choreocam.app.api.models.SyncRequest;
+import com.choreocam.app.models.Clip;
+import com.choreocam.app.models.Project;
+import com.choreocam.app.sync.ProjectDelta;
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// One sync page: building the field deltas, serializing the request body as Retrofit would, and
+// applying the pulled changes back onto local projects
+@State(Scope.Benchmark)
+public class SyncPayloadBenchmark {
+
+    private static final int CLIPS_PER_PROJECT = 30;
+    private static final int SEGMENTS_PER_PROJECT = 500;
+
+    // SyncWorker's default page size, and a large one
+    @Param({"50", "200"})
+    public int pageSize;
+
+    private final Gson gson = new Gson();
+
+    private List<Project> projects;
+    private List<Clip> clips;
+    private List<ProjectChange> pulled;
+    private List<Project> localProjects;
+
+    @Setup
+    public void setUp() {
+        projects = Fixtures.dirtyProjects(pageSize, CLIPS_PER_PROJECT, SEGMENTS_PER_PROJECT);
+        clips = Fixtures.clips(CLIPS_PER_PROJECT);
+        pulled = buildChanges();
+        localProjects = Fixtures.dirtyProjects(pageSize, CLIPS_PER_PROJECT, SEGMENTS_PER_PROJECT);
+        for (Project project : localProjects) {
+            // Clean locally, so every pulled field is applied
+            project.setDirtyFields(0);
+        }
+    }
+
+    @Benchmark
+    public List<ProjectChange> buildChanges() {
+        List<ProjectChange> changes = new ArrayList<>(projects.size());
+        for (Project project : projects) {
+            changes.add(ProjectDelta.build(project, clips));
+        }
+        return changes;
+    }
+
+    @Benchmark
+    public String buildAndSerializeRequest() {
+        SyncRequest request = new SyncRequest();
+        request.setChanges(buildChanges());
+        request.setDeviceId("benchmark-device");
+        return gson.toJson(request);
+    }
+
+    @Benchmark
+    public int applyPulledChanges() {
+        int changed = 0;
+        for (int i = 0; i < pulled.size(); i++) {
+            if (ProjectDelta.apply(pulled.get(i), localProjects.get(i))) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,37 @@
+"""Delta sync columns on projects
+
+Revision ID: 0001_delta_sync
+Revises:
+Create Date: 2026-10-17
+"""
+from alembic import op
+import sqlalchemy as sa
+
+revision = "0001_delta_sync"
+down_revision = None
+branch_labels = None
+depends_on = None
+
+
+def _project_columns():
+    return {column["name"] for column in sa.inspect(op.get_bind()).get_columns("projects")}
+
+
+def upgrade():
+    # Databases created after these columns existed already have them from create_all
+    existing = _project_columns()
+    if "edit_decision_list_json" not in existing:
+        op.add_column("projects", sa.Column("edit_decision_list_json", sa.Text(), nullable=True))
+    if "version" not in existing:
+        # Existing rows start at 0, so only a full pull (cursor 0) returns them
+        op.add_column("projects", sa.Column("version", sa.BigInteger(), nullable=True, server_default="0"))
+        op.create_index("ix_projects_version", "projects", ["version"])
+    if "field_versions" not in existing:
+        op.add_column("projects", sa.Column("field_versions", sa.JSON(), nullable=True))
+
+
+def downgrade():
+    op.drop_column("projects", "field_versions")
+    op.drop_index("ix_projects_version", table_name="projects")
+    op.drop_column("projects", "version")
+    op.drop_column("projects", "edit_decision_list_json")
@@ -0,0 +1,15 @@
+from fastapi import HTTPException
+from sqlalchemy.orm import Session
+from typing import Optional
+from app.models.models import User
+from app.core.security import decode_token
+
+# The user named by a valid bearer token; anything else is refused with 401
+def require_user(authorization: Optional[str], db: Session) -> User:
+    if authorization and authorization.startswith("Bearer "):
+        payload = decode_token(authorization[len("Bearer "):])
+        if payload and payload.get("sub"):
+            user = db.query(User).filter(User.email == payload["sub"]).first()
+            if user:
+                return user
+    raise HTTPException(status_code=401, detail="Not authenticated", headers={"WWW-Authenticate": "Bearer"})
@@ -1,8 +1,9 @@
-from fastapi import APIRouter, Depends
+from fastapi import APIRouter, Depends, Request
 from sqlalchemy.orm import Session
 from pydantic import BaseModel
 from typing import List
 from app.db.database import get_db
+from app.core.http_cache import cached_json_response
 from app.models.models import MusicTrack
 
 router = APIRouter()
@@ -29,7 +30,7 @@ class MusicResponse(BaseModel):
     track: MusicTrackData = None
 
 @router.get("", response_model=MusicResponse)
-def get_music_tracks(db: Session = Depends(get_db)):
+def get_music_tracks(request: Request, db: Session = Depends(get_db)):
     tracks = db.query(MusicTrack).all()
 
     track_list = [
@@ -48,14 +49,14 @@ def get_music_tracks(db: Session = Depends(get_db)):
         for t in tracks
     ]
 
-    return MusicResponse(
+    return cached_json_response(request, MusicResponse(
         success=True,
         message="Music tracks retrieved successfully",
         tracks=track_list
-    )
+    ))
 
 @router.get("/{track_id}", response_model=MusicResponse)
-def get_music_track(track_id: str, db: Session = Depends(get_db)):
+def get_music_track(track_id: str, request: Request, db: Session = Depends(get_db)):
     track = db.query(MusicTrack).filter(MusicTrack.track_id == track_id).first()
 
     if not track:
@@ -74,8 +75,8 @@ def get_music_track(track_id: str, db: Session = Depends(get_db)):
         cuePointsJson=str(track.cue_points_json) if track.cue_points_json else None
     )
 
-    return MusicResponse(
+    return cached_json_response(request, MusicResponse(
         success=True,
         message="Track retrieved successfully",
         track=track_data
-    )
+    ))
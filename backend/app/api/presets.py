@@ -1,8 +1,9 @@
-from fastapi import APIRouter, Depends
+from fastapi import APIRouter, Depends, Request
 from sqlalchemy.orm import Session
 from pydantic import BaseModel
 from typing import List
 from app.db.database import get_db
+from app.core.http_cache import cached_json_response
 from app.models.models import Preset
 
 router = APIRouter()
@@ -29,7 +30,7 @@ class PresetResponse(BaseModel):
     preset: PresetData = None
 
 @router.get("", response_model=PresetResponse)
-def get_presets(db: Session = Depends(get_db)):
+def get_presets(request: Request, db: Session = Depends(get_db)):
     presets = db.query(Preset).all()
 
     preset_list = [
@@ -48,14 +49,14 @@ def get_presets(db: Session = Depends(get_db)):
         for p in presets
     ]
 
-    return PresetResponse(
+    return cached_json_response(request, PresetResponse(
         success=True,
         message="Presets retrieved successfully",
         presets=preset_list
-    )
+    ))
 
 @router.get("/{preset_id}", response_model=PresetResponse)
-def get_preset(preset_id: str, db: Session = Depends(get_db)):
+def get_preset(preset_id: str, request: Request, db: Session = Depends(get_db)):
     preset = db.query(Preset).filter(Preset.preset_id == preset_id).first()
 
     if not preset:
@@ -74,8 +75,8 @@ def get_preset(preset_id: str, db: Session = Depends(get_db)):
         captionStyleJson=str(preset.caption_style_json) if preset.caption_style_json else None
     )
 
-    return PresetResponse(
+    return cached_json_response(request, PresetResponse(
         success=True,
         message="Preset retrieved successfully",
         preset=preset_data
-    )
+    ))
@@ -1,13 +1,40 @@
-from fastapi import APIRouter, Depends
+from fastapi import APIRouter, Depends, Header, HTTPException
+from sqlalchemy import and_, or_
 from sqlalchemy.orm import Session
 from pydantic import BaseModel
-from typing import List, Optional
+from typing import Any, Dict, List, Optional
 from app.db.database import get_db
-from app.models.models import User, Project
-from datetime import datetime
+from app.models.models import Project
+from app.api.deps import require_user
+import json
+import time
 
 router = APIRouter()
 
+# Client field name -> Project column
+SYNC_FIELDS = {
+    "title": "title",
+    "description": "description",
+    "clipsMetaJson": "clips_meta_json",
+    "editDecisionListJson": "edit_decision_list_json",
+    "chosenPresetId": "chosen_preset_id",
+    "musicId": "music_id",
+    "status": "status",
+    "outputFilePath": "output_file_path",
+    "duration": "duration",
+    "resolution": "resolution",
+}
+
+# Gson drops JSON nulls, so clients send cleared text columns as ""
+NULLABLE_TEXT_FIELDS = {"description", "clipsMetaJson", "editDecisionListJson", "outputFilePath", "resolution"}
+
+# Pulls re-scan this far behind the cursor so a request that committed late is not skipped;
+# the per-field device stamps keep the overlap from echoing a client's own edits
+CURSOR_OVERLAP_MS = 5000
+
+# Projects scanned per pull page, whatever the client asks for
+MAX_PULL_LIMIT = 200
+
 class UserData(BaseModel):
     userId: Optional[str] = None
     email: str
@@ -16,7 +43,7 @@ class UserData(BaseModel):
 
 class ProjectData(BaseModel):
     projectId: str
-    userId: int
+    userId: Optional[int] = None
     title: str
     description: Optional[str] = None
     clipsMetaJson: Optional[str] = None
@@ -27,10 +54,26 @@ class ProjectData(BaseModel):
     duration: Optional[int] = None
     resolution: Optional[str] = None
 
+class ProjectChange(BaseModel):
+    projectId: str
+    updatedAt: int = 0
+    fields: Dict[str, Any] = {}
+
 class SyncRequest(BaseModel):
+    # Still sent by clients but ignored; the bearer token names the account
     user: Optional[UserData] = None
+    changes: Optional[List[ProjectChange]] = None
+    # Full project uploads from clients that predate delta sync
     projects: Optional[List[ProjectData]] = None
-    lastSyncTimestamp: int
+    deviceId: Optional[str] = None
+    # Server cursor from the previous response; 0 pulls everything
+    lastSyncTimestamp: int = 0
+    # Projects to pull in this request, capped at MAX_PULL_LIMIT; 0 only pushes
+    pullLimit: int = MAX_PULL_LIMIT
+    # nextPullCursor of the previous page while paging through one pull, same lastSyncTimestamp
+    pullAfter: Optional[str] = None
+    # serverTimestamp of the first page of this push/pull walk; 0 on the first page
+    walkStartedAt: int = 0
 
 class SyncResponse(BaseModel):
     success: bool
@@ -38,59 +81,129 @@ class SyncResponse(BaseModel):
     usersSynced: int = 0
     projectsSynced: int = 0
     serverTimestamp: int
+    changes: List[ProjectChange] = []
+    # More projects to pull: repeat with pullAfter=nextPullCursor before advancing the cursor
+    hasMore: bool = False
+    nextPullCursor: Optional[str] = None
+
+def _now_ms() -> int:
+    return int(time.time() * 1000)
+
+# "version:id" of the last project on a pull page
+def _parse_pull_after(token: Optional[str]):
+    if not token:
+        return None
+    try:
+        version, row_id = token.split(":", 1)
+        return int(version), int(row_id)
+    except ValueError:
+        raise HTTPException(status_code=400, detail="Malformed pullAfter")
+
+def _to_wire(field: str, value):
+    if field == "clipsMetaJson" and value is not None and not isinstance(value, str):
+        return json.dumps(value)
+    if value is None and field in NULLABLE_TEXT_FIELDS:
+        return ""
+    return value
+
+def _apply_change(project: Project, change: ProjectChange, version: int, device_id: str):
+    field_versions = dict(project.field_versions or {})
+    for field, value in change.fields.items():
+        column = SYNC_FIELDS.get(field)
+        if column is None:
+            continue
+        if value == "" and field in NULLABLE_TEXT_FIELDS:
+            value = None
+        setattr(project, column, value)
+        field_versions[field] = [version, device_id]
+    project.field_versions = field_versions
+    project.version = version
 
 @router.post("", response_model=SyncResponse)
-def sync_data(request: SyncRequest, db: Session = Depends(get_db)):
-    users_synced = 0
+def sync_data(
+    request: SyncRequest,
+    authorization: Optional[str] = Header(None),
+    db: Session = Depends(get_db)
+):
     projects_synced = 0
+    server_timestamp = _now_ms()
+    device_id = request.deviceId or ""
+
+    # Projects are only ever read or written for the token's own account
+    user = require_user(authorization, db)
+
+    changes = list(request.changes or [])
+    for project_data in request.projects or []:
+        fields = project_data.model_dump(exclude={"projectId", "userId"})
+        changes.append(ProjectChange(projectId=project_data.projectId, fields=fields))
+
+    # Push: field-level updates; the last push received wins
+    pushed = {}
+    for change in changes:
+        project = db.query(Project).filter(Project.project_id == change.projectId).first()
+        if project and project.user_id != user.id:
+            continue
+        if not project:
+            project = Project(project_id=change.projectId, user_id=user.id)
+            db.add(project)
+        _apply_change(project, change, server_timestamp, device_id)
+        pushed[change.projectId] = set(change.fields.keys())
+        projects_synced += 1
+    db.commit()
 
-    # Sync user
-    if request.user:
-        existing_user = db.query(User).filter(User.email == request.user.email).first()
-
-        if not existing_user and request.user.userId:
-            # Create new user from offline data
-            new_user = User(
-                user_id=request.user.userId,
-                email=request.user.email,
-                username=request.user.username,
-                hashed_password="",  # Would be set during registration
-                is_pro=request.user.isPro
-            )
-            db.add(new_user)
-            db.commit()
-            users_synced += 1
-
-    # Sync projects
-    if request.projects:
-        for project_data in request.projects:
-            existing_project = db.query(Project).filter(
-                Project.project_id == project_data.projectId
-            ).first()
-
-            if not existing_project:
-                new_project = Project(
-                    project_id=project_data.projectId,
-                    user_id=project_data.userId,
-                    title=project_data.title,
-                    description=project_data.description,
-                    clips_meta_json=project_data.clipsMetaJson,
-                    chosen_preset_id=project_data.chosenPresetId,
-                    music_id=project_data.musicId,
-                    status=project_data.status,
-                    output_file_path=project_data.outputFilePath,
-                    duration=project_data.duration,
-                    resolution=project_data.resolution
-                )
-                db.add(new_project)
-                projects_synced += 1
-
-        db.commit()
+    # Pull: fields another device changed after the client's cursor, or everything on a full pull.
+    # Pages walk (version, id) upwards, so a project edited mid-walk moves ahead and is still seen.
+    remote_changes = []
+    has_more = False
+    next_pull_cursor = None
+    limit = min(max(request.pullLimit, 0), MAX_PULL_LIMIT)
+    after = _parse_pull_after(request.pullAfter)
+    since = request.lastSyncTimestamp - CURSOR_OVERLAP_MS if request.lastSyncTimestamp > 0 else 0
+    query = db.query(Project).filter(Project.user_id == user.id)
+    if since > 0:
+        query = query.filter(Project.version > since)
+    if after:
+        query = query.filter(or_(
+            Project.version > after[0],
+            and_(Project.version == after[0], Project.id > after[1])
+        ))
+    updated = query.order_by(Project.version, Project.id).limit(limit + 1).all() if limit > 0 else []
+    if len(updated) > limit:
+        updated = updated[:limit]
+        has_more = True
+        next_pull_cursor = f"{updated[-1].version or 0}:{updated[-1].id}"
+    for project in updated:
+        just_pushed = pushed.get(project.project_id, set())
+        fields = {}
+        for field, column in SYNC_FIELDS.items():
+            if field in just_pushed:
+                continue
+            stamp = (project.field_versions or {}).get(field)
+            if stamp is None:
+                # Rows written before field versions existed only go out on a full pull
+                if since > 0:
+                    continue
+            elif stamp[0] <= since:
+                continue
+            elif device_id and stamp[1] == device_id:
+                # The device's own edits are echoes, except on a full pull that restores what it had
+                # before this walk (a reinstalled or reset database)
+                if since > 0 or 0 < request.walkStartedAt <= stamp[0]:
+                    continue
+            fields[field] = _to_wire(field, getattr(project, column))
+        if fields:
+            remote_changes.append(ProjectChange(
+                projectId=project.project_id,
+                updatedAt=project.version or 0,
+                fields=fields
+            ))
 
     return SyncResponse(
         success=True,
         message="Sync completed successfully",
-        usersSynced=users_synced,
         projectsSynced=projects_synced,
-        serverTimestamp=int(datetime.utcnow().timestamp() * 1000)
+        serverTimestamp=server_timestamp,
+        changes=remote_changes,
+        hasMore=has_more,
+        nextPullCursor=next_pull_cursor
     )
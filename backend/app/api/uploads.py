@@ -0,0 +1,181 @@
+from fastapi import APIRouter, Depends, Header, HTTPException, Request, Response
+from sqlalchemy.orm import Session
+from starlette.concurrency import run_in_threadpool
+from starlette.requests import ClientDisconnect
+from typing import Optional
+from app.db.database import get_db
+from app.models.models import User, Upload
+from app.api.deps import require_user
+from app.core.config import settings
+from datetime import datetime
+import base64
+import fcntl
+import os
+import uuid
+
+router = APIRouter()
+
+# tus-style resumable uploads: POST creates an upload of a known length, HEAD reports how many bytes
+# the server holds and PATCH appends bytes starting exactly at that offset
+TUS_VERSION = "1.0.0"
+OFFSET_CONTENT_TYPE = "application/offset+octet-stream"
+
+def _tus_headers(upload: Upload) -> dict:
+    return {
+        "Tus-Resumable": TUS_VERSION,
+        "Upload-Offset": str(upload.offset or 0),
+        "Upload-Length": str(upload.length),
+        "Cache-Control": "no-store",
+    }
+
+def _get_upload(upload_id: str, user: User, db: Session) -> Upload:
+    upload = db.query(Upload).filter(Upload.upload_id == upload_id).first()
+    if not upload or upload.user_id != user.id:
+        raise HTTPException(status_code=404, detail="Upload not found")
+    return upload
+
+def _upload_path(upload: Upload) -> str:
+    return os.path.join(settings.UPLOAD_DIR, upload.upload_id)
+
+# "key base64value,key base64value" as sent in Upload-Metadata
+def _parse_metadata(header: Optional[str]) -> dict:
+    metadata = {}
+    for pair in (header or "").split(","):
+        parts = pair.strip().split(" ", 1)
+        if not parts[0]:
+            continue
+        try:
+            metadata[parts[0]] = base64.b64decode(parts[1]).decode() if len(parts) > 1 else ""
+        except ValueError:
+            raise HTTPException(status_code=400, detail="Malformed Upload-Metadata")
+    return metadata
+
+@router.post("", status_code=201)
+def create_upload(
+    upload_length: int = Header(..., alias="Upload-Length"),
+    upload_metadata: Optional[str] = Header(None, alias="Upload-Metadata"),
+    authorization: Optional[str] = Header(None),
+    db: Session = Depends(get_db)
+):
+    user = require_user(authorization, db)
+    if upload_length < 0:
+        raise HTTPException(status_code=400, detail="Invalid Upload-Length")
+    if upload_length > settings.UPLOAD_MAX_BYTES:
+        raise HTTPException(status_code=413, detail="Upload too large")
+    metadata = _parse_metadata(upload_metadata)
+
+    upload = Upload(
+        upload_id=str(uuid.uuid4()),
+        user_id=user.id,
+        project_id=metadata.get("projectId"),
+        filename=os.path.basename(metadata.get("filename", "")) or None,
+        length=upload_length,
+        offset=0
+    )
+    os.makedirs(settings.UPLOAD_DIR, exist_ok=True)
+    open(_upload_path(upload), "wb").close()
+    if upload_length == 0:
+        upload.completed_at = datetime.utcnow()
+    db.add(upload)
+    db.commit()
+
+    headers = _tus_headers(upload)
+    headers["Location"] = f"{settings.API_V1_PREFIX}/uploads/{upload.upload_id}"
+    return Response(status_code=201, headers=headers)
+
+@router.head("/{upload_id}")
+def get_upload_offset(upload_id: str, authorization: Optional[str] = Header(None), db: Session = Depends(get_db)):
+    user = require_user(authorization, db)
+    upload = _get_upload(upload_id, user, db)
+    return Response(status_code=200, headers=_tus_headers(upload))
+
+# The upload file, opened and exclusively locked; None if another PATCH holds the lock
+def _open_locked(path: str):
+    f = open(path, "r+b")
+    try:
+        fcntl.flock(f, fcntl.LOCK_EX | fcntl.LOCK_NB)
+    except BlockingIOError:
+        f.close()
+        return None
+    return f
+
+def _finish_file(f, offset: int):
+    # Bytes past the new offset are from an earlier attempt that never got committed
+    f.truncate(offset)
+    f.flush()
+    os.fsync(f.fileno())
+
+# Compare-and-set, so the offset only moves from the value this PATCH started at
+def _commit_offset(db: Session, upload: Upload, expected: int, offset: int) -> bool:
+    values = {"offset": offset, "updated_at": datetime.utcnow()}
+    if offset == upload.length and upload.completed_at is None:
+        values["completed_at"] = datetime.utcnow()
+    updated = db.query(Upload).filter(Upload.id == upload.id, Upload.offset == expected) \
+        .update(values, synchronize_session=False)
+    db.commit()
+    db.refresh(upload)
+    return updated == 1
+
+# Bytes gathered from the request stream before each write, so the threadpool is not hit per packet
+WRITE_BUFFER_BYTES = 1024 * 1024
+
+# Async only to read the request stream; file and database calls run in the threadpool
+@router.patch("/{upload_id}")
+async def append_upload(
+    upload_id: str,
+    request: Request,
+    upload_offset: int = Header(..., alias="Upload-Offset"),
+    content_type: Optional[str] = Header(None),
+    authorization: Optional[str] = Header(None),
+    db: Session = Depends(get_db)
+):
+    user = await run_in_threadpool(require_user, authorization, db)
+    upload = await run_in_threadpool(_get_upload, upload_id, user, db)
+    if (content_type or "").split(";")[0].strip() != OFFSET_CONTENT_TYPE:
+        raise HTTPException(status_code=415, detail=f"Content-Type must be {OFFSET_CONTENT_TYPE}")
+    if upload_offset != upload.offset:
+        # The client lost track of what arrived; it must HEAD and continue from the server's offset
+        return Response(status_code=409, headers=_tus_headers(upload))
+
+    # One writer per upload across all server processes; a second PATCH is refused, not queued. The
+    # lock is held until the new offset is committed.
+    f = await run_in_threadpool(_open_locked, _upload_path(upload))
+    if f is None:
+        return Response(status_code=423, headers={"Tus-Resumable": TUS_VERSION})
+    too_long = False
+    try:
+        # A PATCH that held the lock before this one may have moved the offset since it was read
+        await run_in_threadpool(db.refresh, upload)
+        if upload_offset != upload.offset:
+            return Response(status_code=409, headers=_tus_headers(upload))
+
+        start = upload.offset
+        offset = start
+        await run_in_threadpool(f.seek, offset)
+        pending = bytearray()
+        try:
+            async for chunk in request.stream():
+                if offset + len(pending) + len(chunk) > upload.length:
+                    too_long = True
+                    break
+                pending += chunk
+                if len(pending) >= WRITE_BUFFER_BYTES:
+                    await run_in_threadpool(f.write, bytes(pending))
+                    offset += len(pending)
+                    pending.clear()
+        except ClientDisconnect:
+            # Whatever arrived before the drop is kept, so the client resumes from there
+            pass
+        if pending:
+            await run_in_threadpool(f.write, bytes(pending))
+            offset += len(pending)
+        await run_in_threadpool(_finish_file, f, offset)
+
+        if not await run_in_threadpool(_commit_offset, db, upload, start, offset):
+            return Response(status_code=409, headers=_tus_headers(upload))
+    finally:
+        await run_in_threadpool(f.close)
+
+    if too_long:
+        raise HTTPException(status_code=413, detail="Body exceeds Upload-Length")
+    return Response(status_code=204, headers=_tus_headers(upload))
@@ -0,0 +1,75 @@
+import zlib
+from starlette.types import ASGIApp, Message, Receive, Scope, Send
+
+# Upper bound on an inflated request body, so a small gzip bomb can't exhaust memory
+MAX_DECOMPRESSED_BYTES = 64 * 1024 * 1024
+
+
+# Inflates `Content-Encoding: gzip` request bodies before the app runs. The whole body is inflated up
+# front so an oversized or corrupt one is answered here (413 / 400); errors raised from inside the app's
+# receive() would only surface as FastAPI's generic body parsing 400.
+class GzipRequestMiddleware:
+
+    def __init__(self, app: ASGIApp, max_size: int = MAX_DECOMPRESSED_BYTES):
+        self.app = app
+        self.max_size = max_size
+
+    async def __call__(self, scope: Scope, receive: Receive, send: Send):
+        if scope["type"] != "http":
+            await self.app(scope, receive, send)
+            return
+
+        headers = [(k, v) for k, v in scope["headers"]]
+        encoding = next((v for k, v in headers if k == b"content-encoding"), b"").lower()
+        if encoding != b"gzip":
+            await self.app(scope, receive, send)
+            return
+
+        decompressor = zlib.decompressobj(16 + zlib.MAX_WBITS)
+        parts = []
+        inflated = 0
+        more_body = True
+        try:
+            while more_body:
+                message = await receive()
+                if message["type"] == "http.disconnect":
+                    return
+                more_body = message.get("more_body", False)
+                # Never inflate more than one byte past the cap, however small the compressed chunk
+                body = decompressor.decompress(message.get("body", b""), self.max_size - inflated + 1)
+                if not more_body:
+                    body += decompressor.flush()
+                inflated += len(body)
+                if inflated > self.max_size or decompressor.unconsumed_tail:
+                    await _send_error(send, 413, b"Request body too large")
+                    return
+                parts.append(body)
+        except zlib.error:
+            await _send_error(send, 400, b"Malformed gzip body")
+            return
+        if not decompressor.eof:
+            await _send_error(send, 400, b"Malformed gzip body")
+            return
+
+        # The app sees a plain body of known length
+        body = b"".join(parts)
+        parts = None
+        scope = dict(scope)
+        scope["headers"] = [(k, v) for k, v in headers if k not in (b"content-encoding", b"content-length")]
+        scope["headers"].append((b"content-length", str(len(body)).encode()))
+        body_sent = False
+
+        async def inflated_receive() -> Message:
+            nonlocal body_sent
+            if body_sent:
+                return await receive()
+            body_sent = True
+            return {"type": "http.request", "body": body, "more_body": False}
+
+        await self.app(scope, inflated_receive, send)
+
+
+async def _send_error(send: Send, status: int, detail: bytes):
+    await send({"type": "http.response.start", "status": status,
+                "headers": [(b"content-type", b"application/json")]})
+    await send({"type": "http.response.body", "body": b'{"detail":"' + detail + b'"}'})
@@ -23,6 +23,13 @@ class Settings(BaseSettings):
     API_V1_PREFIX: str = "/v1"
     CORS_ORIGINS: List[str] = ["*"]
 
+    # How long clients may reuse a catalog response before revalidating it
+    CATALOG_CACHE_MAX_AGE_SECONDS: int = 300
+
+    # Resumable export uploads
+    UPLOAD_DIR: str = "uploads"
+    UPLOAD_MAX_BYTES: int = 2 * 1024 * 1024 * 1024
+
     class Config:
         env_file = ".env"
 
@@ -0,0 +1,23 @@
+import hashlib
+from fastapi import Request, Response
+from pydantic import BaseModel
+from app.core.config import settings
+
+
+# Serializes payload once, tags it with a content hash and answers If-None-Match with a bodyless 304
+def cached_json_response(request: Request, payload: BaseModel, max_age: int = None) -> Response:
+    if max_age is None:
+        max_age = settings.CATALOG_CACHE_MAX_AGE_SECONDS
+    body = payload.model_dump_json().encode()
+    etag = '"' + hashlib.sha256(body).hexdigest()[:32] + '"'
+    headers = {
+        "ETag": etag,
+        # Fresh for max_age, then revalidated with the ETag instead of re-downloaded
+        "Cache-Control": f"private, max-age={max_age}, must-revalidate",
+    }
+
+    if_none_match = request.headers.get("if-none-match")
+    if if_none_match and etag in [tag.strip().removeprefix("W/") for tag in if_none_match.split(",")]:
+        return Response(status_code=304, headers=headers)
+
+    return Response(content=body, media_type="application/json", headers=headers)
@@ -1,7 +1,9 @@
 from fastapi import FastAPI
 from fastapi.middleware.cors import CORSMiddleware
+from fastapi.middleware.gzip import GZipMiddleware
 from app.core.config import settings
-from app.api import auth, presets, music, style, sync
+from app.core.compression import GzipRequestMiddleware
+from app.api import auth, presets, music, style, sync, uploads
 from app.db.database import engine
 from app.models import models
 
@@ -23,12 +25,17 @@ app.add_middleware(
     allow_headers=["*"],
 )
 
+# Compressed sync uploads in, compressed catalogs and sync responses out
+app.add_middleware(GzipRequestMiddleware)
+app.add_middleware(GZipMiddleware, minimum_size=1024)
+
 # Include routers
 app.include_router(auth.router, prefix=f"{settings.API_V1_PREFIX}/auth", tags=["auth"])
 app.include_router(presets.router, prefix=f"{settings.API_V1_PREFIX}/presets", tags=["presets"])
 app.include_router(music.router, prefix=f"{settings.API_V1_PREFIX}/music", tags=["music"])
 app.include_router(style.router, prefix=f"{settings.API_V1_PREFIX}/style", tags=["style"])
 app.include_router(sync.router, prefix=f"{settings.API_V1_PREFIX}/sync", tags=["sync"])
+app.include_router(uploads.router, prefix=f"{settings.API_V1_PREFIX}/uploads", tags=["uploads"])
 
 @app.get("/")
 def root():
@@ -1,4 +1,4 @@
-from sqlalchemy import Column, Integer, String, Boolean, DateTime, Text, ForeignKey, JSON
+from sqlalchemy import Column, Integer, BigInteger, String, Boolean, DateTime, Text, ForeignKey, JSON
 from sqlalchemy.orm import relationship
 from datetime import datetime
 from app.db.database import Base
@@ -34,6 +34,11 @@ class Project(Base):
     output_file_path = Column(String, nullable=True)
     duration = Column(Integer, nullable=True)
     resolution = Column(String, nullable=True)
+    edit_decision_list_json = Column(Text, nullable=True)
+    # Server ms timestamp of the last change, used as the delta sync cursor
+    version = Column(BigInteger, default=0, index=True)
+    # {field: [version, device_id]} so pulls return only fields another device changed
+    field_versions = Column(JSON, nullable=True)
     created_at = Column(DateTime, default=datetime.utcnow)
     updated_at = Column(DateTime, default=datetime.utcnow, onupdate=datetime.utcnow)
 
@@ -81,3 +86,19 @@ class StyleVector(Base):
     updated_at = Column(DateTime, default=datetime.utcnow, onupdate=datetime.utcnow)
 
     user = relationship("User", back_populates="style_vector")
+
+
+class Upload(Base):
+    __tablename__ = "uploads"
+
+    id = Column(Integer, primary_key=True, index=True)
+    upload_id = Column(String, unique=True, index=True)
+    user_id = Column(Integer, ForeignKey("users.id"))
+    project_id = Column(String, nullable=True, index=True)
+    filename = Column(String, nullable=True)
+    length = Column(BigInteger)
+    # Bytes durably written to the upload file; the next PATCH must start here
+    offset = Column(BigInteger, default=0)
+    completed_at = Column(DateTime, nullable=True)
+    created_at = Column(DateTime, default=datetime.utcnow)
+    updated_at = Column(DateTime, default=datetime.utcnow, onupdate=datetime.utcnow)